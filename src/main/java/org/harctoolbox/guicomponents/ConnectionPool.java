@@ -0,0 +1,498 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.guicomponents;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.harctoolbox.harchardware.HarcHardwareException;
+import org.harctoolbox.harchardware.IHarcHardware;
+
+/**
+ * Keeps the connections of the network hardware beans open after they have been closed by the user,
+ * so that switching between networked units does not require a reconnect every time.
+ * Connections are identified by their endpoint, "host:port", and handed out to one bean at a time.
+ *
+ * <p>A background thread checks the idle connections periodically, and closes the ones that have not been used
+ * for a while, or that are found dead. After a failed connect, further attempts to the endpoint are subject to
+ * exponential backoff, both by {@link #acquire(String, Connector)} and by the background thread,
+ * which keeps reconnecting the endpoint as long as its user is pending, i.e., until it is acquired again, or expires.
+ * Reachability probes of endpoints (replacing ICMP ping) run asynchronously, and their results are cached briefly.
+ * This is singleton class; use {@link #getInstance()}.
+ */
+public final class ConnectionPool {
+
+    public static final int DEFAULT_MAX_IDLE = 16;
+    public static final long DEFAULT_IDLE_TIMEOUT = 600000L; // milliseconds
+    public static final long DEFAULT_PROBE_INTERVAL = 30000L;
+    public static final long DEFAULT_MIN_BACKOFF = 1000L;
+    public static final long DEFAULT_MAX_BACKOFF = 60000L;
+    public static final int PROBE_TIMEOUT = 3000;
+    private static final long PROBE_CACHE_TIME = 5000L;
+
+    private static final ConnectionPool instance = new ConnectionPool(DEFAULT_MAX_IDLE, DEFAULT_IDLE_TIMEOUT,
+            DEFAULT_PROBE_INTERVAL, DEFAULT_MIN_BACKOFF, DEFAULT_MAX_BACKOFF);
+
+    /**
+     * @return the instance
+     */
+    public static ConnectionPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param host
+     * @param port
+     * @return Key of the endpoint, as used by the pool.
+     */
+    public static String key(String host, int port) {
+        return host + ":" + port;
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        return (Runnable runnable) -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static void closeQuietly(IHarcHardware hardware) {
+        try {
+            hardware.close();
+        } catch (IOException | RuntimeException ex) {
+            // nothing sensible to do
+        }
+    }
+
+    /**
+     * Tries to open a TCP connection to the endpoint.
+     * @param host
+     * @param port
+     * @param timeout in milliseconds
+     * @return true if successful.
+     */
+    static boolean isReachable(String host, int port, int timeout) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeout);
+            return true;
+        } catch (IOException | IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private final int maxIdle;
+    private final long idleTimeout;
+    private final long probeInterval;
+    private final long minBackoff;
+    private final long maxBackoff;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Endpoint> endpoints; // in order of last release
+    private final Map<String, Probe> probes;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService probeExecutor;
+    private long hits;
+    private long connects;
+    private long reconnects;
+    private long failures;
+    private long livenessChecks;
+
+    ConnectionPool(int maxIdle, long idleTimeout, long probeInterval, long minBackoff, long maxBackoff) {
+        this(maxIdle, idleTimeout, probeInterval, minBackoff, maxBackoff, ConnectionPool::now);
+    }
+
+    /**
+     * @param clock Current time in milliseconds, used for all the timeouts and backoffs;
+     * the background thread runs every min(probeInterval, minBackoff) milliseconds of real time.
+     */
+    ConnectionPool(int maxIdle, long idleTimeout, long probeInterval, long minBackoff, long maxBackoff, LongSupplier clock) {
+        this.maxIdle = maxIdle;
+        this.idleTimeout = idleTimeout;
+        this.probeInterval = probeInterval;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.clock = clock;
+        this.endpoints = new LinkedHashMap<>(DEFAULT_MAX_IDLE);
+        this.probes = new HashMap<>(DEFAULT_MAX_IDLE);
+        this.scheduler = null;
+        this.probeExecutor = null;
+    }
+
+    /**
+     * Returns the idle connection of the endpoint, if it is still valid, otherwise a new one from the connector.
+     * The connection is to be returned by {@link #release(String, IHarcHardware)}, or, if found faulty,
+     * {@link #invalidate(String, IHarcHardware)}.
+     * If connecting fails, the user is considered pending, and the background thread keeps trying to reconnect.
+     * @param key Key of the endpoint.
+     * @param connector Used to create, and open, a new connection; remembered for reconnects.
+     * @return Open connection.
+     * @throws IOException also if the endpoint is in backoff after a failed connect.
+     * @throws HarcHardwareException
+     * @throws InterruptedException
+     */
+    public IHarcHardware acquire(String key, Connector connector) throws IOException, HarcHardwareException, InterruptedException {
+        Endpoint endpoint;
+        IHarcHardware hardware;
+        long backoffLeft = 0L;
+        synchronized (this) {
+            endpoint = endpoints.computeIfAbsent(key, (String k) -> new Endpoint(k, clock.getAsLong()));
+            while (endpoint.busy)
+                wait();
+            endpoint.connector = connector;
+            endpoint.lastUsed = clock.getAsLong();
+            hardware = endpoint.idle;
+            endpoint.idle = null;
+            if (hardware != null && hardware.isValid()) {
+                endpoint.inUse = true;
+                endpoint.pending = false;
+                hits++;
+                return hardware;
+            }
+            if (endpoint.failures > 0 && endpoint.lastUsed < endpoint.nextAttempt) {
+                endpoint.pending = true;
+                backoffLeft = endpoint.nextAttempt - endpoint.lastUsed;
+            } else
+                endpoint.inUse = true;
+        }
+        if (hardware != null)
+            closeQuietly(hardware);
+        if (backoffLeft > 0L)
+            throw new IOException("Connecting to " + key + " failed recently; next attempt in " + backoffLeft + " ms");
+
+        try {
+            hardware = connector.connect();
+        } catch (IOException | HarcHardwareException | RuntimeException ex) {
+            synchronized (this) {
+                endpoint.inUse = false;
+                endpoint.pending = true;
+                backoff(endpoint);
+            }
+            startScheduler();
+            throw ex;
+        }
+        synchronized (this) {
+            connects++;
+            endpoint.failures = 0;
+            endpoint.pending = false;
+        }
+        startScheduler();
+        return hardware;
+    }
+
+    /**
+     * Returns the connection to the pool, where it is kept open, unless it is no longer valid.
+     * @param key
+     * @param hardware
+     */
+    public void release(String key, IHarcHardware hardware) {
+        if (hardware == null)
+            return;
+        if (!hardware.isValid()) {
+            invalidate(key, hardware);
+            return;
+        }
+        List<IHarcHardware> toClose = new ArrayList<>(1);
+        synchronized (this) {
+            Endpoint endpoint = endpoints.remove(key);
+            if (endpoint == null)
+                endpoint = new Endpoint(key, clock.getAsLong());
+            endpoints.put(key, endpoint); // last in order
+            if (endpoint.idle != null && endpoint.idle != hardware)
+                toClose.add(endpoint.idle);
+            endpoint.idle = hardware;
+            endpoint.inUse = false;
+            endpoint.pending = false;
+            endpoint.lastUsed = clock.getAsLong();
+            endpoint.lastChecked = endpoint.lastUsed;
+            int noIdle = 0;
+            for (Endpoint e : endpoints.values())
+                if (e.idle != null)
+                    noIdle++;
+            for (Iterator<Endpoint> iterator = endpoints.values().iterator(); noIdle > maxIdle && iterator.hasNext();) {
+                Endpoint e = iterator.next();
+                if (e.idle != null && !e.busy) {
+                    toClose.add(e.idle);
+                    e.idle = null;
+                    iterator.remove();
+                    noIdle--;
+                }
+            }
+        }
+        toClose.forEach(ConnectionPool::closeQuietly);
+        startScheduler();
+    }
+
+    /**
+     * Closes the connection, and forgets the endpoint.
+     * @param key
+     * @param hardware
+     */
+    public void invalidate(String key, IHarcHardware hardware) {
+        synchronized (this) {
+            Endpoint endpoint = endpoints.get(key);
+            if (endpoint != null && !endpoint.busy)
+                endpoints.remove(key);
+        }
+        if (hardware != null)
+            closeQuietly(hardware);
+    }
+
+    /**
+     * Asynchronously checks whether the endpoint accepts TCP connections.
+     * An endpoint with a valid pooled connection is considered reachable without probing,
+     * since some units only accept one connection at a time.
+     * @param host
+     * @param port
+     * @param timeout in milliseconds; limited to {@link #PROBE_TIMEOUT}.
+     * @return Future result.
+     */
+    public synchronized CompletableFuture<Boolean> probe(String host, int port, int timeout) {
+        String key = key(host, port);
+        Endpoint endpoint = endpoints.get(key);
+        if (endpoint != null && (endpoint.inUse || (endpoint.idle != null && endpoint.idle.isValid())))
+            return CompletableFuture.completedFuture(true);
+
+        Probe cached = probes.get(key);
+        if (cached != null && (!cached.result.isDone() || clock.getAsLong() - cached.time < PROBE_CACHE_TIME))
+            return cached.result;
+
+        if (probeExecutor == null)
+            probeExecutor = Executors.newCachedThreadPool(daemonThreadFactory("connection-probe"));
+        int actualTimeout = Math.min(timeout, PROBE_TIMEOUT);
+        CompletableFuture<Boolean> result = CompletableFuture.supplyAsync(() -> isReachable(host, port, actualTimeout), probeExecutor);
+        probes.put(key, new Probe(result, clock.getAsLong()));
+        return result;
+    }
+
+    /**
+     * @param key
+     * @return true if there is an idle connection for the endpoint.
+     */
+    public synchronized boolean hasIdle(String key) {
+        Endpoint endpoint = endpoints.get(key);
+        return endpoint != null && endpoint.idle != null;
+    }
+
+    /**
+     * Closes all idle connections, and stops the background threads.
+     * Connections in use are not affected; they are closed when released.
+     */
+    public void close() {
+        List<IHarcHardware> toClose = new ArrayList<>(endpoints.size());
+        synchronized (this) {
+            if (scheduler != null)
+                scheduler.shutdownNow();
+            scheduler = null;
+            if (probeExecutor != null)
+                probeExecutor.shutdownNow();
+            probeExecutor = null;
+            for (Endpoint endpoint : endpoints.values())
+                if (endpoint.idle != null)
+                    toClose.add(endpoint.idle);
+            endpoints.clear();
+            probes.clear();
+        }
+        toClose.forEach(ConnectionPool::closeQuietly);
+    }
+
+    private synchronized void startScheduler() {
+        if (scheduler != null)
+            return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("connection-pool"));
+        long period = Math.min(probeInterval, minBackoff);
+        scheduler.scheduleWithFixedDelay(this::maintain, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void backoff(Endpoint endpoint) {
+        failures++;
+        endpoint.failures++;
+        long delay = Math.min(minBackoff << Math.min(endpoint.failures - 1, 20), maxBackoff);
+        endpoint.nextAttempt = clock.getAsLong() + delay;
+    }
+
+    /**
+     * Runs periodically on the scheduler: expires and checks the endpoints not in use,
+     * and reconnects the ones with a pending user.
+     */
+    void maintain() {
+        List<IHarcHardware> toClose = new ArrayList<>(1);
+        List<Endpoint> toCheck = new ArrayList<>(1);
+        List<Endpoint> toReconnect = new ArrayList<>(1);
+        synchronized (this) {
+            long now = clock.getAsLong();
+            for (Iterator<Endpoint> iterator = endpoints.values().iterator(); iterator.hasNext();) {
+                Endpoint endpoint = iterator.next();
+                if (endpoint.busy || endpoint.inUse)
+                    continue;
+                if (now - endpoint.lastUsed > idleTimeout) {
+                    if (endpoint.idle != null)
+                        toClose.add(endpoint.idle);
+                    iterator.remove();
+                } else if (endpoint.idle != null) {
+                    if (now - endpoint.lastChecked >= probeInterval) {
+                        endpoint.busy = true;
+                        toCheck.add(endpoint);
+                    }
+                } else if (endpoint.pending && endpoint.connector != null && now >= endpoint.nextAttempt) {
+                    endpoint.busy = true;
+                    toReconnect.add(endpoint);
+                }
+            }
+            probes.values().removeIf((Probe probe) -> probe.result.isDone() && now - probe.time >= PROBE_CACHE_TIME);
+        }
+        toClose.forEach(ConnectionPool::closeQuietly);
+        toCheck.forEach(this::check);
+        toReconnect.forEach(this::reconnect);
+    }
+
+    private void check(Endpoint endpoint) {
+        IHarcHardware hardware = endpoint.idle;
+        boolean alive;
+        try {
+            alive = endpoint.connector != null ? endpoint.connector.isAlive(hardware) : hardware.isValid();
+        } catch (IOException | RuntimeException ex) {
+            alive = false;
+        }
+        if (!alive)
+            closeQuietly(hardware);
+        synchronized (this) {
+            livenessChecks++;
+            endpoint.lastChecked = clock.getAsLong();
+            if (!alive)
+                endpoint.idle = null; // reconnected when needed
+            endpoint.busy = false;
+            notifyAll();
+        }
+    }
+
+    private void reconnect(Endpoint endpoint) {
+        IHarcHardware hardware;
+        try {
+            hardware = endpoint.connector.connect();
+        } catch (IOException | HarcHardwareException | RuntimeException ex) {
+            hardware = null;
+        }
+        synchronized (this) {
+            if (hardware != null) {
+                reconnects++;
+                endpoint.failures = 0;
+                endpoint.pending = false;
+                endpoint.idle = hardware;
+                endpoint.lastChecked = clock.getAsLong();
+            } else
+                backoff(endpoint);
+            endpoint.busy = false;
+            notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        int noIdle = 0;
+        for (Endpoint endpoint : endpoints.values())
+            if (endpoint.idle != null)
+                noIdle++;
+        return "Connection pool: endpoints = " + endpoints.size() + ", idle = " + noIdle
+                + ", reused = " + hits + ", connects = " + connects + ", reconnects = " + reconnects
+                + ", failures = " + failures + ", liveness checks = " + livenessChecks;
+    }
+
+    /**
+     * Creates connections to one endpoint.
+     */
+    public interface Connector {
+
+        /**
+         * @return New, open, connection.
+         * @throws IOException
+         * @throws HarcHardwareException
+         */
+        IHarcHardware connect() throws IOException, HarcHardwareException;
+
+        /**
+         * Checks an idle connection. The default implementation calls getVersion(), which, for most hardware,
+         * queries the unit.
+         * @param hardware
+         * @return true if the connection is usable.
+         * @throws IOException
+         */
+        default boolean isAlive(IHarcHardware hardware) throws IOException {
+            return hardware.isValid() && hardware.getVersion() != null;
+        }
+    }
+
+    private static final class Endpoint {
+
+        private final String key;
+        private Connector connector;
+        private IHarcHardware idle;
+        private boolean inUse;
+        private boolean busy; // being checked or reconnected by the background thread
+        private boolean pending; // failed to connect for a user, not acquired since
+        private long lastUsed;
+        private long lastChecked;
+        private int failures;
+        private long nextAttempt;
+
+        Endpoint(String key, long now) {
+            this.key = key;
+            this.connector = null;
+            this.idle = null;
+            this.inUse = false;
+            this.busy = false;
+            this.pending = false;
+            this.lastUsed = now;
+            this.lastChecked = lastUsed;
+            this.failures = 0;
+            this.nextAttempt = 0L;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+
+    private static final class Probe {
+
+        private final CompletableFuture<Boolean> result;
+        private final long time;
+
+        Probe(CompletableFuture<Boolean> result, long time) {
+            this.result = result;
+            this.time = time;
+        }
+    }
+}
@@ -19,15 +19,18 @@ package org.harctoolbox.guicomponents;
 
 import java.awt.Cursor;
 import java.awt.Desktop;
+import java.awt.EventQueue;
 import java.io.IOException;
-import java.net.InetAddress;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import javax.swing.DefaultComboBoxModel;
 import static org.harctoolbox.guicomponents.SerialPortBean.KNOWN_BAUD_RATES;
 import org.harctoolbox.harchardware.HarcHardwareException;
+import org.harctoolbox.harchardware.IHarcHardware;
 import org.harctoolbox.harchardware.comm.LocalSerialPort;
 import org.harctoolbox.harchardware.comm.LocalSerialPortBuffered;
 import org.harctoolbox.harchardware.comm.TcpSocketPort;
@@ -51,6 +54,7 @@ public final class GirsClientBean extends HardwareBean {
     private String ipName;
     private Type type;
     private List<String> portNames;
+    private String pooledKey;
 
     public GirsClientBean() {
         this(null, false);
@@ -100,15 +104,47 @@ public final class GirsClientBean extends HardwareBean {
         setIpName(ipName);
         setPortNumber(portNumber);
         setType(type != null ? type : DEFAULT_TYPE);
+        pooledKey = null;
         enableStuff(false);
     }
 
+    /**
+     * Creates, and opens, connections to a networked Girs server, for the connection pool.
+     * The parameters are fixed, so that background reconnects are not affected by later changes of the bean.
+     */
+    private static ConnectionPool.Connector tcpConnector(String ipName, int portNumber, int timeout, boolean verbose) {
+        return () -> {
+            TcpSocketPort comm = new TcpSocketPort(ipName, portNumber, timeout, verbose, TcpSocketPort.ConnectionMode.keepAlive);
+            GirsClient<TcpSocketPort> girsClient = new GirsClient<>(comm);
+            girsClient.open();
+            return girsClient;
+        };
+    }
+
+    /**
+     * Closes the hardware, or, if it is pooled, returns it to the pool; in both cases the bean is left without hardware.
+     * @param keep If true, a pooled connection is kept open in the pool, otherwise it is closed.
+     */
+    private void releaseHardware(boolean keep) throws IOException {
+        IHarcHardware old = hardware;
+        hardware = null;
+        if (old == null)
+            return;
+        if (pooledKey == null)
+            old.close();
+        else if (keep)
+            ConnectionPool.getInstance().release(pooledKey, old);
+        else
+            ConnectionPool.getInstance().invalidate(pooledKey, old);
+        pooledKey = null;
+    }
+
     private void initHardware() throws HarcHardwareException, IOException {
         if (hardware != null) {
             if (hardware.isValid())
                 return;
             else {
-                hardware.close();
+                releaseHardware(false);
                 enableStuff(false);
             }
         }
@@ -125,10 +161,14 @@ public final class GirsClientBean extends HardwareBean {
             break;
             case TCP: {
                 try {
-                    TcpSocketPort comm = new TcpSocketPort(ipName, portNumber, timeout, verbose, TcpSocketPort.ConnectionMode.keepAlive);
-                    hardware = new GirsClient<>(comm);
+                    String key = ConnectionPool.key(ipName, portNumber);
+                    hardware = ConnectionPool.getInstance().acquire(key, tcpConnector(ipName, portNumber, timeout, verbose));
+                    pooledKey = key;
                 } catch (HarcHardwareException | IOException ex) {
                     guiUtils.error(ex);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    guiUtils.error(ex);
                 }
             }
             break;
@@ -237,8 +277,7 @@ public final class GirsClientBean extends HardwareBean {
     }
 
     private void setupPortComboBox(boolean useCached) throws IOException {
-        if (hardware != null)
-            hardware.close();
+        releaseHardware(true);
 
         portNames = LocalSerialPort.getSerialPortNames(useCached);
         portNames.add(0, "");
@@ -260,22 +299,34 @@ public final class GirsClientBean extends HardwareBean {
         propertyChangeSupport.firePropertyChange(PROP_PORTNAME, old, val);
     }
 
+    /**
+     * Checks, asynchronously, whether the Girs server accepts connections on its port.
+     * @return Future result.
+     */
+    public CompletableFuture<Boolean> ping() {
+        return ConnectionPool.getInstance().probe(ipName, portNumber, timeout);
+    }
+
     public boolean isPingable(boolean useGui) {
         Cursor oldCursor = setBusyCursor();
         boolean success = false;
         try {
-            success = InetAddress.getByName(ipName).isReachable(timeout);
-            if (useGui)
-                guiUtils.info(ipName + (success ? " is reachable" : " is not reachable (using Java's isReachable)"));
-        } catch (IOException ex) {
-            if (useGui)
-                guiUtils.info(ipName + " is not reachable (using Java's isReachable): " + ex.getMessage());
+            success = ping().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
         } finally {
             resetCursor(oldCursor);
         }
+        if (useGui)
+            reportPingable(success);
         return success;
     }
 
+    private void reportPingable(boolean success) {
+        guiUtils.info(ipName + (success ? " is reachable" : " is not reachable") + " (TCP port " + portNumber + ")");
+    }
+
     @Override
     public boolean canCapture() {
         GirsClient<?> girs = (GirsClient<?>) hardware;
@@ -296,7 +347,8 @@ public final class GirsClientBean extends HardwareBean {
         boolean oldIsOpen = isOpen();
         try {
             initHardware();
-            hardware.open();
+            if (pooledKey == null)
+                hardware.open();
             boolean canCapture = ((GirsClient<?>) hardware).hasCaptureModule();
             useReceiveForCaptureCheckBox.setEnabled(canCapture);
             useReceiveForCaptureCheckBox.setSelected(!canCapture);
@@ -314,9 +366,9 @@ public final class GirsClientBean extends HardwareBean {
         Cursor oldCursor = setBusyCursor();
         boolean oldIsOpen = isOpen();//hardware.isValid();
         try {
-            hardware.close();
+            releaseHardware(true);
             useReceiveForCaptureCheckBox.setSelected(false);
-            propertyChangeSupport.firePropertyChange(PROP_ISOPEN, oldIsOpen, hardware.isValid());
+            propertyChangeSupport.firePropertyChange(PROP_ISOPEN, oldIsOpen, isOpen());
         } finally {
             resetCursor(oldCursor);
             enableStuff(false);
@@ -671,7 +723,7 @@ public final class GirsClientBean extends HardwareBean {
 
     private void pingButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_pingButtonActionPerformed
         setIpName(ipNameTextField.getText());
-        isPingable(true);
+        ping().thenAccept((Boolean success) -> EventQueue.invokeLater(() -> reportPingable(success)));
     }//GEN-LAST:event_pingButtonActionPerformed
 
     private void typeComboBoxActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_typeComboBoxActionPerformed
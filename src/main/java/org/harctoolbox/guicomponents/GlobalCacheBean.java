@@ -36,6 +36,22 @@ import org.harctoolbox.irscrutinizer.HardwareUnavailableException;
 
 public final class GlobalCacheBean extends HardwareBean {
 
+    private static final int GLOBALCACHE_PORT = 4998;
+
+    /**
+     * Creates connections to a GlobalCache for the connection pool; the parameters are fixed, as for background reconnects.
+     */
+    private static ConnectionPool.Connector connector(String hostAddress, boolean verbose, int timeout) {
+        return () -> {
+            GlobalCache globalCache = new GlobalCache(hostAddress, verbose, timeout);
+            if (!globalCache.isValid()) {
+                globalCache.close();
+                throw new IOException("Set up of GlobalCache@" + hostAddress + " failed.");
+            }
+            return globalCache;
+        };
+    }
+
     private InetAddress inetAddress;
     private int module;
     private int port;
@@ -239,9 +255,15 @@ public final class GlobalCacheBean extends HardwareBean {
         boolean oldIsOpen = isOpen();
         if (isOpen())
             close();
-        hardware = new GlobalCache(inetAddress.getHostAddress(), verbose, timeout);
-        if (!hardware.isValid())
-            throw new IOException("Set up of GlobalCache@" + inetAddress.getHostName() + " failed.");
+        String hostAddress = inetAddress.getHostAddress();
+        try {
+            hardware = ConnectionPool.getInstance().acquire(ConnectionPool.key(hostAddress, GLOBALCACHE_PORT), connector(hostAddress, verbose, timeout));
+        } catch (HarcHardwareException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
         String version = hardware.getVersion();
         globalCacheVersionLabel.setText(version);
         assertValidModule();
@@ -252,17 +274,13 @@ public final class GlobalCacheBean extends HardwareBean {
     @Override
     public void close() {
         if (hardware != null) {
-            try {
-                boolean oldIsOpen = isOpen();
-                hardware.close();
-                hardware = null;
-                globalCacheVersionLabel.setText(null);
-                propertyChangeSupport.firePropertyChange(PROP_ISOPEN, oldIsOpen, isOpen());
-                if (verbose)
-                    guiUtils.message("Closed GlobalCache");
-            } catch (IOException ex) {
-                guiUtils.error(ex);
-            }
+            boolean oldIsOpen = isOpen();
+            ConnectionPool.getInstance().release(ConnectionPool.key(inetAddress.getHostAddress(), GLOBALCACHE_PORT), hardware);
+            hardware = null;
+            globalCacheVersionLabel.setText(null);
+            propertyChangeSupport.firePropertyChange(PROP_ISOPEN, oldIsOpen, isOpen());
+            if (verbose)
+                guiUtils.message("Closed GlobalCache, keeping its connection in the connection pool");
         }
         enableStuff();
     }
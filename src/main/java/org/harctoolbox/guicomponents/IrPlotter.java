@@ -20,9 +20,12 @@ package org.harctoolbox.guicomponents;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Objects;
 import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
@@ -77,6 +80,8 @@ public class IrPlotter extends HarcPanel {
     private int xmin = 0;
     private int xmax = 200000;
     private int[] irdata = null;
+    /** starts[i] is the time of the beginning of irdata[i]; starts[irdata.length] is the total duration. */
+    private long[] starts = null;
     private int noIntroBursts;
     private int noRepeatBursts;
     private int noRepeats;
@@ -86,6 +91,8 @@ public class IrPlotter extends HarcPanel {
     private int dragEndX = invalid;
     private JMenu plotterWidthsMenu;
     private JPopupMenu plotterPopupMenu;
+    private BufferedImage plotImage = null;
+    private PlotKey plotImageKey = null;
 
     private boolean ignoreLast = false;
     private Double frequency;
@@ -113,6 +120,7 @@ public class IrPlotter extends HarcPanel {
         this.noRepeats = irPlotter.noRepeats;
         irdata = new int[irPlotter.irdata.length];
         System.arraycopy(irPlotter.irdata, 0, this.irdata, 0, irPlotter.irdata.length);
+        this.starts = prefixSums(this.irdata);
         this.frequency = irPlotter.frequency;
         this.ignoreLast = irPlotter.ignoreLast;
         //resetXminXmax();
@@ -135,6 +143,7 @@ public class IrPlotter extends HarcPanel {
         this.noRepeatBursts = noRepeatBursts;
         this.noRepeats = noRepeats;
         this.irdata = irdata;
+        this.starts = prefixSums(irdata);
         this.frequency = frequency;
         resetXminXmax();
     }
@@ -220,9 +229,8 @@ public class IrPlotter extends HarcPanel {
     private void resetXminXmax() {
         xmin = 0;
         xmax = 0;
-        if (irdata != null)
-            for (int i = 0; i < (ignoreLast ? irdata.length - 1 : irdata.length); i++)
-                xmax += Math.abs(irdata[i]);
+        if (irdata != null && irdata.length > 0)
+            xmax = (int) starts[ignoreLast ? irdata.length - 1 : irdata.length];
     }
 
     /**
@@ -262,15 +270,58 @@ public class IrPlotter extends HarcPanel {
         }
     }
 
+    /**
+     * Paints the plot from an offscreen image, which is only regenerated when the data, the
+     * plotted interval, or the size has changed. While dragging, only the dragged area is repainted.
+     */
     @Override
     public void paintComponent(Graphics graphics) {
         super.paintComponent(graphics);
         onY = topMargin;
         offY = getHeight() - bottomMargin;
-        drawBackground(graphics);
-        drawDraggingBackground(graphics);
-        drawTicks(graphics);
-        drawPlot(graphics);
+        if (getWidth() <= 0 || getHeight() <= 0)
+            return;
+
+        double scale = graphics instanceof Graphics2D ? ((Graphics2D) graphics).getTransform().getScaleX() : 1.0;
+        PlotKey key = new PlotKey(scale);
+        if (plotImage == null || !key.equals(plotImageKey)) {
+            plotImage = renderPlotImage(graphics, scale);
+            plotImageKey = key;
+        }
+        graphics.drawImage(plotImage, 0, 0, getWidth(), getHeight(), null);
+        drawDragging(graphics);
+    }
+
+    private BufferedImage renderPlotImage(Graphics graphics, double scale) {
+        BufferedImage image = new BufferedImage((int) Math.ceil(getWidth() * scale), (int) Math.ceil(getHeight() * scale), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D imageGraphics = image.createGraphics();
+        try {
+            if (graphics instanceof Graphics2D)
+                imageGraphics.setRenderingHints(((Graphics2D) graphics).getRenderingHints());
+            imageGraphics.scale(scale, scale);
+            imageGraphics.setFont(graphics.getFont());
+            drawBackground(imageGraphics);
+            drawTicks(imageGraphics);
+            drawPlot(imageGraphics);
+        } finally {
+            imageGraphics.dispose();
+        }
+        return image;
+    }
+
+    private void drawDragging(Graphics graphics) {
+        if (dragBeginX != invalid && dragEndX != invalid) {
+            drawDraggingBackground(graphics);
+            int minX = Math.min(dragBeginX, dragEndX);
+            int maxX = Math.max(dragBeginX, dragEndX);
+            Graphics clipped = graphics.create();
+            try {
+                clipped.clipRect(minX, onY, maxX - minX, getHeight() - topMargin - bottomMargin);
+                drawPlot(clipped, Math.max(screenX2x(minX - 1), xmin), Math.min(screenX2x(maxX + 1), xmax));
+            } finally {
+                clipped.dispose();
+            }
+        }
     }
 
     private void drawBackground(Graphics graphics) {
@@ -288,42 +339,103 @@ public class IrPlotter extends HarcPanel {
     }
 
     private void drawPlot(Graphics graphics) {
-        if (irdata == null) {
+        drawPlot(graphics, xmin, xmax);
+    }
+
+    /**
+     * Draws the part of the plot between the times from and to (in microseconds).
+     * Only the durations in that interval are visited, found by binary search in the prefix sums.
+     * When several transitions fall into the same pixel column, a single vertical line
+     * covering both levels (the min/max of the column) is drawn, and the remaining durations
+     * of that column are skipped.
+     */
+    private void drawPlot(Graphics graphics, long from, long to) {
+        if (irdata == null || irdata.length == 0) {
             //graphics.drawString("No data available", 100, 50);
             return;
         }
 
-        int t = 0;
-        graphics.setColor(introColor);
-        for (int i = 0; i < irdata.length && t <= xmax; i++) {
-            boolean drawTransition = true;
-            int screenXStart = x2screenX(t);
-            if (screenXStart < leftMargin) {
-                screenXStart = leftMargin;
-                drawTransition = false;
-            }
-            t += Math.min(irdata[i], xmax);
-            int screenXEnd = x2screenX(t);
-            if (screenXEnd < leftMargin)
+        int last = irdata.length - 1;
+        int i = indexAt(Math.max(from, 0L));
+        int fullColumn = invalid;
+        while (i <= last && starts[i] <= to) {
+            int screenXStart = x2screenX(starts[i]);
+            boolean drawTransition = starts[i] >= from;
+            if (!drawTransition)
+                screenXStart = x2screenX(from);
+            int screenXEnd = x2screenX(Math.min(starts[i + 1], to));
+            graphics.setColor(colorOf(i));
+            if (drawTransition && screenXEnd == screenXStart && i < last) {
+                // Duration within one pixel column
+                if (screenXStart != fullColumn) {
+                    graphics.drawLine(screenXStart, onY, screenXStart, offY);
+                    fullColumn = screenXStart;
+                }
+                i = firstIndexEndingRightOf(i + 1, screenXStart);
                 continue;
-
-            if (i == 2*noIntroBursts)
-                graphics.setColor(repeatColor);
-            if (i == 2*(noIntroBursts + noRepeats*noRepeatBursts))
-                graphics.setColor(endingColor);
+            }
             if (i % 2 == 0) {
                 // Pulse
-                if (drawTransition) // Draw vertical line only if real transition
+                if (drawTransition && screenXStart != fullColumn) // Draw vertical line only if real transition
                     graphics.drawLine(screenXStart, offY, screenXStart, onY);
                 graphics.drawLine(screenXStart, onY, screenXEnd, onY);
             } else {
                 // Gap
-                if (drawTransition || (ignoreLast && i == irdata.length - 1))
+                if ((drawTransition && screenXStart != fullColumn) || (ignoreLast && i == last))
                     graphics.drawLine(screenXStart, onY, screenXStart, offY);
-                if (!ignoreLast || i != irdata.length - 1)
+                if (!ignoreLast || i != last)
                     graphics.drawLine(screenXStart, offY, screenXEnd, offY); // ignore
             }
+            i++;
+        }
+    }
+
+    private Color colorOf(int index) {
+        return index < 2 * noIntroBursts ? introColor
+                : index < 2 * (noIntroBursts + noRepeats * noRepeatBursts) ? repeatColor
+                : endingColor;
+    }
+
+    /**
+     * @return Index of the duration containing the time t, or of the last duration if t is beyond the end.
+     */
+    private int indexAt(long t) {
+        int low = 0;
+        int high = irdata.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= t)
+                low = mid;
+            else
+                high = mid - 1;
         }
+        return low;
+    }
+
+    /**
+     * @return The first index, not less than from, of a duration that ends to the right of the pixel column given,
+     * or irdata.length if there is none.
+     */
+    private int firstIndexEndingRightOf(int from, int column) {
+        int low = from;
+        int high = irdata.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (x2screenX(starts[mid + 1]) > column)
+                high = mid;
+            else
+                low = mid + 1;
+        }
+        return low;
+    }
+
+    private static long[] prefixSums(int[] data) {
+        if (data == null)
+            return null;
+        long[] result = new long[data.length + 1];
+        for (int i = 0; i < data.length; i++)
+            result[i + 1] = result[i] + Math.abs(data[i]);
+        return result;
     }
 
     @SuppressWarnings("UseOfSystemOutOrSystemErr")
@@ -364,7 +476,7 @@ public class IrPlotter extends HarcPanel {
         return x <= 0 ? 1 : 10*pow10(x-1);
     }
 
-    private int x2screenX(int x) {
+    private int x2screenX(long x) {
         return (int) Math.round(((double)(x - xmin))/(xmax - xmin) * (getWidth() - leftMargin - rightMargin) + leftMargin);
     }
 
@@ -495,6 +607,44 @@ public class IrPlotter extends HarcPanel {
         }
     }
 
+    /**
+     * The state the offscreen image depends on.
+     */
+    private final class PlotKey {
+
+        private final int width = getWidth();
+        private final int height = getHeight();
+        private final double scale;
+        private final int keyXmin = xmin;
+        private final int keyXmax = xmax;
+        private final int[] data = irdata;
+        private final int intro = noIntroBursts;
+        private final int repeat = noRepeatBursts;
+        private final int repeats = noRepeats;
+        private final boolean keyIgnoreLast = ignoreLast;
+
+        PlotKey(double scale) {
+            this.scale = scale;
+        }
+
+        @Override
+        @SuppressWarnings("AccessingNonPublicFieldOfAnotherObject")
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PlotKey))
+                return false;
+            PlotKey other = (PlotKey) obj;
+            return width == other.width && height == other.height && scale == other.scale
+                    && keyXmin == other.keyXmin && keyXmax == other.keyXmax && data == other.data
+                    && intro == other.intro && repeat == other.repeat && repeats == other.repeats
+                    && keyIgnoreLast == other.keyIgnoreLast;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(width, height, keyXmin, keyXmax);
+        }
+    }
+
     @Override
     public String getHelpMessage() {
         return helpText;
@@ -44,6 +44,7 @@ import org.harctoolbox.irp.NameUnassignedException;
 import org.harctoolbox.irp.Protocol;
 import org.harctoolbox.irp.UnknownProtocolException;
 import org.harctoolbox.irp.UnsupportedRepeatException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 import org.harctoolbox.irscrutinizer.DefaultSignalNameFormatter;
 import org.harctoolbox.irscrutinizer.ISignalNameFormatter;
 import org.harctoolbox.valuesets.InputVariableSetValues;
@@ -242,16 +243,31 @@ public final class IrpRenderBean extends javax.swing.JPanel {
 
     public IrSignal render() throws IrpException, IrCoreException, ParseException {
         Map<String, Long> parameters = getParameters();
-        return protocol.toIrSignal(parameters);
+        synchronized (DecoderLock.getLock()) {
+            return protocol.toIrSignal(parameters);
+        }
     }
 
+    /**
+     * Generates the commands for all combinations of the parameters, in the original order.
+     * Later commands replace earlier commands with the same name.
+     * @return Map of the commands, keyed by name.
+     * @throws IrCoreException
+     * @throws IrpException
+     * @throws ParseException
+     * @throws GirrException
+     */
     public Map<String, Command> getCommands() throws IrCoreException, IrpException, ParseException, GirrException {
         InputVariableSetValues intervals = getIntervalParameters();
+        String protocolName = getProtocolName();
         LinkedHashMap<String, Command> commands = new LinkedHashMap<>(16);
-        for (LinkedHashMap<String, Long> params : intervals) {
-            String name = this.signalNameFormatter.format(getProtocolName(), params);
-            Command command = new Command(name, null, getProtocolName(), params);
-            commands.put(name, command);
+        // Making a Command looks up its protocol in the IrpDatabase.
+        synchronized (DecoderLock.getLock()) {
+            for (LinkedHashMap<String, Long> params : intervals) {
+                String name = signalNameFormatter.format(protocolName, params);
+                Command command = new Command(name, null, protocolName, params);
+                commands.put(name, command);
+            }
         }
         return commands;
     }
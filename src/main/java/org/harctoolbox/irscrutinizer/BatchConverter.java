@@ -0,0 +1,502 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import org.harctoolbox.analyze.Cleaner;
+import org.harctoolbox.analyze.RepeatFinder;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.girr.CommandSet;
+import org.harctoolbox.girr.GirrException;
+import org.harctoolbox.girr.Remote;
+import org.harctoolbox.girr.RemoteSet;
+import org.harctoolbox.ircore.InvalidArgumentException;
+import org.harctoolbox.ircore.IrCoreException;
+import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import org.harctoolbox.irp.Decoder;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irp.IrpParseException;
+import org.harctoolbox.irp.IrpUtils;
+import org.harctoolbox.irscrutinizer.exporter.BroadlinkBase64Formatter;
+import org.harctoolbox.irscrutinizer.exporter.BroadlinkHexFormatter;
+import org.harctoolbox.irscrutinizer.exporter.ExportFormatManager;
+import org.harctoolbox.irscrutinizer.exporter.Exporter;
+import org.harctoolbox.irscrutinizer.exporter.GirrExporter;
+import org.harctoolbox.irscrutinizer.exporter.IExporterFactory;
+import org.harctoolbox.irscrutinizer.exporter.RemoteSetExporter;
+import org.harctoolbox.irscrutinizer.exporter.SendIrFormatter;
+import org.harctoolbox.irscrutinizer.exporter.ShortCcfFormatter;
+import org.harctoolbox.irscrutinizer.exporter.TextExporter;
+import org.harctoolbox.irscrutinizer.importer.CcfImporter;
+import org.harctoolbox.irscrutinizer.importer.CmlImporter;
+import org.harctoolbox.irscrutinizer.importer.CommandFusionImporter;
+import org.harctoolbox.irscrutinizer.importer.FileImporter;
+import org.harctoolbox.irscrutinizer.importer.FlipperImporter;
+import org.harctoolbox.irscrutinizer.importer.GirrImporter;
+import org.harctoolbox.irscrutinizer.importer.IImporter;
+import org.harctoolbox.irscrutinizer.importer.IModulatedIrSequenceImporter;
+import org.harctoolbox.irscrutinizer.importer.IRemoteSetImporter;
+import org.harctoolbox.irscrutinizer.importer.IctImporter;
+import org.harctoolbox.irscrutinizer.importer.Importer;
+import org.harctoolbox.irscrutinizer.importer.IrTransImporter;
+import org.harctoolbox.irscrutinizer.importer.LircImporter;
+import org.harctoolbox.irscrutinizer.importer.Mode2Importer;
+import org.harctoolbox.irscrutinizer.importer.WaveImporter;
+import org.harctoolbox.irscrutinizer.importer.XcfImporter;
+import org.xml.sax.SAXException;
+
+/**
+ * Headless conversion of files: import, (optionally) decode and analyze, export.
+ * Uses the same importers, decoder, and export formats as the GUI, configured from the properties,
+ * but does not instantiate GuiMain, nor any Swing component.
+ * Every file is handled by a fresh importer. Only the files of the formats whose importers declare themselves
+ * safe for concurrent loading ({@link FileImporter#isConcurrentLoadSafe()}) are imported in parallel, ahead of the conversion.
+ * All the rest, i.e., importing the other formats, decoding, and exporting, runs serially on the calling thread,
+ * in the order of the arguments: decoding and rendering take the {@link DecoderLock}, so they would be serialized anyway.
+ */
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+final class BatchConverter {
+
+    private final Props properties;
+    private final PrintStream out;
+    private final boolean verbose;
+    private final boolean decode;
+    private final boolean analyze;
+    private final Map<String, Supplier<FileImporter>> importersByName;
+    private final Map<String, Supplier<FileImporter>> importersByExtension;
+    private final Set<Supplier<FileImporter>> concurrentImporters;
+    private final ExportFormatManager exportFormatManager;
+    private final DecodeCache decodeCache;
+    private boolean split = false;
+    private boolean zip = false;
+
+    /**
+     * @param properties Properties, normally the ones of the interactive program.
+     * @param decode If true, decode the imported signals. If false, use the invokeDecoder property.
+     * @param analyze If true, analyze the imported signals. If false, use the invokeAnalyzer property.
+     * @param verbose If true, report the decodes and the analyzer results of every signal.
+     * @param out Stream for the report.
+     */
+    BatchConverter(Props properties, boolean decode, boolean analyze, boolean verbose, PrintStream out)
+            throws IOException, IrpParseException, SAXException, ParserConfigurationException, URISyntaxException {
+        this.properties = properties;
+        this.out = out;
+        this.verbose = verbose;
+        this.decode = decode || properties.getInvokeDecoder();
+        this.analyze = analyze || properties.getInvokeAnalyzer();
+        Importer.setProperties(properties);
+        Exporter.setCreatingUser(properties.getCreatingUser());
+        Exporter.setEncoding(properties.getExportCharsetName());
+        Exporter.setXsltDebug(properties.getXsltDebug());
+        decodeCache = new DecodeCache(properties.getDecodeCacheSize(), properties.getAbsoluteTolerance());
+        setupDecoder();
+        importersByName = new LinkedHashMap<>(16);
+        importersByExtension = new LinkedHashMap<>(16);
+        concurrentImporters = new HashSet<>(16);
+        setupImporters();
+        exportFormatManager = new ExportFormatManager(null);
+        setupExportFormats();
+    }
+
+    private void setupDecoder() throws IOException, IrpParseException, SAXException {
+        List<File> configFiles = new ArrayList<>(2);
+        configFiles.add(new File(properties.mkPathAbsolute(properties.getIrpProtocolsPath())));
+        String secondary = properties.getSecondaryIrpProtocolsPath();
+        if (!secondary.isEmpty())
+            configFiles.add(new File(secondary));
+        IrpDatabase irpDatabase = new IrpDatabase(configFiles);
+
+        RepeatFinder.setDefaultAbsoluteTolerance(properties.getAbsoluteTolerance());
+        RepeatFinder.setDefaultRelativeTolerance(properties.getRelativeTolerance());
+        Decoder decoder = new Decoder(irpDatabase);
+        Decoder.DecoderParameters decoderParameters = new Decoder.DecoderParameters(false,
+                properties.getPrintAlternativeDecodes(),
+                properties.getRemoveDefaultedParameters(),
+                false,
+                properties.getFrequencyTolerance(),
+                properties.getAbsoluteTolerance(),
+                properties.getRelativeTolerance(),
+                properties.getMinLeadOut(),
+                false,
+                properties.getIgnoreLeadingGarbage()
+        );
+        Command.setIrpDatabase(irpDatabase);
+        Command.setDecoderParameters(decoderParameters);
+        RawIrSignal.setDecoder(decoder);
+        RawIrSignal.setDecoderParameters(decoderParameters);
+        RawIrSignal.setDecodeCache(decodeCache);
+        RawIrSignal.setInvokeDecoder(decode);
+        RawIrSignal.setInvokeAnalyzer(analyze);
+        RawIrSignal.setAbsoluteTolerance(properties.getAbsoluteTolerance());
+        RawIrSignal.setRelativeTolerance(properties.getRelativeTolerance());
+    }
+
+    private void setupImporters() throws URISyntaxException {
+        final boolean girrValidate = properties.getGirrValidate();
+        final URI girrSchema = new URI(properties.getGirrSchemaLocation());
+        // Order matters: for ambiguous file extensions, the first one wins.
+        addImporter(() -> {
+            try {
+                return new GirrImporter(girrValidate, girrSchema.toURL(), null);
+            } catch (IOException ex) {
+                throw new IllegalArgumentException(ex);
+            }
+        });
+        addImporter(() -> new LircImporter());
+        addImporter(() -> new IrTransImporter());
+        addImporter(() -> new FlipperImporter());
+        addImporter(() -> new CmlImporter());
+        addImporter(() -> new CommandFusionImporter());
+        addImporter(() -> new CcfImporter());
+        addImporter(() -> new XcfImporter());
+        addImporter(() -> new IctImporter());
+        addImporter(() -> new WaveImporter(properties.getImportWaveDivideCarrier()));
+        addImporter(() -> new Mode2Importer());
+    }
+
+    private void addImporter(Supplier<FileImporter> supplier) {
+        FileImporter prototype = supplier.get();
+        if (prototype.isConcurrentLoadSafe())
+            concurrentImporters.add(supplier);
+        importersByName.put(((IImporter) prototype).getFormatName().toLowerCase(Locale.US), supplier);
+        for (String[] extensions : prototype.getFileExtensions())
+            for (int i = 1; i < extensions.length; i++)
+                importersByExtension.putIfAbsent(extensions[i].toLowerCase(Locale.US), supplier);
+    }
+
+    private void setupExportFormats() throws ParserConfigurationException, SAXException, IOException {
+        exportFormatManager.add("Girr", () -> new GirrExporter(properties.getGirrFatRaw(),
+                properties.getExportGenerateRaw(),
+                properties.getExportGenerateCcf(),
+                properties.getExportGenerateParameters(),
+                setupExtraTextFormats()));
+        exportFormatManager.add("Text", () -> new TextExporter(properties.getExportGenerateRaw(),
+                properties.getExportGenerateCcf(),
+                properties.getExportGenerateParameters(),
+                setupExtraTextFormats()));
+        addDynamicExportFormats(properties.getExportFormatFilePath());
+        addDynamicExportFormats(properties.getSecondaryExportFormatFilePath());
+    }
+
+    private void addDynamicExportFormats(String file) throws ParserConfigurationException, SAXException, IOException {
+        if (!file.isEmpty())
+            exportFormatManager.addDynamicFormats(null, new File(properties.mkPathAbsolute(file)),
+                    ExportFormatManager.indexFile(properties.getFilename()));
+    }
+
+    private Command.CommandTextFormat[] setupExtraTextFormats() {
+        List<Command.CommandTextFormat> formats = new ArrayList<>(8);
+        if (properties.getExportGenerateShortCcf())
+            formats.add(new ShortCcfFormatter());
+        if (properties.getExportGenerateSendIr())
+            formats.add(new SendIrFormatter());
+        if (properties.getExportGenerateBroadlinkHex())
+            formats.add(new BroadlinkHexFormatter());
+        if (properties.getExportGenerateBroadlinkBase64())
+            formats.add(new BroadlinkBase64Formatter());
+        return formats.toArray(new Command.CommandTextFormat[0]);
+    }
+
+    /**
+     * @param split If true, export every Remote of an imported RemoteSet to a file of its own.
+     * @param zip If true (and split), put these files in one zip file per imported file.
+     */
+    void setSplit(boolean split, boolean zip) {
+        this.split = split;
+        this.zip = zip;
+    }
+
+    String[] getExportFormatNames() {
+        return exportFormatManager.toArray();
+    }
+
+    Collection<String> getImportFormatNames() {
+        return importersByName.keySet();
+    }
+
+    /**
+     * Converts the files given as argument.
+     *
+     * @param fileNames Files to convert. Directories are not expanded.
+     * @param importFormat Name of the import format, or null for selection by file extension.
+     * @param exportFormat Name of the export format, or null for the one in the properties.
+     * @param outputDir Directory for the generated files, or null for the export directory in the properties.
+     * @param threads Number of files to import simultaneously; &lt;= 0 for the number of processors.
+     * @return Exit code, IrpUtils.EXIT_SUCCESS if all files were successfully converted.
+     */
+    int convert(List<String> fileNames, String importFormat, String exportFormat, String outputDir, int threads) {
+        String formatName = exportFormat != null ? exportFormat : properties.getExportFormatName();
+        IExporterFactory exporterFactory = exportFormatManager.get(formatName);
+        if (exporterFactory == null) {
+            System.err.println("No such export format: \"" + formatName + "\"");
+            return IrpUtils.EXIT_SEMANTIC_USAGE_ERROR;
+        }
+        try {
+            if (!(exportFormatManager.newExporter(formatName) instanceof RemoteSetExporter)) {
+                System.err.println("Export format \"" + formatName + "\" exports single commands; not supported in batch mode.");
+                return IrpUtils.EXIT_SEMANTIC_USAGE_ERROR;
+            }
+        } catch (IOException ex) {
+            System.err.println(ex.getLocalizedMessage());
+            return IrpUtils.EXIT_IO_ERROR;
+        }
+        Supplier<FileImporter> importer = null;
+        if (importFormat != null) {
+            importer = importersByName.get(importFormat.toLowerCase(Locale.US));
+            if (importer == null) {
+                System.err.println("No such import format: \"" + importFormat + "\"");
+                return IrpUtils.EXIT_SEMANTIC_USAGE_ERROR;
+            }
+        }
+        File exportDir = new File(outputDir != null ? outputDir : properties.mkPathAbsolute(properties.getExportDir()));
+        if (!exportDir.isDirectory() && !exportDir.mkdirs()) {
+            System.err.println("Cannot create directory " + exportDir);
+            return IrpUtils.EXIT_IO_ERROR;
+        }
+
+        int noThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(noThreads, Math.max(1, fileNames.size())));
+        long startTime = System.nanoTime();
+        List<FutureTask<Imported>> imports = new ArrayList<>(fileNames.size());
+        for (String fileName : fileNames) {
+            File file = new File(fileName);
+            Supplier<FileImporter> supplier = importer != null ? importer : importerFor(file);
+            FutureTask<Imported> task = new FutureTask<>(() -> importFile(file, supplier));
+            if (concurrentImporters.contains(supplier))
+                executor.execute(task);
+            imports.add(task);
+        }
+        executor.shutdown();
+
+        int failures = 0;
+        int noCommands = 0;
+        // Convert, and report, in the order of the arguments, as the imports become available.
+        try {
+            for (int i = 0; i < fileNames.size(); i++) {
+                FutureTask<Imported> task = imports.get(i);
+                task.run(); // no-op if already run, or running, by the executor
+                Result result;
+                try {
+                    result = convert(task.get(), exporterFactory, exportDir);
+                } catch (ExecutionException ex) {
+                    result = new Result(new File(fileNames.get(i)), ex.getCause());
+                }
+                out.print(result);
+                if (result.isSuccess())
+                    noCommands += result.noCommands;
+                else
+                    failures++;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return IrpUtils.EXIT_INTERNAL_FAILURE;
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = (System.nanoTime() - startTime) / 1000000L;
+        out.println(fileNames.size() - failures + "/" + fileNames.size() + " files, " + noCommands + " commands converted in "
+                + elapsed + " ms using " + noThreads + " import threads.");
+        if (decode || analyze)
+            out.println(decodeCache);
+        if (verbose)
+            out.print(exportFormatManager.getStatistics());
+        return failures == 0 ? IrpUtils.EXIT_SUCCESS : IrpUtils.EXIT_IO_ERROR;
+    }
+
+    /**
+     * Imports the file; runs in the thread pool if the importer is safe for that.
+     * @param file
+     * @param supplier Supplier of the importer, or null if the import format could not be determined.
+     */
+    private Imported importFile(File file, Supplier<FileImporter> supplier) throws IOException, ParseException, InvalidArgumentException {
+        if (supplier == null)
+            throw new IOException("Cannot determine the import format from the file name; use --importformat.");
+        long startTime = System.nanoTime();
+        FileImporter importer = supplier.get();
+        importer.possiblyZipLoad(file, properties.getImportCharsetName());
+        Imported imported = new Imported(file);
+
+        if (importer instanceof IRemoteSetImporter) {
+            imported.remoteSet = ((IRemoteSetImporter) importer).getRemoteSet();
+            imported.commands = imported.remoteSet != null ? commands(imported.remoteSet) : importer.getCommands();
+        } else if (importer instanceof Mode2Importer) {
+            List<ModulatedIrSequence> sequences = ((Mode2Importer) importer).getModulatedIrSequences();
+            imported.commands = new ArrayList<>(sequences.size());
+            for (ModulatedIrSequence sequence : sequences)
+                imported.commands.add(toCommand(sequence, file, sequences.size() > 1 ? "_" + Integer.toString(imported.commands.size() + 1) : ""));
+        } else {
+            imported.commands = new ArrayList<>(1);
+            imported.commands.add(toCommand(((IModulatedIrSequenceImporter) importer).getModulatedIrSequence(), file, ""));
+        }
+        imported.importTime = System.nanoTime() - startTime;
+        return imported;
+    }
+
+    private static Collection<Command> commands(RemoteSet remoteSet) {
+        List<Command> commands = new ArrayList<>(64);
+        for (Remote remote : remoteSet)
+            for (CommandSet commandSet : remote)
+                commands.addAll(commandSet.getCommands());
+        return commands;
+    }
+
+    /**
+     * Decodes and exports the imported commands; runs in the calling thread.
+     */
+    private Result convert(Imported imported, IExporterFactory exporterFactory, File exportDir) {
+        long startTime = System.nanoTime();
+        Result result = new Result(imported.file, null);
+        result.importTime = imported.importTime;
+        result.noCommands = imported.commands.size();
+        try {
+            if (decode || analyze)
+                for (Command command : imported.commands)
+                    analyze(command, result);
+            long decodeTime = System.nanoTime();
+            result.decodeTime = decodeTime - startTime;
+
+            RemoteSetExporter exporter = (RemoteSetExporter) exporterFactory.newExporter();
+            String title = Version.appName + " batch export of " + imported.file.getName();
+            if (split && imported.remoteSet != null)
+                result.outputFiles.addAll(exporter.exportPerRemote(imported.remoteSet, title, exportDir, zip, properties.getExportCharsetName()));
+            else {
+                File outputFile = new File(exportDir, IrCoreUtils.basename(imported.file.getName()) + "." + exporter.getPreferredFileExtension());
+                if (imported.remoteSet != null)
+                    exporter.export(imported.remoteSet, title, outputFile, properties.getExportCharsetName());
+                else
+                    exporter.export(imported.commands, imported.file.getPath(), title, outputFile, properties.getExportCharsetName());
+                result.outputFiles.add(outputFile);
+            }
+            result.exportTime = System.nanoTime() - decodeTime;
+        } catch (IOException | IrpException | IrCoreException | GirrException | TransformerException ex) {
+            result.exception = ex;
+        }
+        result.totalTime = imported.importTime + System.nanoTime() - startTime;
+        return result;
+    }
+
+    /**
+     * @return Supplier of the importer for the file, by its extension, or null if not known.
+     */
+    private Supplier<FileImporter> importerFor(File file) {
+        String name = file.getName().toLowerCase(Locale.US);
+        if (name.endsWith(".zip"))
+            name = name.substring(0, name.length() - 4);
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? importersByExtension.get(name.substring(dot + 1)) : null;
+    }
+
+    private Command toCommand(ModulatedIrSequence sequence, File file, String suffix) throws InvalidArgumentException {
+        ModulatedIrSequence possiblyCleaned = properties.getInvokeCleaner()
+                ? Cleaner.clean(sequence, properties.getAbsoluteTolerance(), properties.getRelativeTolerance())
+                : sequence;
+        IrSignal irSignal = properties.getInvokeRepeatFinder()
+                ? new RepeatFinder(sequence).getRepeatFinderData().chopIrSequence(possiblyCleaned)
+                : new IrSignal(possiblyCleaned);
+        return new Command(IrCoreUtils.basename(file.getName()) + suffix, "Imported from " + file.getPath(), irSignal);
+    }
+
+    private void analyze(Command command, Result result) throws IrpException, IrCoreException {
+        RawIrSignal rawIrSignal = new RawIrSignal(command);
+        rawIrSignal.analyze();
+        String decodeString = rawIrSignal.getDecodeString();
+        if (!decodeString.isEmpty())
+            result.noDecoded++;
+        if (verbose)
+            result.details.append("    ").append(command.getName()).append(": ").append(decodeString)
+                    .append(analyze ? " | " + rawIrSignal.getAnalyzerString() : "").append(IrCoreUtils.LINE_SEPARATOR);
+    }
+
+    /**
+     * The outcome of importing a file.
+     */
+    private final static class Imported {
+
+        private final File file;
+        private RemoteSet remoteSet = null;
+        private Collection<Command> commands = null;
+        private long importTime = 0L;
+
+        Imported(File file) {
+            this.file = file;
+        }
+    }
+
+    private final static class Result {
+
+        private final File file;
+        private final List<File> outputFiles = new ArrayList<>(1);
+        private Throwable exception;
+        private int noCommands = 0;
+        private int noDecoded = 0;
+        private long importTime = 0L;
+        private long decodeTime = 0L;
+        private long exportTime = 0L;
+        private long totalTime = 0L;
+        private final StringBuilder details = new StringBuilder(0);
+
+        Result(File file, Throwable exception) {
+            this.file = file;
+            this.exception = exception;
+        }
+
+        boolean isSuccess() {
+            return exception == null;
+        }
+
+        private static long ms(long nanos) {
+            return nanos / 1000000L;
+        }
+
+        @Override
+        public String toString() {
+            if (!isSuccess())
+                return (file != null ? file.getPath() : "?") + ": " + exception + IrCoreUtils.LINE_SEPARATOR;
+
+            return file.getPath() + " -> "
+                    + (outputFiles.size() == 1 ? outputFiles.get(0).getPath() : (outputFiles.size() + " files")) + ": "
+                    + noCommands + " commands, " + noDecoded + " decoded; "
+                    + "import " + ms(importTime) + " ms, decode " + ms(decodeTime) + " ms, export " + ms(exportTime) + " ms, "
+                    + "total " + ms(totalTime) + " ms" + IrCoreUtils.LINE_SEPARATOR
+                    + details;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock-free queue between the capture stage and the analysis stage.
+ * The producer never blocks: if the queue is full, the offered element is dropped, and counted.
+ * There may be any number of producers, but only one consumer.
+ *
+ * @param <T> Type of the elements.
+ */
+final class CaptureQueue<T> {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final ConcurrentLinkedQueue<T> queue;
+    private final int capacity;
+    private final AtomicInteger depth;
+    private final AtomicInteger highWaterMark;
+    private final AtomicLong accepted;
+    private final AtomicLong dropped;
+    private volatile Thread consumer;
+    private volatile boolean closed;
+
+    CaptureQueue(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive");
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.capacity = capacity;
+        this.depth = new AtomicInteger(0);
+        this.highWaterMark = new AtomicInteger(0);
+        this.accepted = new AtomicLong(0L);
+        this.dropped = new AtomicLong(0L);
+        this.consumer = null;
+        this.closed = false;
+    }
+
+    CaptureQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Enters the element in the queue, unless it is full or closed. Never blocks.
+     * @param element non-null
+     * @return true if the element was enqueued, false if it was dropped.
+     */
+    boolean offer(T element) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        int n = depth.incrementAndGet(); // reserve a slot before enqueueing, so that the bound holds
+        if (n > capacity) {
+            depth.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        queue.offer(element);
+        accepted.incrementAndGet();
+        highWaterMark.accumulateAndGet(n, Math::max);
+        LockSupport.unpark(consumer);
+        return true;
+    }
+
+    /**
+     * Returns the next element, waiting if necessary. To be called by the (single) consumer only.
+     * @return Next element, or null if the queue has been closed and is empty.
+     * @throws InterruptedException
+     */
+    T take() throws InterruptedException {
+        consumer = Thread.currentThread();
+        while (true) {
+            T element = queue.poll();
+            if (element != null) {
+                depth.decrementAndGet();
+                return element;
+            }
+            if (closed && queue.isEmpty())
+                return null;
+            LockSupport.park(this);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Rejects further elements, and lets the consumer finish once it has taken the remaining ones.
+     */
+    void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Number of elements currently waiting.
+     */
+    int getDepth() {
+        return Math.max(depth.get(), 0);
+    }
+
+    int getHighWaterMark() {
+        return highWaterMark.get();
+    }
+
+    long getAccepted() {
+        return accepted.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Capture queue: depth = " + getDepth() + "/" + capacity
+                + ", high water mark = " + getHighWaterMark()
+                + ", accepted = " + getAccepted() + ", dropped = " + getDropped();
+    }
+}
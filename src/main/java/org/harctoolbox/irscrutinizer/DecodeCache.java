@@ -0,0 +1,288 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.ircore.IrSequence;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import org.harctoolbox.irp.Decoder;
+
+/**
+ * Bounded LRU cache for the results of the decoder and the analyzer.
+ * The key is a fingerprint of the signal, consisting of its durations, quantized
+ * to a fraction of the absolute tolerance, its frequency and duty cycle (rounded), the kind of the
+ * computation, and (the string form of) the parameters it was performed with.
+ * The analyzer uses the exact durations (rounded to microseconds), since its result depends on them.
+ *
+ * The cache must be cleared when the IRP database or the tolerances are changed.
+ * It is thread safe; the computation of a missing value is performed outside of the lock,
+ * so it may occasionally be performed more than once.
+ */
+final class DecodeCache {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    /**
+     * The durations are quantized to absoluteTolerance/QUANTUM_DIVISOR.
+     */
+    private static final double QUANTUM_DIVISOR = 4.0;
+
+    enum Kind {
+        decodeIrSignal,
+        decodeIrSignalWithFallback,
+        decodeSequence,
+        analyze;
+
+        private boolean isExact() {
+            return this == analyze;
+        }
+    }
+
+    private final Map<Fingerprint, Object> map;
+    private int capacity;
+    private double quantum;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity Maximal number of entries. 0 disables the cache.
+     * @param absoluteTolerance Absolute tolerance of the decoder, used for quantizing durations.
+     */
+    DecodeCache(int capacity, double absoluteTolerance) {
+        this.capacity = capacity;
+        this.quantum = mkQuantum(absoluteTolerance);
+        this.map = new LinkedHashMap<Fingerprint, Object>(Math.min(capacity, DEFAULT_CAPACITY), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Fingerprint, Object> eldest) {
+                return size() > DecodeCache.this.capacity;
+            }
+        };
+    }
+
+    DecodeCache(int capacity) {
+        this(capacity, IrCoreUtils.DEFAULT_ABSOLUTE_TOLERANCE);
+    }
+
+    DecodeCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Generates a key for the decoder parameters.
+     * (Decoder.DecoderParameters.toString() cannot be used, since it barfs on null members.)
+     * Since ignoreLeadingGarbage cannot be read back, it is not part of the key;
+     * the cache has to be cleared when it is changed.
+     * @param params
+     * @return String representation of the parameters.
+     */
+    static String parametersKey(Decoder.DecoderParameters params) {
+        if (params == null)
+            return "";
+        StringJoiner stringJoiner = new StringJoiner(",");
+        stringJoiner.add(Boolean.toString(params.isStrict()))
+                .add(Boolean.toString(params.isAllDecodes()))
+                .add(Boolean.toString(params.isRemoveDefaultedParameters()))
+                .add(Boolean.toString(params.isRecursive()))
+                .add(Boolean.toString(params.isOverride()))
+                .add(String.valueOf(params.getFrequencyTolerance()))
+                .add(String.valueOf(params.getAbsoluteTolerance()))
+                .add(String.valueOf(params.getRelativeTolerance()))
+                .add(String.valueOf(params.getMinimumLeadout()));
+        return stringJoiner.toString();
+    }
+
+    private static double mkQuantum(Double absoluteTolerance) {
+        return Math.max(1.0, (absoluteTolerance != null ? absoluteTolerance : IrCoreUtils.DEFAULT_ABSOLUTE_TOLERANCE) / QUANTUM_DIVISOR);
+    }
+
+    /**
+     * Returns the cached result of the computation, or performs the computation and caches its result.
+     * Null results are not cached.
+     *
+     * @param <T>
+     * @param kind Type of the computation.
+     * @param irSignal Signal the computation is to be performed on.
+     * @param parameters Parameters that the result depends on, or null. Its toString() is made part of the key,
+     * see {@link #parametersKey(Decoder.DecoderParameters)}.
+     * @param computation Computes the result on a cache miss.
+     * @return Result of computation, possibly from the cache.
+     */
+    <T> T get(Kind kind, IrSignal irSignal, Object parameters, Supplier<T> computation) {
+        double currentQuantum;
+        synchronized (this) {
+            if (capacity <= 0) {
+                misses++;
+                currentQuantum = -1.0;
+            } else
+                currentQuantum = kind.isExact() ? 1.0 : quantum;
+        }
+        if (currentQuantum < 0)
+            return computation.get();
+
+        Fingerprint fingerprint = new Fingerprint(kind, irSignal, parameters, currentQuantum);
+        synchronized (this) {
+            @SuppressWarnings("unchecked")
+            T result = (T) map.get(fingerprint);
+            if (result != null) {
+                hits++;
+                return result;
+            }
+            misses++;
+        }
+
+        T result = computation.get();
+        if (result != null) {
+            synchronized (this) {
+                map.put(fingerprint, result);
+            }
+        }
+        return result;
+    }
+
+    <T> T get(Kind kind, ModulatedIrSequence irSequence, Object parameters, Supplier<T> computation) {
+        return get(kind, new IrSignal(irSequence), parameters, computation);
+    }
+
+    /**
+     * Removes all entries, for example since the IRP database has been changed.
+     */
+    synchronized void clear() {
+        map.clear();
+    }
+
+    /**
+     * Clears the cache, and sets the absolute tolerance used for quantizing the durations.
+     * @param absoluteTolerance
+     */
+    synchronized void setAbsoluteTolerance(Double absoluteTolerance) {
+        quantum = mkQuantum(absoluteTolerance);
+        map.clear();
+    }
+
+    synchronized void setCapacity(int capacity) {
+        this.capacity = capacity;
+        if (map.size() > capacity)
+            map.clear();
+    }
+
+    synchronized int getCapacity() {
+        return capacity;
+    }
+
+    synchronized int size() {
+        return map.size();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total > 0 ? ((double) hits) / total : 0.0;
+    }
+
+    synchronized void resetStatistics() {
+        hits = 0L;
+        misses = 0L;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Decode cache: size = " + map.size() + "/" + capacity
+                + ", hits = " + hits + ", misses = " + misses
+                + String.format(", hit ratio = %.1f%%", 100 * getHitRatio());
+    }
+
+    private static final class Fingerprint {
+
+        private static int[] quantize(IrSequence irSequence, double quantum) {
+            int[] result = new int[irSequence.getLength()];
+            for (int i = 0; i < result.length; i++)
+                result[i] = (int) Math.round(irSequence.get(i) / quantum);
+            return result;
+        }
+
+        private final Kind kind;
+        private final int[] intro;
+        private final int[] repeat;
+        private final int[] ending;
+        private final long frequency;
+        private final long dutyCycle;
+        private final String parameters;
+        private final int hashCode;
+
+        Fingerprint(Kind kind, IrSignal irSignal, Object parameters, double quantum) {
+            this.kind = kind;
+            intro = quantize(irSignal.getIntroSequence(), quantum);
+            repeat = quantize(irSignal.getRepeatSequence(), quantum);
+            ending = quantize(irSignal.getEndingSequence(), quantum);
+            Double freq = irSignal.getFrequency();
+            frequency = freq != null ? Math.round(freq) : -1L;
+            Double dc = irSignal.getDutyCycle();
+            dutyCycle = dc != null ? Math.round(100 * dc) : -1L;
+            this.parameters = parameters != null ? parameters.toString() : "";
+            hashCode = computeHashCode();
+        }
+
+        private int computeHashCode() {
+            int hash = kind.hashCode();
+            hash = 31 * hash + Arrays.hashCode(intro);
+            hash = 31 * hash + Arrays.hashCode(repeat);
+            hash = 31 * hash + Arrays.hashCode(ending);
+            hash = 31 * hash + Long.hashCode(frequency);
+            hash = 31 * hash + Long.hashCode(dutyCycle);
+            hash = 31 * hash + parameters.hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Fingerprint))
+                return false;
+
+            Fingerprint other = (Fingerprint) obj;
+            return hashCode == other.hashCode
+                    && kind == other.kind
+                    && frequency == other.frequency
+                    && dutyCycle == other.dutyCycle
+                    && Arrays.equals(intro, other.intro)
+                    && Arrays.equals(repeat, other.repeat)
+                    && Arrays.equals(ending, other.ending)
+                    && Objects.equals(parameters, other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer;
+
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.ircore.IrCoreException;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.irp.IrpException;
+
+/**
+ * The lock guarding the decoder and the protocols of the IrpDatabase.
+ * The protocols keep state while decoding and rendering, and are shared between the decoder,
+ * ShortPronto, and the rendering of Girr Commands, none of which is thread safe.
+ * All decoding and rendering, on any thread, must therefore be performed while holding this lock.
+ * It must not be held while waiting for the EDT.
+ */
+public final class DecoderLock {
+
+    private static final Object lock = new Object();
+
+    /**
+     * @return The object to synchronize on.
+     */
+    public static Object getLock() {
+        return lock;
+    }
+
+    /**
+     * Renders the command while holding the lock. A raw command has its signal already, so it does not take the lock.
+     * @param command
+     * @return command.toIrSignal()
+     * @throws IrpException
+     * @throws IrCoreException
+     */
+    public static IrSignal toIrSignal(Command command) throws IrpException, IrCoreException {
+        if (command.getMasterType() == Command.MasterType.raw)
+            return command.toIrSignal();
+
+        synchronized (lock) {
+            return command.toIrSignal();
+        }
+    }
+
+    private DecoderLock() {
+    }
+}
@@ -41,12 +41,19 @@ import java.net.URL;
 import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 import javax.comm.DriverGenUnix;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.ImageIcon;
@@ -104,7 +111,6 @@ import org.harctoolbox.irscrutinizer.exporter.*;
 import org.harctoolbox.irscrutinizer.importer.*;
 import org.harctoolbox.remotelocator.Girrable;
 import org.harctoolbox.remotelocator.NotFoundException;
-import org.harctoolbox.xml.XmlUtils;
 import org.xml.sax.SAXException;
 
 @SuppressWarnings("serial")
@@ -119,6 +125,8 @@ public final class GuiMain extends javax.swing.JFrame {
 
     // Stuff that may turn properties in the future
     private final static int importSequenceAskThreshold = 3;
+    private final static int importChunkSize = 128;
+    private final static int maxReportedImportErrors = 10;
     private final static int maxCharsInGuiMessages = 150;
     private final static int transmitSignalMouseButton = 2;
     public final static double chopThreshold = 100.0; // TODO should problably live somewhere else
@@ -172,12 +180,14 @@ public final class GuiMain extends javax.swing.JFrame {
     private IrpDatabase irpDatabase;
     private Decoder decoder;
     private Decoder.DecoderParameters decoderParameters;
+    private DecodeCache decodeCache = null;
     private ExportFormatManager exportFormatManager;
     private HardwareManager hardwareManager;
     private Remote.MetaData metaData;
     private int dynamicExportFormatsMenuPosition;
     private TableUtils tableUtils;
     private CaptureThread captureThread = null;
+    private CaptureQueue<ModulatedIrSequence> captureQueue = null;
     private LookAndFeelManager lookAndFeelManager;
     private GuiUtils guiUtils;
     private Component lastPane;
@@ -517,15 +527,16 @@ public final class GuiMain extends javax.swing.JFrame {
 
         addDynamicExportFormats(properties.getExportFormatFilePath());
         addDynamicExportFormats(properties.getSecondaryExportFormatFilePath());
-        XmlUtils.setDebug(properties.getXsltDebug());
+        Exporter.setXsltDebug(properties.getXsltDebug());
         properties.addXsltDebugChangeListener((String name1, Object oldValue, Object newValue) -> {
-            XmlUtils.setDebug((Boolean) newValue);
+            Exporter.setXsltDebug((Boolean) newValue);
         });
     }
 
     private void addDynamicExportFormats(String file) throws ParserConfigurationException, SAXException, IOException {
         if (!file.isEmpty())
-            exportFormatManager.addDynamicFormats(guiUtils, new File(properties.mkPathAbsolute(file)));
+            exportFormatManager.addDynamicFormats(guiUtils, new File(properties.mkPathAbsolute(file)),
+                    ExportFormatManager.indexFile(properties.getFilename()));
     }
 
     private void setupDecoder() throws IrpParseException {
@@ -545,8 +556,11 @@ public final class GuiMain extends javax.swing.JFrame {
                 properties.getIgnoreLeadingGarbage()
         );
         Command.setDecoderParameters(decoderParameters);
+        RawIrSignal.setDecoder(decoder);
         RawIrSignal.setDecoderParameters(decoderParameters);
+        ParametrizedIrSignal.setDecoder(decoder);
         ParametrizedIrSignal.setDecoderParameters(decoderParameters);
+        setupDecodeCache();
         properties.addFrequencyToleranceChangeListener((String name1, Object oldValue, Object newValue) -> {
             decoderParameters.setFrequencyTolerance((Double) newValue);
         });
@@ -567,6 +581,27 @@ public final class GuiMain extends javax.swing.JFrame {
         });
     }
 
+    private void setupDecodeCache() {
+        if (decodeCache != null) {
+            // The decoder has been replaced, so the old results are no longer valid.
+            decodeCache.clear();
+            return;
+        }
+
+        decodeCache = new DecodeCache(properties.getDecodeCacheSize(), properties.getAbsoluteTolerance());
+        RawIrSignal.setDecodeCache(decodeCache);
+        ParametrizedIrSignal.setDecodeCache(decodeCache);
+        properties.addDecodeCacheSizeChangeListener((String name1, Object oldValue, Object newValue) -> {
+            decodeCache.setCapacity((Integer) newValue);
+        });
+        properties.addAbsoluteToleranceChangeListener((String name1, Object oldValue, Object newValue) -> {
+            decodeCache.setAbsoluteTolerance((Double) newValue);
+        });
+        properties.addRelativeToleranceChangeListener((String name1, Object oldValue, Object newValue) -> {
+            decodeCache.clear();
+        });
+    }
+
     private void tweakTables() {
         tableUtils.fixKeyMappings(parameterTable);
         tableUtils.fixKeyMappings(rawTable);
@@ -590,9 +625,6 @@ public final class GuiMain extends javax.swing.JFrame {
             }
         });
 
-        ParametrizedIrSignal.setDecoder(decoder);
-
-        RawIrSignal.setDecoder(decoder);
         RawIrSignal.setInvokeAnalyzer(properties.getInvokeAnalyzer());
         RawIrSignal.setInvokeDecoder(properties.getInvokeDecoder());
         RawIrSignal.setAbsoluteTolerance(properties.getAbsoluteTolerance());
@@ -659,6 +691,9 @@ public final class GuiMain extends javax.swing.JFrame {
             String replacement = hardwareManager.selectFallback();
             System.err.println("Selected hardware " + properties.getSelectedHardware() + " not found, falling back to " + replacement);
         }
+        if (!properties.getAdditionalTransmitters().isEmpty())
+            hardwareManager.setAdditionalTransmitters(Arrays.asList(properties.getAdditionalTransmitters().split(Pattern.quote(HardwareManager.TRANSMITTER_SEPARATOR))));
+        hardwareManager.setSendingTimeout(properties.getSendingTimeout());
         hardwareManager.setVerbose(properties.getVerbose());
         optionsMenu.add(hardwareManager.getMenu());
     }
@@ -682,6 +717,9 @@ public final class GuiMain extends javax.swing.JFrame {
                     transmitScrutinizedButton.setEnabled(canSend);
                     transmitGenerateButton2.setEnabled(canSend);
                     break;
+                case HardwareManager.PROP_ADDITIONAL_TRANSMITTERS:
+                    properties.setAdditionalTransmitters((String) evt.getNewValue());
+                    break;
                 case HardwareBean.PROP_ISOPEN:
                     captureTestButton.setEnabled(hardwareManager.canCapture());
                     canSend = hardwareManager.canSend();
@@ -1084,12 +1122,22 @@ public final class GuiMain extends javax.swing.JFrame {
                 buttonwidth, buttonheight, screenwidth, screenheight);
     }
 
-    private Exporter newExporter() {
+    private Exporter newExporter() throws IOException {
         return newExporter((String) exportFormatComboBox.getSelectedItem());
     }
 
-    private Exporter newExporter(String formatName) {
-        return exportFormatManager.get(formatName).newExporter();
+    /**
+     * If the format cannot be loaded, it is removed by the ExportFormatManager;
+     * the combo box is then updated, and the current format selected anew.
+     */
+    private Exporter newExporter(String formatName) throws IOException {
+        try {
+            return exportFormatManager.newExporter(formatName);
+        } catch (IOException ex) {
+            exportFormatComboBox.setModel(new DefaultComboBoxModel<>(exportFormatManager.toArray()));
+            selectFormat();
+            throw ex;
+        }
     }
 
     private IrSignal getCapturedIrSignal() throws InvalidArgumentException {
@@ -1176,7 +1224,13 @@ public final class GuiMain extends javax.swing.JFrame {
     }
 
     private void setDecodeIrParameters(IrSignal irSignal) {
-        Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes = decoder.decodeIrSignalWithFallback(irSignal, decoderParameters);
+        Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes
+                = decodeCache.get(DecodeCache.Kind.decodeIrSignalWithFallback, irSignal, DecodeCache.parametersKey(decoderParameters),
+                        () -> {
+                            synchronized (DecoderLock.getLock()) {
+                                return decoder.decodeIrSignalWithFallback(irSignal, decoderParameters);
+                            }
+                        });
         setDecodeResult(decodes);
     }
 
@@ -1312,7 +1366,7 @@ public final class GuiMain extends javax.swing.JFrame {
 
     private void scrutinizeIrSignal(JTable table) throws ErroneousSelectionException, GirrException, IrpException, IrCoreException {
         Command command = tableUtils.commandTableSelectedRow(table);
-        scrutinizeIrSignal(command.toIrSignal());
+        scrutinizeIrSignal(DecoderLock.toIrSignal(command));
     }
 
     private void displaySignal(IrSignal irSignal) {
@@ -1544,44 +1598,135 @@ public final class GuiMain extends javax.swing.JFrame {
     }
 
     public int importCommands(RemoteSet remoteSet, Remote.MetaData metaData, boolean raw) {
-        int sum = 0;
+        int size = 0;
         for (Remote remote : remoteSet)
-            sum += importCommands(remote, metaData, raw);
-        return sum;
+            for (CommandSet commandSet : remote)
+                size += commandSet.size();
+        List<Command> commands = new ArrayList<>(size);
+        for (Remote remote : remoteSet)
+            for (CommandSet commandSet : remote)
+                commands.addAll(commandSet.getCommands());
+        return importCommands(commands, metaData, raw);
     }
 
     public int importCommands(Remote remote, Remote.MetaData metaData, boolean raw) {
-        int sum = 0;
+        int size = 0;
+        for (CommandSet commandSet : remote)
+            size += commandSet.size();
+        List<Command> commands = new ArrayList<>(size);
         for (CommandSet commandSet : remote)
-            sum += importCommands(commandSet, metaData, raw);
-        return sum;
+            commands.addAll(commandSet.getCommands());
+        return importCommands(commands, metaData, raw);
     }
 
     public int importCommands(CommandSet commandSet, Remote.MetaData metaData, boolean raw) {
         return importCommands(commandSet.getCommands(), metaData, raw);
     }
 
+    /**
+     * Imports the commands to the raw or parametric table, in their order.
+     * The commands are converted in chunks, on a pool of threads, see {@link #convertCommands(List, boolean)},
+     * and the signals are then entered into the table in one go.
+     * Erroneous signals are collected; they are reported, and the user is asked how to proceed, only once at the end.
+     * When the user declines, the signals preceding the first erroneous one are kept.
+     * @param commands
+     * @param metaData
+     * @param raw
+     * @return Number of signals imported, negated if the user aborted.
+     */
     private int importCommands(Collection<Command> commands, Remote.MetaData metaData, boolean raw) {
         if (metaData != null && !metaData.isEmpty())
             this.metaData = metaData;
-        boolean observeErrors = true;
-        int count = 0;
-        for (Command command : commands) {
-            try {
-                importCommand(command, raw);
-                count++;
-            } catch (IrpException | IrCoreException ex) {
-                if (observeErrors) {
-                    guiUtils.error("Erroneous signal: " + ex.getMessage());
-                    boolean ans = guiUtils.confirm("Continue import and ignore further erroneous signals?");
-                    if (ans)
-                        observeErrors = false;
-                    else
-                        return -count;
-                }
-            }
+
+        List<ImportChunk> chunks;
+        try {
+            chunks = convertCommands(commands instanceof List ? (List<Command>) commands : new ArrayList<>(commands), raw);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return 0;
         }
-        return count;
+
+        List<NamedIrSignal> good = new ArrayList<>(commands.size());
+        List<NamedIrSignal> held = new ArrayList<>(0); // signals after the first error
+        List<String> errors = new ArrayList<>(0);
+        for (ImportChunk chunk : chunks) {
+            if (errors.isEmpty()) {
+                good.addAll(chunk.signals.subList(0, chunk.noSignalsBeforeError));
+                held.addAll(chunk.signals.subList(chunk.noSignalsBeforeError, chunk.signals.size()));
+            } else
+                held.addAll(chunk.signals);
+            errors.addAll(chunk.errors);
+        }
+        if (raw)
+            rawTableModel.addSignals(good);
+        else
+            parameterTableModel.addSignals(good);
+
+        if (errors.isEmpty())
+            return good.size();
+
+        guiUtils.error(importErrorsMessage(errors));
+        if (!guiUtils.confirm("Continue import and ignore the erroneous signals?"))
+            return -good.size();
+
+        if (raw)
+            rawTableModel.addSignals(held);
+        else
+            parameterTableModel.addSignals(held);
+        return good.size() + held.size();
+    }
+
+    /**
+     * Converts the commands to signals, in chunks, which, if there are several, are converted on a pool of threads.
+     * The rendering and decoding within the conversion are performed under the {@link DecoderLock},
+     * so only the conversion of raw commands really runs in parallel.
+     * @param commands
+     * @param raw
+     * @return The chunks, in the order of the commands.
+     * @throws InterruptedException
+     */
+    private static List<ImportChunk> convertCommands(List<Command> commands, boolean raw) throws InterruptedException {
+        int noChunks = (commands.size() + importChunkSize - 1) / importChunkSize;
+        if (noChunks <= 1)
+            return Collections.singletonList(new ImportChunk(commands, raw));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(Runtime.getRuntime().availableProcessors(), noChunks));
+        try {
+            List<Future<ImportChunk>> futures = new ArrayList<>(noChunks);
+            for (int start = 0; start < commands.size(); start += importChunkSize) {
+                List<Command> chunk = commands.subList(start, Math.min(start + importChunkSize, commands.size()));
+                futures.add(executor.submit(() -> new ImportChunk(chunk, raw)));
+            }
+            List<ImportChunk> chunks = new ArrayList<>(noChunks);
+            for (Future<ImportChunk> future : futures)
+                chunks.add(waitFor(future));
+            return chunks;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ImportChunk waitFor(Future<ImportChunk> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new ThisCannotHappenException(cause);
+        }
+    }
+
+    private static String importErrorsMessage(List<String> errors) {
+        StringBuilder str = new StringBuilder(256);
+        str.append(errors.size()).append(errors.size() == 1 ? " erroneous signal:" : " erroneous signals:");
+        for (int i = 0; i < Math.min(errors.size(), maxReportedImportErrors); i++)
+            str.append('\n').append(errors.get(i));
+        if (errors.size() > maxReportedImportErrors)
+            str.append("\n... and ").append(errors.size() - maxReportedImportErrors).append(" more");
+        return str.toString();
     }
 
     public int importCommand(Command command, boolean raw) throws IrpException, IrCoreException {
@@ -1672,8 +1817,13 @@ public final class GuiMain extends javax.swing.JFrame {
     }
 
     private void registerRawCommands(Collection<Command> commands) throws IrpException, IrCoreException {
-        for (Command command : commands)
-            registerRawCommand(new RawIrSignal(command));
+        List<RawIrSignal> signals = new ArrayList<>(commands.size());
+        try {
+            for (Command command : commands)
+                signals.add(new RawIrSignal(command));
+        } finally {
+            rawTableModel.addSignals(signals);
+        }
     }
 
     private void registerRawCommand(Command command) throws IrpException, IrCoreException {
@@ -1698,6 +1848,33 @@ public final class GuiMain extends javax.swing.JFrame {
         }
     }
 
+    /**
+     * Imports a, possibly huge, mode2 file to the raw table, in a separate thread.
+     * The signals are entered in the table as soon as they are parsed.
+     * @param file
+     */
+    private void importMode2File(final File file) {
+        final String name = IrCoreUtils.basename(file.getName());
+        final String comment = "Imported from " + file.getName();
+        Thread thread = new Thread(() -> {
+            int[] count = new int[1];
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), properties.getImportCharsetName())) {
+                new Mode2Importer().load(reader, file.getPath(), (ModulatedIrSequence sequence) -> {
+                    String signalName = name + "_" + Integer.toString(++count[0]);
+                    java.awt.EventQueue.invokeLater(() -> {
+                        registerRawSignal(sequence, signalName, comment);
+                    });
+                });
+            } catch (IOException | ParseException ex) {
+                java.awt.EventQueue.invokeLater(() -> {
+                    guiUtils.error(ex);
+                });
+            }
+        }, "mode2 import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     private void registerRawCommand(RawIrSignal cir) {
         rawTableModel.addSignal(cir);
     }
@@ -1725,8 +1902,12 @@ public final class GuiMain extends javax.swing.JFrame {
     }
 
     private void registerParameterSignal(Collection<Command> commands) throws IrpException, IrCoreException {
-        for (Command command : commands) {
-            registerParameterSignal(new ParametrizedIrSignal(command));
+        List<ParametrizedIrSignal> signals = new ArrayList<>(commands.size());
+        try {
+            for (Command command : commands)
+                signals.add(new ParametrizedIrSignal(command));
+        } finally {
+            parameterTableModel.addSignals(signals);
         }
     }
 
@@ -1796,11 +1977,19 @@ public final class GuiMain extends javax.swing.JFrame {
     }
 
     private boolean transmit(IrSignal irSignal) throws IOException, HardwareUnavailableException, HarcHardwareException, NoSuchTransmitterException, InvalidArgumentException, CannotSendException {
-        return hardwareManager.sendIr(irSignal, (int) noTransmitsComboBox.getSelectedItem());
+        boolean success = hardwareManager.sendIr(irSignal, (int) noTransmitsComboBox.getSelectedItem());
+        reportTransmitterFailures();
+        return success;
+    }
+
+    private void reportTransmitterFailures() {
+        String failures = hardwareManager.takeTransmitterFailures();
+        if (failures != null)
+            guiUtils.warning(failures);
     }
 
     public boolean transmit(Command command) throws IrpException, IrCoreException, IOException, HardwareUnavailableException, HarcHardwareException, NoSuchTransmitterException, InvalidArgumentException, CannotSendException {
-        return transmit(command.toIrSignal());
+        return transmit(DecoderLock.toIrSignal(command));
     }
 
     private boolean transmit(JTable table) throws ErroneousSelectionException, GirrException, IrpException, IrCoreException, IOException, HardwareUnavailableException, HarcHardwareException, NoSuchTransmitterException, InvalidArgumentException, CannotSendException {
@@ -1808,6 +1997,29 @@ public final class GuiMain extends javax.swing.JFrame {
         return transmit(command);
     }
 
+    /**
+     * Transmits the selected row, or, if several are selected, all of them, one after the other,
+     * in the background, through the transmission queue of the hardware manager.
+     */
+    private void transmitSelected(JTable table) throws ErroneousSelectionException, GirrException, IrpException, IrCoreException, IOException, HardwareUnavailableException, HarcHardwareException, NoSuchTransmitterException, InvalidArgumentException, CannotSendException {
+        List<Integer> rows = tableUtils.modelLinesSelected(table);
+        if (rows.size() <= 1) {
+            transmit(table);
+            return;
+        }
+
+        NamedIrSignal.LearnedIrSignalTableModel tableModel = (NamedIrSignal.LearnedIrSignalTableModel) table.getModel();
+        int count = (int) noTransmitsComboBox.getSelectedItem();
+        int delay = properties.getTransmitQueueDelay();
+        List<TransmissionQueue.Item> items = new ArrayList<>(rows.size());
+        for (int row : rows)
+            items.add(new TransmissionQueue.Item(tableModel.toCommand(row), count, delay));
+        hardwareManager.transmit(items, new TransmissionReporter());
+        pauseTransmissionMenuItem.setText("Pause transmission");
+        pauseTransmissionMenuItem.setEnabled(true);
+        cancelTransmissionMenuItem.setEnabled(true);
+    }
+
     public void selectImportPane(ImportType type) {
         lastPane = topLevelTabbedPane.getSelectedComponent();
         topLevelTabbedPane.setSelectedComponent(type == ImportType.signal ? signalScrutinizerPanel : remoteScrutinizerPanel);
@@ -1844,9 +2056,15 @@ public final class GuiMain extends javax.swing.JFrame {
             formatName = "Girr";
             format = exportFormatManager.get(formatName);
         }
+        Exporter exporter;
+        try {
+            exporter = newExporter(formatName); // dynamic formats are loaded on first use
+        } catch (IOException ex) {
+            guiUtils.warning(ex.getMessage());
+            return;
+        }
         properties.setExportFormatName(formatName);
 
-        Exporter exporter = format.newExporter();
         boolean supportsEmbedded = RemoteSetExporter.class.isInstance(exporter) && ((RemoteSetExporter) exporter).supportsEmbeddedFormats();
         enableSubFormats(supportsEmbedded);
         boolean enableRepetitions = supportsEmbedded && exportGenerateSendIrCheckBox.isSelected() || exporter.considersRepetitions();
@@ -1954,30 +2172,72 @@ public final class GuiMain extends javax.swing.JFrame {
         tableModel.replaceColumnSubset(row, column, arr);
     }
 
+    /**
+     * The signals made from a number of commands, together with the errors of the failing ones.
+     */
+    private static class ImportChunk {
+
+        private final List<NamedIrSignal> signals;
+        private final List<String> errors;
+        private final int noSignalsBeforeError;
+
+        ImportChunk(List<Command> commands, boolean raw) {
+            signals = new ArrayList<>(commands.size());
+            errors = new ArrayList<>(0);
+            int firstError = -1;
+            for (Command command : commands) {
+                try {
+                    signals.add(raw ? new RawIrSignal(command) : new ParametrizedIrSignal(command));
+                } catch (IrpException | IrCoreException ex) {
+                    if (errors.isEmpty())
+                        firstError = signals.size();
+                    errors.add(command.getName() + ": " + ex.getMessage());
+                }
+            }
+            noSignalsBeforeError = errors.isEmpty() ? signals.size() : firstError;
+        }
+    }
+
     private static interface CaptureThreadClient {
 
         JToggleButton getButton();
         void processSequence(ModulatedIrSequence modulatedIrSequence);
     }
 
+    /**
+     * Captures signals, and hands them, through a CaptureQueue, to a thread of its own for analysis
+     * and registration, so that new captures are not held up by the processing of the previous ones.
+     */
     private class CaptureThread extends Thread {
 
         private final CaptureThreadClient client;
-        private boolean terminate;
+        private final CaptureQueue<ModulatedIrSequence> queue;
+        private final Thread analysisThread;
+        private final String buttonText;
+        private volatile boolean terminate;
 
         CaptureThread(CaptureThreadClient client) {
+            super("capture");
             this.client = client;
+            queue = new CaptureQueue<>(CaptureQueue.DEFAULT_CAPACITY);
+            captureQueue = queue;
+            analysisThread = new Thread(this::analyze, "capture-analysis");
+            analysisThread.setDaemon(true);
+            buttonText = client.getButton().getText();
             terminate = false;
         }
 
         @Override
         public void run() {
             startButton.setEnabled(false);
+            analysisThread.start();
             while (!terminate && client.getButton().isSelected()) {
                 try {
                     ModulatedIrSequence sequence = captureIrSequence();
-                    if (sequence != null)
-                        client.processSequence(sequence);
+                    if (sequence != null) {
+                        queue.offer(sequence);
+                        showQueueDepth();
+                    }
 
                     if (!hardwareManager.isReady()) {
                         guiUtils.error("Selected capture device is no longer ready");
@@ -1988,6 +2248,14 @@ public final class GuiMain extends javax.swing.JFrame {
                     client.getButton().setSelected(false);
                 }
             }
+            queue.close();
+            try {
+                analysisThread.join();
+            } catch (InterruptedException ex) {
+                analysisThread.interrupt();
+            }
+            if (queue.getDropped() > 0)
+                guiUtils.warning(queue.getDropped() + " captured signal(s) were dropped, since the analysis could not keep up.");
             captureThread = null; // thread suicide
             startButton.setEnabled(true);
             enableRawCaptureOnly(false);
@@ -1995,11 +2263,70 @@ public final class GuiMain extends javax.swing.JFrame {
             jumpToLastPanelMenuItem.setEnabled(true);
         }
 
+        private void analyze() {
+            try {
+                ModulatedIrSequence sequence;
+                while ((sequence = queue.take()) != null) {
+                    showQueueDepth();
+                    try {
+                        client.processSequence(sequence);
+                    } catch (RuntimeException ex) {
+                        guiUtils.error(ex);
+                    }
+                }
+            } catch (InterruptedException ex) {
+            }
+        }
+
+        private void showQueueDepth() {
+            java.awt.EventQueue.invokeLater(() -> {
+                int depth = queue.getDepth();
+                client.getButton().setText(depth > 0 ? buttonText + " (" + depth + ")" : buttonText);
+            });
+        }
+
         private void terminate() {
             terminate = true;
         }
     }
 
+    /**
+     * Reports the progress of a transmission queue on the console, the wire latency of every signal only when verbose.
+     * Called on the thread of the queue, so everything is passed on to the event dispatch thread.
+     */
+    private class TransmissionReporter implements TransmissionQueue.Listener {
+
+        @Override
+        public void transmitted(int index, TransmissionQueue.Item item, boolean success, long latency) {
+            if (properties.getVerbose() || !success)
+                java.awt.EventQueue.invokeLater(() -> {
+                    guiUtils.message(String.format("%s %s (%d), wire latency %.1f ms",
+                            success ? "Transmitted" : "Failed to transmit", item.getCommand().getName(), index + 1, latency / 1000000.0));
+                });
+        }
+
+        @Override
+        public void failed(int index, TransmissionQueue.Item item, Exception ex) {
+            java.awt.EventQueue.invokeLater(() -> {
+                guiUtils.error(ex, "Transmitting " + item.getCommand().getName() + " failed");
+            });
+        }
+
+        @Override
+        public void finished(TransmissionQueue queue) {
+            String statistics = hardwareManager.getMultiTransmitterStatistics();
+            java.awt.EventQueue.invokeLater(() -> {
+                guiUtils.message(queue.toString());
+                if (statistics != null)
+                    guiUtils.message(statistics);
+                reportTransmitterFailures();
+                pauseTransmissionMenuItem.setText("Pause transmission");
+                pauseTransmissionMenuItem.setEnabled(false);
+                cancelTransmissionMenuItem.setEnabled(false);
+            });
+        }
+    }
+
     private class ScrutinizeIrCaller implements LookAndFeelManager.ILookAndFeelManagerCaller {
         @Override
         public void err(Exception ex, String str) {
@@ -2278,6 +2605,7 @@ public final class GuiMain extends javax.swing.JFrame {
         addEmptyRawMenuItem = new javax.swing.JMenuItem();
         addRawTestSignalMenuItem = new javax.swing.JMenuItem();
         rawFromClipboardMenuItem = new javax.swing.JMenuItem();
+        rawFromMode2MenuItem = new javax.swing.JMenuItem();
         jSeparator18 = new javax.swing.JPopupMenu.Separator();
         rawChopMenuItem = new javax.swing.JMenuItem();
         scrutinizeMenuItem = new javax.swing.JMenuItem();
@@ -2591,6 +2919,9 @@ public final class GuiMain extends javax.swing.JFrame {
         openLastExportFileMenuItem = new javax.swing.JMenuItem();
         jSeparator21 = new javax.swing.JPopupMenu.Separator();
         jumpToLastPanelMenuItem = new javax.swing.JMenuItem();
+        jSeparator49 = new javax.swing.JPopupMenu.Separator();
+        pauseTransmissionMenuItem = new javax.swing.JMenuItem();
+        cancelTransmissionMenuItem = new javax.swing.JMenuItem();
         optionsMenu = new javax.swing.JMenu();
         jSeparator3 = new javax.swing.JPopupMenu.Separator();
         outputFormatMenu = new javax.swing.JMenu();
@@ -2674,6 +3005,9 @@ public final class GuiMain extends javax.swing.JFrame {
         offerStackTraceCheckBoxMenuItem = new javax.swing.JCheckBoxMenuItem();
         xsltDebugMenuItem = new javax.swing.JCheckBoxMenuItem();
         debugDecodeProtocolRegexpMenuItem = new javax.swing.JMenuItem();
+        decodeCacheStatisticsMenuItem = new javax.swing.JMenuItem();
+        exportFormatStatisticsMenuItem = new javax.swing.JMenuItem();
+        captureQueueStatisticsMenuItem = new javax.swing.JMenuItem();
         debugCodeMenuItem = new javax.swing.JMenuItem();
         toolsMenu = new javax.swing.JMenu();
         hexCalcMenuItem = new javax.swing.JMenuItem();
@@ -2967,7 +3301,7 @@ public final class GuiMain extends javax.swing.JFrame {
 
         transmitMenuItem.setMnemonic('T');
         transmitMenuItem.setText("Transmit selected");
-        transmitMenuItem.setToolTipText("Transmit selected signal using selected sendiing hardware");
+        transmitMenuItem.setToolTipText("Transmit selected signal(s) using selected sendiing hardware. Several signals are sent one after the other, in the background.");
         transmitMenuItem.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
                 transmitMenuItemActionPerformed(evt);
@@ -3346,6 +3680,15 @@ public final class GuiMain extends javax.swing.JFrame {
             }
         });
         rawTablePopupMenu.add(rawFromClipboardMenuItem);
+
+        rawFromMode2MenuItem.setText("Import signals from mode2 file...");
+        rawFromMode2MenuItem.setToolTipText("Import a mode2 file, splitting it into signals at long gaps.");
+        rawFromMode2MenuItem.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                rawFromMode2MenuItemActionPerformed(evt);
+            }
+        });
+        rawTablePopupMenu.add(rawFromMode2MenuItem);
         rawTablePopupMenu.add(jSeparator18);
 
         rawChopMenuItem.setText("Chop selected signals at long gaps");
@@ -3368,7 +3711,7 @@ public final class GuiMain extends javax.swing.JFrame {
 
         sendMenuItem.setMnemonic('T');
         sendMenuItem.setText("Transmit selected");
-        sendMenuItem.setToolTipText("Transmit signal using selected hardware.");
+        sendMenuItem.setToolTipText("Transmit signal(s) using selected hardware. Several signals are sent one after the other, in the background.");
         sendMenuItem.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
                 sendMenuItemActionPerformed(evt);
@@ -6262,6 +6605,27 @@ public final class GuiMain extends javax.swing.JFrame {
             }
         });
         actionsMenu.add(jumpToLastPanelMenuItem);
+        actionsMenu.add(jSeparator49);
+
+        pauseTransmissionMenuItem.setText("Pause transmission");
+        pauseTransmissionMenuItem.setToolTipText("Pause, or resume, the transmission of several selected table rows.");
+        pauseTransmissionMenuItem.setEnabled(false);
+        pauseTransmissionMenuItem.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                pauseTransmissionMenuItemActionPerformed(evt);
+            }
+        });
+        actionsMenu.add(pauseTransmissionMenuItem);
+
+        cancelTransmissionMenuItem.setText("Cancel transmission");
+        cancelTransmissionMenuItem.setToolTipText("Stop the transmission of several selected table rows after the present signal.");
+        cancelTransmissionMenuItem.setEnabled(false);
+        cancelTransmissionMenuItem.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                cancelTransmissionMenuItemActionPerformed(evt);
+            }
+        });
+        actionsMenu.add(cancelTransmissionMenuItem);
 
         menuBar.add(actionsMenu);
 
@@ -6888,6 +7252,33 @@ public final class GuiMain extends javax.swing.JFrame {
         });
         debugMenu.add(debugDecodeProtocolRegexpMenuItem);
 
+        decodeCacheStatisticsMenuItem.setText("Decode Cache Statistics");
+        decodeCacheStatisticsMenuItem.setToolTipText("Print size, hits, and misses of the cache for decoder and analyzer results.");
+        decodeCacheStatisticsMenuItem.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                decodeCacheStatisticsMenuItemActionPerformed(evt);
+            }
+        });
+        debugMenu.add(decodeCacheStatisticsMenuItem);
+
+        exportFormatStatisticsMenuItem.setText("Export Format Statistics");
+        exportFormatStatisticsMenuItem.setToolTipText("Print compilation and transformation times of the dynamic export formats having been used.");
+        exportFormatStatisticsMenuItem.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                exportFormatStatisticsMenuItemActionPerformed(evt);
+            }
+        });
+        debugMenu.add(exportFormatStatisticsMenuItem);
+
+        captureQueueStatisticsMenuItem.setText("Capture Queue Statistics");
+        captureQueueStatisticsMenuItem.setToolTipText("Print depth, high water mark, and number of accepted and dropped signals of the (last) capture queue.");
+        captureQueueStatisticsMenuItem.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                captureQueueStatisticsMenuItemActionPerformed(evt);
+            }
+        });
+        debugMenu.add(captureQueueStatisticsMenuItem);
+
         debugCodeMenuItem.setText("Debug Code...");
         debugCodeMenuItem.setEnabled(false);
         debugCodeMenuItem.addActionListener(new java.awt.event.ActionListener() {
@@ -7733,6 +8124,13 @@ public final class GuiMain extends javax.swing.JFrame {
         }
     }//GEN-LAST:event_rawFromClipboardMenuItemActionPerformed
 
+    private void rawFromMode2MenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_rawFromMode2MenuItemActionPerformed
+        File file = SelectFile.selectFile(this, "Select mode2 file to import", properties.getDefaultImportDir(), false, false,
+                JFileChooser.FILES_ONLY, new Mode2Importer().getFileExtensions());
+        if (file != null)
+            importMode2File(file);
+    }//GEN-LAST:event_rawFromMode2MenuItemActionPerformed
+
     private void exportRawAsGirrMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_exportRawAsGirrMenuItemActionPerformed
         try {
             saveAllCommands(rawTable, newGirrExporter());
@@ -8355,7 +8753,7 @@ public final class GuiMain extends javax.swing.JFrame {
 
     private void transmitMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_transmitMenuItemActionPerformed
         try {
-            transmit(parameterTable);
+            transmitSelected(parameterTable);
         } catch (HardwareUnavailableException ex) {
             guiUtils.error("Transmitting hardware not selected or not ready.");
         } catch (IOException | GirrException | ErroneousSelectionException | HarcHardwareException | IrCoreException | IrpException ex) {
@@ -8365,7 +8763,7 @@ public final class GuiMain extends javax.swing.JFrame {
 
     private void sendMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_sendMenuItemActionPerformed
         try {
-            transmit(rawTable);
+            transmitSelected(rawTable);
         } catch (GirrException | ErroneousSelectionException | IrpException | IrCoreException | IOException | HardwareUnavailableException | HarcHardwareException ex) {
             guiUtils.error(ex);
         }
@@ -8421,8 +8819,10 @@ public final class GuiMain extends javax.swing.JFrame {
     private void sendingTimeoutMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_sendingTimeoutMenuItemActionPerformed
         try {
             Integer t = guiUtils.getIntegerInput("Sending time-out in milliseconds", properties.getSendingTimeout());
-            if (t != null)
+            if (t != null) {
                 properties.setSendingTimeout(t);
+                hardwareManager.setSendingTimeout(t);
+            }
         } catch (NumberFormatException ex) {
             guiUtils.error("Invalid number: " + ex.getMessage());
         }
@@ -8895,6 +9295,18 @@ public final class GuiMain extends javax.swing.JFrame {
             Decoder.setDebugProtocolRegExp(s.isEmpty() ? null : s);
     }//GEN-LAST:event_debugDecodeProtocolRegexpMenuItemActionPerformed
 
+    private void decodeCacheStatisticsMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_decodeCacheStatisticsMenuItemActionPerformed
+        guiUtils.message(decodeCache.toString());
+    }//GEN-LAST:event_decodeCacheStatisticsMenuItemActionPerformed
+
+    private void exportFormatStatisticsMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_exportFormatStatisticsMenuItemActionPerformed
+        guiUtils.message(exportFormatManager.getStatistics());
+    }//GEN-LAST:event_exportFormatStatisticsMenuItemActionPerformed
+
+    private void captureQueueStatisticsMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_captureQueueStatisticsMenuItemActionPerformed
+        guiUtils.message(captureQueue != null ? captureQueue.toString() : "No capture has been performed.");
+    }//GEN-LAST:event_captureQueueStatisticsMenuItemActionPerformed
+
     private void downloadsMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_downloadsMenuItemActionPerformed
         try {
             guiUtils.browse(new URI(DOWNLOADS_URL));
@@ -9023,6 +9435,7 @@ public final class GuiMain extends javax.swing.JFrame {
     private void ignoreLeadingGarbageCheckBoxMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_ignoreLeadingGarbageCheckBoxMenuItemActionPerformed
         properties.setIgnoreLeadingGarbage(ignoreLeadingGarbageCheckBoxMenuItem.isSelected());
         decoderParameters.setIgnoreLeadingGarbage(ignoreLeadingGarbageCheckBoxMenuItem.isSelected());
+        decodeCache.clear(); // not part of the key, see DecodeCache.parametersKey
     }//GEN-LAST:event_ignoreLeadingGarbageCheckBoxMenuItemActionPerformed
 
     private void clearSelectionParametricMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_clearSelectionParametricMenuItemActionPerformed
@@ -9154,7 +9567,10 @@ public final class GuiMain extends javax.swing.JFrame {
                     true /*properties.getInvokeCleaner()*/, properties.getAbsoluteTolerance(), properties.getRelativeTolerance());
             guiUtils.message(modulatedIrSequence.toString(true));
             guiUtils.message("f=" + Math.round(modulatedIrSequence.getFrequency()));
-            Decoder.SimpleDecodesSet decodes = decoder.decodeIrSignal(signal, decoderParameters);
+            Decoder.SimpleDecodesSet decodes;
+            synchronized (DecoderLock.getLock()) {
+                decodes = decoder.decodeIrSignal(signal, decoderParameters);
+            }
             if (decodes.isEmpty())
                 guiUtils.message("No decodes.");
             else
@@ -9173,12 +9589,16 @@ public final class GuiMain extends javax.swing.JFrame {
     private void exportFormatDocumentationButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_exportFormatDocumentationButtonActionPerformed
 //        IExporterFactory factory = exportFormatManager.getSelected();
 //        ICommandExporter exporter = factory.newExporter();
-        org.w3c.dom.Document doc = exportFormatManager.getDocument();
-        String name = exportFormatManager.getFormatName();
-        if (doc != null)
-            HelpPopup.newHelpPopup(this, doc, "Documentation for " + name);
-        else
-            guiUtils.error("No documentation available for format " + name);
+        try {
+            org.w3c.dom.Document doc = exportFormatManager.getDocument();
+            String name = exportFormatManager.getFormatName();
+            if (doc != null)
+                HelpPopup.newHelpPopup(this, doc, "Documentation for " + name);
+            else
+                guiUtils.error("No documentation available for format " + name);
+        } catch (IOException ex) {
+            guiUtils.error(ex);
+        }
     }//GEN-LAST:event_exportFormatDocumentationButtonActionPerformed
 
     private void lowercaseNameMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_lowercaseNameMenuItemActionPerformed
@@ -9352,6 +9772,25 @@ public final class GuiMain extends javax.swing.JFrame {
         properties.setXsltDebug(xsltDebugMenuItem.isSelected());
     }//GEN-LAST:event_xsltDebugMenuItemActionPerformed
 
+    private void pauseTransmissionMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_pauseTransmissionMenuItemActionPerformed
+        TransmissionQueue queue = hardwareManager.getTransmissionQueue();
+        if (queue == null || !queue.isRunning())
+            return;
+        if (queue.isPaused()) {
+            queue.resume();
+            pauseTransmissionMenuItem.setText("Pause transmission");
+        } else {
+            queue.pause();
+            pauseTransmissionMenuItem.setText("Resume transmission");
+        }
+    }//GEN-LAST:event_pauseTransmissionMenuItemActionPerformed
+
+    private void cancelTransmissionMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_cancelTransmissionMenuItemActionPerformed
+        TransmissionQueue queue = hardwareManager.getTransmissionQueue();
+        if (queue != null)
+            queue.cancel();
+    }//GEN-LAST:event_cancelTransmissionMenuItemActionPerformed
+
     private void tableKeyReleased(JTable table, KeyEvent evt) {
         if (evt.getModifiersEx() == java.awt.event.InputEvent.CTRL_DOWN_MASK
                 && evt.getExtendedKeyCode() == java.awt.event.KeyEvent.VK_F ) {
@@ -9386,8 +9825,10 @@ public final class GuiMain extends javax.swing.JFrame {
     private javax.swing.JCheckBox autoOpenExportsCheckBox;
     private javax.swing.JCheckBox automaticExportFilenamesCheckBox;
     private javax.swing.JMenuItem beaconListenerMenuItem;
+    private javax.swing.JMenuItem cancelTransmissionMenuItem;
     private javax.swing.JMenuItem captitalizeNameMenuItem;
     private javax.swing.JPanel captureIrWidgetPanel;
+    private javax.swing.JMenuItem captureQueueStatisticsMenuItem;
     private javax.swing.JButton captureTestButton;
     private javax.swing.JScrollPane capturedDataScrollPane;
     private org.harctoolbox.guicomponents.UndoableJTextArea capturedDataTextArea;
@@ -9428,6 +9869,7 @@ public final class GuiMain extends javax.swing.JFrame {
     private javax.swing.JComboBox<String> dColumnComboBox;
     private javax.swing.JMenuItem debugCodeMenuItem;
     private javax.swing.JMenuItem debugDecodeProtocolRegexpMenuItem;
+    private javax.swing.JMenuItem decodeCacheStatisticsMenuItem;
     private javax.swing.JMenu debugMenu;
     private javax.swing.JTextField decodeIRTextField;
     private javax.swing.JMenuItem deleteAllMenuItem;
@@ -9461,6 +9903,7 @@ public final class GuiMain extends javax.swing.JFrame {
     private javax.swing.JComboBox<String> exportFormatComboBox;
     private javax.swing.JButton exportFormatDocumentationButton;
     private javax.swing.JLayeredPane exportFormatParametersPane;
+    private javax.swing.JMenuItem exportFormatStatisticsMenuItem;
     private javax.swing.JMenuItem exportFormatsEditMenuItem;
     private javax.swing.JMenu exportFormatsMenu;
     private javax.swing.JMenuItem exportFormatsReloadMenuItem;
@@ -9676,6 +10119,7 @@ public final class GuiMain extends javax.swing.JFrame {
     private javax.swing.JPopupMenu.Separator jSeparator46;
     private javax.swing.JPopupMenu.Separator jSeparator47;
     private javax.swing.JPopupMenu.Separator jSeparator48;
+    private javax.swing.JPopupMenu.Separator jSeparator49;
     private javax.swing.JPopupMenu.Separator jSeparator5;
     private javax.swing.JPopupMenu.Separator jSeparator6;
     private javax.swing.JPopupMenu.Separator jSeparator7;
@@ -9728,6 +10172,7 @@ public final class GuiMain extends javax.swing.JFrame {
     private javax.swing.JButton pasteAnalyzeButton;
     private javax.swing.JMenuItem pasteScrutinizeToDataWindowMenuItem;
     private javax.swing.JMenuItem pasteToDataWindowMenuItem;
+    private javax.swing.JMenuItem pauseTransmissionMenuItem;
     private javax.swing.JScrollPane plotScrollPane;
     private javax.swing.JMenuItem plotterResetMenuItem;
     private javax.swing.JCheckBoxMenuItem printAlternativeDecodesCheckBoxMenuItem;
@@ -9762,6 +10207,7 @@ public final class GuiMain extends javax.swing.JFrame {
     private javax.swing.JMenuItem rawCopyAllMenuItem;
     private javax.swing.JMenuItem rawCopySelectionMenuItem;
     private javax.swing.JMenuItem rawFromClipboardMenuItem;
+    private javax.swing.JMenuItem rawFromMode2MenuItem;
     private org.harctoolbox.irscrutinizer.importer.FileImporterBean<RawLineImporter> rawLineCsvFileImporterBean;
     private javax.swing.JPanel rawLineCsvImportPanel;
     private javax.swing.JCheckBox rawMultiColumnNameCheckBox;
@@ -20,14 +20,22 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.swing.AbstractButton;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JMenu;
 import javax.swing.JRadioButton;
+import org.harctoolbox.guicomponents.ConnectionPool;
 import org.harctoolbox.guicomponents.GuiUtils;
 import org.harctoolbox.guicomponents.HardwareBean;
 import org.harctoolbox.guicomponents.HardwareBean.CannotCaptureException;
@@ -44,21 +52,36 @@ import org.harctoolbox.ircore.ThisCannotHappenException;
 final class HardwareManager implements Iterable<String> {
     private static final int INITIAL_MAP_CAPACITY = 8;
     public static final String PROP_SELECTED_HARDWARE = "PROP_SELECTED_HARDWARE";
+    public static final String PROP_ADDITIONAL_TRANSMITTERS = "PROP_ADDITIONAL_TRANSMITTERS";
+    public static final String TRANSMITTER_SEPARATOR = "|";
+    private static final int DEFAULT_SENDING_TIMEOUT = 2000;
 
     private final GuiUtils guiUtils;
     private boolean verbose;
     private final Map<String, HardwareBean> map;
+    private final Map<HardwareBean, Object> sendLocks;
     private HardwareBean selected;
     private JMenu menu;
     private ButtonGroup buttonGroup;
     private final PropertyChangeSupport propertyChangeSupport;
+    private final Set<String> additionalTransmitters;
+    private int sendingTimeout;
+    private MultiTransmitter multiTransmitter;
+    private final List<MultiTransmitter.Result> transmitterFailures;
+    private TransmissionQueue transmissionQueue;
 
     HardwareManager(GuiUtils guiUtils) {
         this.guiUtils = guiUtils;
         this.propertyChangeSupport = new java.beans.PropertyChangeSupport(this);
         map = new LinkedHashMap<>(INITIAL_MAP_CAPACITY);
+        sendLocks = new ConcurrentHashMap<>(INITIAL_MAP_CAPACITY);
         menu = null;
         selected = null;
+        additionalTransmitters = new LinkedHashSet<>(INITIAL_MAP_CAPACITY);
+        sendingTimeout = DEFAULT_SENDING_TIMEOUT;
+        multiTransmitter = null;
+        transmitterFailures = new ArrayList<>(INITIAL_MAP_CAPACITY);
+        transmissionQueue = null;
     }
 
     void setVerbose(boolean verbose) {
@@ -71,6 +94,7 @@ final class HardwareManager implements Iterable<String> {
     public void add(HardwareBean hardwareBean) {
         String name = hardwareBean.getName();
         map.put(name, hardwareBean);
+        sendLocks.put(hardwareBean, new Object());
         hardwareBean.addPropertyChangeListener((PropertyChangeEvent evt) -> {
             propertyChangeSupport.firePropertyChange(evt);
         });
@@ -104,6 +128,17 @@ final class HardwareManager implements Iterable<String> {
         }).forEachOrdered((menuItem) -> {
             menu.add(menuItem);
         });
+        menu.addSeparator();
+        JMenu additionalMenu = new JMenu("Also Transmit With");
+        additionalMenu.setToolTipText("Hardware that transmits the signals too, in parallel with the selected hardware");
+        map.keySet().forEach((String name) -> {
+            JCheckBoxMenuItem menuItem = new JCheckBoxMenuItem(name, additionalTransmitters.contains(name));
+            menuItem.addActionListener((java.awt.event.ActionEvent evt) -> {
+                setAdditionalTransmitter(name, menuItem.isSelected());
+            });
+            additionalMenu.add(menuItem);
+        });
+        menu.add(additionalMenu);
         updateMenuSelection();
     }
 
@@ -144,6 +179,7 @@ final class HardwareManager implements Iterable<String> {
         if (hardwareBean != selected) {
             String old = selected != null ? selected.getName() : null;
             selected = hardwareBean;
+            resetMultiTransmitter();
             selected.setVerbose(verbose);
             updateMenuSelection();
             propertyChangeSupport.firePropertyChange(PROP_SELECTED_HARDWARE, old, hardwareBean.getName());
@@ -162,6 +198,102 @@ final class HardwareManager implements Iterable<String> {
             propertyChangeSupport.addPropertyChangeListener(listener);
     }
 
+    /**
+     * Sets the hardware that, in addition to the selected one, is to send the signals, in parallel.
+     * Unknown names are ignored.
+     * @param names
+     */
+    void setAdditionalTransmitters(Collection<String> names) {
+        String old = getAdditionalTransmitters();
+        synchronized (this) {
+            additionalTransmitters.clear();
+            names.stream().filter(map::containsKey).forEach(additionalTransmitters::add);
+            resetMultiTransmitter();
+        }
+        propertyChangeSupport.firePropertyChange(PROP_ADDITIONAL_TRANSMITTERS, old, getAdditionalTransmitters());
+    }
+
+    private void setAdditionalTransmitter(String name, boolean add) {
+        List<String> names = new ArrayList<>(additionalTransmitters);
+        names.remove(name);
+        if (add)
+            names.add(name);
+        setAdditionalTransmitters(names);
+    }
+
+    /**
+     * @return Names of the additional transmitters, separated by {@link #TRANSMITTER_SEPARATOR}.
+     */
+    synchronized String getAdditionalTransmitters() {
+        return String.join(TRANSMITTER_SEPARATOR, additionalTransmitters);
+    }
+
+    /**
+     * @return The hardware sending the signals: the selected one first, then the additional ones, if any.
+     */
+    private synchronized List<HardwareBean> transmitters() {
+        List<HardwareBean> transmitters = new ArrayList<>(additionalTransmitters.size() + 1);
+        transmitters.add(selected);
+        additionalTransmitters.stream().map(map::get).filter(bean -> bean != selected).forEach(transmitters::add);
+        return transmitters;
+    }
+
+    /**
+     * @param sendingTimeout Time in milliseconds, in addition to the duration of the signal, every transmitter is given to send it, when several.
+     */
+    synchronized void setSendingTimeout(int sendingTimeout) {
+        this.sendingTimeout = sendingTimeout;
+        resetMultiTransmitter();
+    }
+
+    private synchronized void resetMultiTransmitter() {
+        if (multiTransmitter != null)
+            multiTransmitter.close();
+        multiTransmitter = null;
+    }
+
+    private synchronized MultiTransmitter getMultiTransmitter(List<HardwareBean> transmitters) {
+        if (multiTransmitter == null) {
+            Map<String, TransmissionQueue.Transmitter> transmitterMap = new LinkedHashMap<>(transmitters.size());
+            transmitters.forEach(bean -> {
+                transmitterMap.put(bean.getName(), (IrSignal irSignal, int count) -> sendIr(bean, irSignal, count));
+            });
+            multiTransmitter = new MultiTransmitter(transmitterMap, sendingTimeout);
+        }
+        return multiTransmitter;
+    }
+
+    /**
+     * @return The statistics of the additional transmitters in use, or null if none.
+     */
+    synchronized String getMultiTransmitterStatistics() {
+        return multiTransmitter != null ? multiTransmitter.toString() : null;
+    }
+
+    /**
+     * Returns, and forgets, the failures of the transmitters since last called, when several are in use.
+     * @return Description of the failures, one line per transmitter, or null if none.
+     */
+    synchronized String takeTransmitterFailures() {
+        if (transmitterFailures.isEmpty())
+            return null;
+
+        Map<String, List<MultiTransmitter.Result>> failures = new LinkedHashMap<>(INITIAL_MAP_CAPACITY);
+        transmitterFailures.forEach(result -> {
+            failures.computeIfAbsent(result.getName(), name -> new ArrayList<>(4)).add(result);
+        });
+        transmitterFailures.clear();
+        StringBuilder str = new StringBuilder(128);
+        failures.values().forEach(results -> {
+            if (str.length() > 0)
+                str.append("\n");
+            str.append("Transmitting with ").append(results.get(results.size() - 1).toString());
+            if (results.size() > 1)
+                str.append(" (failed ").append(results.size()).append(" times)");
+        });
+        return str.toString();
+    }
+
     /**
      * This is a fallback if nothing is selected.
      */
@@ -177,6 +309,9 @@ final class HardwareManager implements Iterable<String> {
      * since the GUI is being torn down already.
      */
     public void close() {
+        if (transmissionQueue != null)
+            transmissionQueue.cancel();
+        resetMultiTransmitter();
         map.values().forEach(hardwareBean -> {
             try {
                 IHarcHardware hardware = hardwareBean.getHardware();
@@ -186,6 +321,7 @@ final class HardwareManager implements Iterable<String> {
                 guiUtils.error(ex);
             }
         });
+        ConnectionPool.getInstance().close();
         selected = null;
     }
 
@@ -194,9 +330,68 @@ final class HardwareManager implements Iterable<String> {
         return selected.capture();
     }
 
+    /**
+     * Sends the signal with the selected hardware, and, in parallel, with the additional transmitters, if any.
+     * A failing transmitter does not stop the others; its failure is collected for {@link #takeTransmitterFailures}.
+     * @param irSignal
+     * @param count
+     * @return success of operation, with all the transmitters.
+     * @throws HardwareUnavailableException
+     * @throws CannotSendException
+     * @throws HarcHardwareException if the selected hardware failed, or, when several, all of them failed.
+     * @throws NoSuchTransmitterException
+     * @throws IOException
+     * @throws InvalidArgumentException
+     */
     boolean sendIr(IrSignal irSignal,  int count) throws HardwareUnavailableException, CannotSendException, HarcHardwareException, NoSuchTransmitterException, IOException, InvalidArgumentException {
         assertHardwareValid();
-        return selected.sendIr(irSignal, count);
+        List<HardwareBean> transmitters = transmitters();
+        if (transmitters.size() == 1)
+            return sendIr(transmitters.get(0), irSignal, count);
+
+        MultiTransmitter multi = getMultiTransmitter(transmitters);
+        boolean success = multi.transmit(irSignal, count);
+        if (!success)
+            synchronized (this) {
+                multi.getLastResults().stream().filter(result -> !result.isSuccess()).forEach(transmitterFailures::add);
+            }
+        return success;
+    }
+
+    /**
+     * Sends with the hardware given, which is locked during the sending,
+     * so that signals from the transmission queue and from elsewhere are not mixed.
+     */
+    private boolean sendIr(HardwareBean bean, IrSignal irSignal, int count) throws HardwareUnavailableException, HarcHardwareException, IOException, InvalidArgumentException {
+        if (!bean.isOpen())
+            throw new HardwareUnavailableException("Hardware " + bean.getName() + " not open.");
+        synchronized (sendLocks.get(bean)) {
+            return bean.sendIr(irSignal, count);
+        }
+    }
+
+    /**
+     * Starts sending the commands, on a thread of its own, with the selected hardware.
+     * Signals sent by sendIr in the meantime are sent between the commands of the queue.
+     * @param items
+     * @param listener
+     * @return The queue, which can be paused and cancelled.
+     * @throws HardwareUnavailableException if the hardware is not ready, or a transmission is already in progress.
+     */
+    TransmissionQueue transmit(List<TransmissionQueue.Item> items, TransmissionQueue.Listener listener) throws HardwareUnavailableException {
+        assertHardwareValid();
+        if (transmissionQueue != null && transmissionQueue.isRunning())
+            throw new HardwareUnavailableException("A transmission is already in progress.");
+        transmissionQueue = new TransmissionQueue(items, this::sendIr, listener);
+        transmissionQueue.start();
+        return transmissionQueue;
+    }
+
+    /**
+     * @return The running, or last, transmission queue, or null if none.
+     */
+    TransmissionQueue getTransmissionQueue() {
+        return transmissionQueue;
     }
 
     @Override
@@ -219,6 +414,7 @@ final class HardwareManager implements Iterable<String> {
         HardwareBean removed = map.remove(name);
         if (removed == null)
             throw new ThisCannotHappenException("Name " + name + " not existing."); // programming error
+        sendLocks.remove(removed);
     }
 
     public HardwareBean getBean(String name) {
@@ -47,7 +47,7 @@ import org.harctoolbox.irscrutinizer.importer.RemoteLocatorImporter;
 import org.xml.sax.SAXException;
 
 /**
- * This class decodes command line parameters and fires up the GUI.
+ * This class decodes command line parameters and fires up the GUI, or, with --batch, converts files headlessly.
  */
 @SuppressWarnings("UseOfSystemOutOrSystemErr")
 public class IrScrutinizer {
@@ -156,6 +156,9 @@ public class IrScrutinizer {
 
         String applicationHome = Utils.findApplicationHome(commandLineArgs.applicationHome, IrScrutinizer.class, Version.appName);
         String propertiesFilename = getFilename(commandLineArgs.propertiesFilename);
+        if (commandLineArgs.batch)
+            doExit(batchExecute(applicationHome, propertiesFilename));
+
         guiExecute(applicationHome, propertiesFilename, commandLineArgs.verbose, commandLineArgs.arguments);
     }
 
@@ -201,6 +204,35 @@ public class IrScrutinizer {
         topLevelLogger.setLevel(commandLineArgs.logLevel);
     }
 
+    @SuppressWarnings("AccessingNonPublicFieldOfAnotherObject")
+    private static int batchExecute(String applicationHome, String propsfilename) {
+        System.setProperty("java.awt.headless", "true");
+        try {
+            Props properties = new Props(propsfilename, applicationHome);
+            BatchConverter batchConverter = new BatchConverter(properties, commandLineArgs.decode, commandLineArgs.analyze,
+                    commandLineArgs.verbose, System.out);
+            batchConverter.setSplit(commandLineArgs.split || commandLineArgs.zip, commandLineArgs.zip);
+            if (commandLineArgs.exportFormat != null && commandLineArgs.exportFormat.equals("?")) {
+                for (String name : batchConverter.getExportFormatNames())
+                    System.out.println(name);
+                return IrpUtils.EXIT_SUCCESS;
+            }
+            if (commandLineArgs.importFormat != null && commandLineArgs.importFormat.equals("?")) {
+                batchConverter.getImportFormatNames().forEach(System.out::println);
+                return IrpUtils.EXIT_SUCCESS;
+            }
+            if (commandLineArgs.arguments.isEmpty()) {
+                System.err.println("No files to convert.");
+                return IrpUtils.EXIT_USAGE_ERROR;
+            }
+            return batchConverter.convert(commandLineArgs.arguments, commandLineArgs.importFormat,
+                    commandLineArgs.exportFormat, commandLineArgs.outputDirectory, commandLineArgs.threads);
+        } catch (IOException | IrpParseException | SAXException | ParserConfigurationException | URISyntaxException ex) {
+            System.err.println(ex);
+            return IrpUtils.EXIT_CONFIG_READ_ERROR;
+        }
+    }
+
     private static void guiExecute(final String applicationHome, final String propsfilename,
             final boolean verbose, final List<String> arguments) {
         java.awt.EventQueue.invokeLater(() -> {
@@ -245,12 +277,30 @@ public class IrScrutinizer {
 
     private final static class CommandLineArgs {
 
+        @Parameter(names = {"-a", "--analyze"}, description = "In batch mode, invoke the analyzer (default from properties)")
+        private boolean analyze = false;
+
+        @Parameter(names = {"-b", "--batch"}, description = "Convert the files given as arguments, without starting the GUI")
+        private boolean batch = false;
+
+        @Parameter(names = {"-d", "--decode"}, description = "In batch mode, invoke the decoder (default from properties)")
+        private boolean decode = false;
+
+        @Parameter(names = {"-f", "--format", "--exportformat"}, description = "In batch mode, name of export format (default from properties), or \"?\" for a list")
+        private String exportFormat = null;
+
         @Parameter(names = {"-h", "--help", "-?"}, description = "Display help message")
         private boolean helpRequested = false;
 
         @Parameter(names = {"-H", "--home", "--applicationhome", "--apphome"}, description = "Set application home (where files are located)")
         private String applicationHome = null;
 
+        @Parameter(names = {"-i", "--importformat"}, description = "In batch mode, name of import format (default from file extension), or \"?\" for a list")
+        private String importFormat = null;
+
+        @Parameter(names = {"-j", "--threads"}, description = "In batch mode, number of files to import in parallel (default: number of processors)")
+        private int threads = 0;
+
         @Parameter(names = {"-l", "--loglevel"}, converter = LevelParser.class,
             description = "Log level { OFF, SEVERE, WARNING, INFO, CONFIG, FINE, FINER, FINEST, ALL }")
         public Level logLevel = Level.WARNING;
@@ -258,6 +308,9 @@ public class IrScrutinizer {
         @Parameter(names = {"--nuke-properties"}, description = "Get rid of present properties file")
         private boolean nukeProperties = false;
 
+        @Parameter(names = {"-o", "--outputdir"}, description = "In batch mode, directory for the generated files (default from properties)")
+        private String outputDirectory = null;
+
         @Parameter(names = {"-p", "--properties"}, description = "Pathname of properties file")
         private String propertiesFilename = null;
 
@@ -267,12 +320,18 @@ public class IrScrutinizer {
         @Parameter(names = {"-s", "--scale", "--scaling"}, description = "Set scaling of the GUI. Accepted values and their semantics depend on the JVM.")
         private String scaling = null;
 
+        @Parameter(names = {"--split"}, description = "In batch mode, export every remote to a file of its own")
+        private boolean split = false;
+
         @Parameter(names = {"-V", "--version"}, description = "Display version information")
         private boolean versionRequested;
 
         @Parameter(names = {"-v", "--verbose"}, description = "Have some commands executed verbosely")
         private boolean verbose;
 
+        @Parameter(names = {"-z", "--zip"}, description = "In batch mode, export every remote to a file of its own, collected in a zip file")
+        private boolean zip = false;
+
         @Parameter(description = "Arguments...")
         private List<String> arguments = new ArrayList<>(4);
     }
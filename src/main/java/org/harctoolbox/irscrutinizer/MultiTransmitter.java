@@ -0,0 +1,283 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.harctoolbox.harchardware.HarcHardwareException;
+import org.harctoolbox.ircore.InvalidArgumentException;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ThisCannotHappenException;
+
+/**
+ * Sends every signal with several transmitters in parallel, each on a thread of its own.
+ * A transmitter that fails, or does not finish within the timeout, does not affect the others;
+ * only if all of them fail, the transmission is considered as failed.
+ * Keeps statistics per transmitter, as well as of the total time, i.e., the time until the slowest transmitter finished.
+ */
+final class MultiTransmitter implements TransmissionQueue.Transmitter, AutoCloseable {
+
+    private static Result waitFor(Future<Result> future, long deadline, String name) throws InterruptedException {
+        try {
+            return future.get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            return new Result(name, false, new HarcHardwareException("Transmitter " + name + " timed out"), 0L);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new ThisCannotHappenException(cause);
+        }
+    }
+
+    private final List<Target> targets;
+    private final long timeout;
+    private List<Result> lastResults;
+    private int noTransmitted;
+    private long totalTime;
+    private long maxTime;
+
+    /**
+     * @param transmitters Transmitters to use, by name, in the order to be reported.
+     * @param timeout Time in milliseconds, in addition to the duration of the signal, a transmitter is given to send it.
+     */
+    MultiTransmitter(Map<String, TransmissionQueue.Transmitter> transmitters, long timeout) {
+        this.targets = new ArrayList<>(transmitters.size());
+        transmitters.forEach((String name, TransmissionQueue.Transmitter transmitter) -> {
+            targets.add(new Target(name, transmitter));
+        });
+        this.timeout = timeout;
+        this.lastResults = Collections.emptyList();
+        this.noTransmitted = 0;
+        this.totalTime = 0L;
+        this.maxTime = 0L;
+    }
+
+    /**
+     * Sends the signal with all the transmitters, and waits for them to finish.
+     * @param irSignal
+     * @param count
+     * @return true if all transmitters succeeded.
+     * @throws HarcHardwareException if all transmitters failed.
+     * @throws IOException if interrupted.
+     */
+    @Override
+    public boolean transmit(IrSignal irSignal, int count) throws HarcHardwareException, IOException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout) + TimeUnit.MICROSECONDS.toNanos((long) irSignal.getDuration(count));
+        List<Future<Result>> futures = new ArrayList<>(targets.size());
+        for (Target target : targets)
+            futures.add(target.executor.submit(() -> target.transmit(irSignal, count)));
+
+        List<Result> results = new ArrayList<>(targets.size());
+        try {
+            for (int i = 0; i < targets.size(); i++)
+                results.add(waitFor(futures.get(i), deadline, targets.get(i).name));
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        long time = System.nanoTime() - start;
+
+        int failures = 0;
+        synchronized (this) {
+            lastResults = Collections.unmodifiableList(results);
+            for (int i = 0; i < targets.size(); i++) {
+                targets.get(i).update(results.get(i));
+                if (!results.get(i).success)
+                    failures++;
+            }
+            noTransmitted++;
+            totalTime += time;
+            maxTime = Math.max(maxTime, time);
+        }
+        if (failures == targets.size())
+            throw new HarcHardwareException("All transmitters failed: " + failuresString(results));
+        return failures == 0;
+    }
+
+    private static String failuresString(List<Result> results) {
+        StringBuilder str = new StringBuilder(64);
+        results.stream().filter(result -> !result.success).forEach(result -> {
+            if (str.length() > 0)
+                str.append("; ");
+            str.append(result.toString());
+        });
+        return str.toString();
+    }
+
+    /**
+     * @return Names of the transmitters, in the order given.
+     */
+    List<String> getNames() {
+        List<String> names = new ArrayList<>(targets.size());
+        targets.forEach(target -> names.add(target.name));
+        return names;
+    }
+
+    /**
+     * @return The results of the last signal sent, one per transmitter, in the order given.
+     */
+    synchronized List<Result> getLastResults() {
+        return lastResults;
+    }
+
+    synchronized int getNoTransmitted() {
+        return noTransmitted;
+    }
+
+    /**
+     * @return Mean time in nanoseconds until all transmitters had finished.
+     */
+    synchronized long getMeanTime() {
+        return noTransmitted > 0 ? totalTime / noTransmitted : 0L;
+    }
+
+    /**
+     * @return Maximal time in nanoseconds until all transmitters had finished.
+     */
+    synchronized long getMaxTime() {
+        return maxTime;
+    }
+
+    @Override
+    public void close() {
+        targets.forEach(target -> target.executor.shutdownNow());
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder str = new StringBuilder(128);
+        str.append(String.format("Transmitted %d signal(s) with %d transmitters, total time: mean %.1f ms, max %.1f ms",
+                noTransmitted, targets.size(), getMeanTime() / 1000000.0, maxTime / 1000000.0));
+        targets.forEach(target -> str.append("\n    ").append(target.toString()));
+        return str.toString();
+    }
+
+    /**
+     * The outcome of sending one signal with one transmitter.
+     */
+    static final class Result {
+
+        private final String name;
+        private final boolean success;
+        private final Exception exception;
+        private final long latency;
+
+        private Result(String name, boolean success, Exception exception, long latency) {
+            this.name = name;
+            this.success = success;
+            this.exception = exception;
+            this.latency = latency;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return false if the transmitter returned false, or threw an exception.
+         */
+        boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * @return The exception thrown, or null.
+         */
+        Exception getException() {
+            return exception;
+        }
+
+        /**
+         * @return Wire latency in nanoseconds.
+         */
+        long getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + (success ? String.format("%.1f ms", latency / 1000000.0)
+                    : exception != null ? exception.getMessage() : "failed");
+        }
+    }
+
+    private static final class Target {
+
+        private final String name;
+        private final TransmissionQueue.Transmitter transmitter;
+        private final ExecutorService executor;
+        private int sent;
+        private int failures;
+        private long totalLatency;
+        private long maxLatency;
+
+        Target(String name, TransmissionQueue.Transmitter transmitter) {
+            this.name = name;
+            this.transmitter = transmitter;
+            this.executor = Executors.newSingleThreadExecutor((Runnable runnable) -> {
+                Thread thread = new Thread(runnable, "transmit-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.sent = 0;
+            this.failures = 0;
+            this.totalLatency = 0L;
+            this.maxLatency = 0L;
+        }
+
+        private Result transmit(IrSignal irSignal, int count) {
+            long start = System.nanoTime();
+            try {
+                boolean success = transmitter.transmit(irSignal, count);
+                return new Result(name, success, null, System.nanoTime() - start);
+            } catch (HardwareUnavailableException | HarcHardwareException | IOException | InvalidArgumentException | RuntimeException ex) {
+                return new Result(name, false, ex, System.nanoTime() - start);
+            }
+        }
+
+        private void update(Result result) {
+            if (result.success) {
+                sent++;
+                totalLatency += result.latency;
+                maxLatency = Math.max(maxLatency, result.latency);
+            } else
+                failures++;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d sent, %d failed, wire latency: mean %.1f ms, max %.1f ms",
+                    name, sent, failures, sent > 0 ? totalLatency / sent / 1000000.0 : 0.0, maxLatency / 1000000.0);
+        }
+    }
+}
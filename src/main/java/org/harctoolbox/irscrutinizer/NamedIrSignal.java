@@ -19,16 +19,19 @@ package org.harctoolbox.irscrutinizer;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableColumnModel;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumn;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.girr.GirrException;
@@ -44,15 +47,14 @@ import org.harctoolbox.irscrutinizer.exporter.NameUniquefier;
  */
 @SuppressWarnings({"PackageVisibleInnerClass", "serial", "UseOfSystemOutOrSystemErr"})
 abstract class NamedIrSignal {
-    private static int count = 0;
+    private static final AtomicInteger count = new AtomicInteger(0);
 
-    private static synchronized int incrementCount() {
-        count++;
-        return count;
+    private static int incrementCount() {
+        return count.incrementAndGet();
     }
 
-    protected static synchronized void decrementCount() {
-        count--;
+    protected static void decrementCount() {
+        count.decrementAndGet();
     }
 
     private final Date date;
@@ -225,17 +227,178 @@ abstract class NamedIrSignal {
         }
     }
 
-    public abstract static class LearnedIrSignalTableModel extends DefaultTableModel {
+    /**
+     * Storage of the rows of a {@link LearnedIrSignalTableModel}.
+     */
+    interface RowStorage {
+
+        int size();
+
+        Object get(int row, int column);
+
+        void set(int row, int column, Object value);
+
+        void add(NamedIrSignal signal);
+
+        void ensureCapacity(int capacity);
+
+        void remove(int row);
+
+        /**
+         * Rotates the rows from first to last (inclusive) by distance, as {@link Collections#rotate(List, int)}.
+         * @param first
+         * @param last
+         * @param distance
+         */
+        void rotate(int first, int last, int distance);
+
+        void truncate(int size);
+    }
+
+    /**
+     * Keeps every row as an array of its cells, as created by {@link AbstractColumnFunction#toObjectArray(NamedIrSignal)}.
+     */
+    private static final class ArrayRowStorage implements RowStorage {
+
         private final AbstractColumnFunction columnsFunc;
+        private final int columnCount;
+        private final ArrayList<Object[]> rows;
+
+        ArrayRowStorage(AbstractColumnFunction columnsFunc, int columnCount) {
+            this.columnsFunc = columnsFunc;
+            this.columnCount = columnCount;
+            this.rows = new ArrayList<>(64);
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+
+        @Override
+        public Object get(int row, int column) {
+            return rows.get(row)[column];
+        }
+
+        @Override
+        public void set(int row, int column, Object value) {
+            rows.get(row)[column] = value;
+        }
+
+        @Override
+        public void add(NamedIrSignal signal) {
+            rows.add(Arrays.copyOf(columnsFunc.toObjectArray(signal), columnCount));
+        }
+
+        @Override
+        public void ensureCapacity(int capacity) {
+            rows.ensureCapacity(capacity);
+        }
+
+        @Override
+        public void remove(int row) {
+            rows.remove(row);
+        }
+
+        @Override
+        public void rotate(int first, int last, int distance) {
+            Collections.rotate(rows.subList(first, last + 1), distance);
+        }
+
+        @Override
+        public void truncate(int size) {
+            rows.subList(size, rows.size()).clear();
+        }
+    }
+
+    /**
+     * Table model for signals. In contrast to DefaultTableModel,
+     * several rows can be added with one event, see {@link #addSignals(Collection)},
+     * and the storage of the rows can be chosen by the derived class.
+     */
+    public abstract static class LearnedIrSignalTableModel extends AbstractTableModel {
+        private final AbstractColumnFunction columnsFunc;
+        private final Object[] columnIdentifiers;
+        private final RowStorage storage;
         private boolean scrollRequest = false;
         @SuppressWarnings("PackageVisibleField")
         protected boolean unsavedChanges;
 
         protected LearnedIrSignalTableModel(AbstractColumnFunction columnFunc) {
-            //super(columnFunc.dummyArray(), columnFunc.headers());
-            super(columnFunc.headers(), 0);
+            this(columnFunc, null);
+        }
+
+        /**
+         * @param columnFunc
+         * @param storage Storage of the rows; if null, every row is kept as an array of its cells.
+         */
+        LearnedIrSignalTableModel(AbstractColumnFunction columnFunc, RowStorage storage) {
+            super();
             this.unsavedChanges = false;
             this.columnsFunc = columnFunc;
+            this.columnIdentifiers = columnFunc.headers();
+            this.storage = storage != null ? storage : new ArrayRowStorage(columnFunc, columnIdentifiers.length);
+        }
+
+        @Override
+        public int getRowCount() {
+            return storage.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnIdentifiers.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            Object identifier = columnIdentifiers[column];
+            return identifier != null ? identifier.toString() : super.getColumnName(column);
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return storage.get(row, column);
+        }
+
+        @Override
+        public void setValueAt(Object value, int row, int column) {
+            storage.set(row, column, value);
+            fireTableCellUpdated(row, column);
+        }
+
+        public void removeRow(int row) {
+            storage.remove(row);
+            fireTableRowsDeleted(row, row);
+        }
+
+        /**
+         * Moves the rows from start to end (inclusive) so that the first of them ends up at position to.
+         * Same semantic as {@link javax.swing.table.DefaultTableModel#moveRow(int, int, int)}.
+         * @param start
+         * @param end
+         * @param to
+         */
+        public void moveRow(int start, int end, int to) {
+            int shift = to - start;
+            int first = shift < 0 ? to : start;
+            int last = shift < 0 ? end : to + end - start;
+            storage.rotate(first, last, shift);
+            fireTableRowsUpdated(first, last);
+        }
+
+        /**
+         * Removes the rows from rowCount on. Since a row is made from a signal, the table cannot be extended this way.
+         * @param rowCount
+         */
+        public void setRowCount(int rowCount) {
+            int old = storage.size();
+            if (rowCount > old)
+                throw new IllegalArgumentException("Table cannot be extended with empty rows");
+            if (rowCount == old)
+                return;
+            storage.truncate(rowCount);
+            fireTableRowsDeleted(rowCount, old - 1);
         }
 
         public abstract String getType();
@@ -313,7 +476,7 @@ abstract class NamedIrSignal {
                 return false;
 
             try {
-                IrSignal irSignal = command.toIrSignal();
+                IrSignal irSignal = DecoderLock.toIrSignal(command);
                 return irSignal != null;
             } catch (IrpException | IrCoreException ex) {
                 System.err.println(ex.getMessage());
@@ -452,7 +615,25 @@ abstract class NamedIrSignal {
         // Derived classes should define a public version of the function, taking only
         // an instance of the derived class as argument.
         protected synchronized void addSignal(NamedIrSignal cir) {
-            addRow(columnsFunc.toObjectArray(cir));
+            storage.add(cir);
+            fireTableRowsInserted(storage.size() - 1, storage.size() - 1);
+            scrollRequest = true;
+            unsavedChanges = true;
+        }
+
+        /**
+         * Appends the signals to the table, firing one event for all of them.
+         * @param signals
+         */
+        protected synchronized void addSignals(Collection<? extends NamedIrSignal> signals) {
+            if (signals.isEmpty())
+                return;
+            int first = storage.size();
+            storage.ensureCapacity(first + signals.size());
+            signals.forEach((signal) -> {
+                storage.add(signal);
+            });
+            fireTableRowsInserted(first, storage.size() - 1);
             scrollRequest = true;
             unsavedChanges = true;
         }
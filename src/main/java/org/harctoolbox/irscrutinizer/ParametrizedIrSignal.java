@@ -38,6 +38,7 @@ import org.harctoolbox.irp.IrpException;
 class ParametrizedIrSignal extends NamedIrSignal {
     private static Decoder decoder = null;
     private static Decoder.DecoderParameters decoderParameters = null;
+    private static DecodeCache decodeCache = new DecodeCache(0);
 
     /**
      *
@@ -51,6 +52,13 @@ class ParametrizedIrSignal extends NamedIrSignal {
         decoderParameters = params;
     }
 
+    /**
+     * @param cache the decodeCache to set; must not be null. (Use a cache with capacity 0 for no caching.)
+     */
+    public static void setDecodeCache(DecodeCache cache) {
+        decodeCache = cache;
+    }
+
     private static String formatMiscParams(Map<String, Long> params) {
         if (params == null)
             return "";
@@ -71,8 +79,11 @@ class ParametrizedIrSignal extends NamedIrSignal {
 
     ParametrizedIrSignal(Command command) throws IrpException, IrCoreException {
         super(command.getName(), command.getComment());
-        this.protocolName = command.getProtocolName();
-        Map<String, Long> commandParams = command.getParameters();
+        Map<String, Long> commandParams;
+        synchronized (DecoderLock.getLock()) { // a command without parameters is decoded
+            this.protocolName = command.getProtocolName();
+            commandParams = command.getParameters();
+        }
         this.parameters = commandParams != null ? new HashMap<>(commandParams) : new HashMap<>(3);
     }
 
@@ -112,11 +123,21 @@ class ParametrizedIrSignal extends NamedIrSignal {
     }
 
     ParametrizedIrSignal(IrSignal irSignal, String name, String comment, boolean ignoreT) throws NoDecodeException {
-        this(decoder.decodeIrSignal(irSignal, decoderParameters), name, comment, ignoreT);
+        this(decodeCache.get(DecodeCache.Kind.decodeIrSignal, irSignal, DecodeCache.parametersKey(decoderParameters),
+                () -> {
+                    synchronized (DecoderLock.getLock()) {
+                        return decoder.decodeIrSignal(irSignal, decoderParameters);
+                    }
+                }), name, comment, ignoreT);
     }
 
     ParametrizedIrSignal(ModulatedIrSequence irSequence, String name, String comment, boolean ignoreT) throws NoDecodeException {
-        this(new Decoder.SimpleDecodesSet(decoder.decode(irSequence, decoderParameters)), name, comment, ignoreT);
+        this(decodeCache.get(DecodeCache.Kind.decodeSequence, irSequence, DecodeCache.parametersKey(decoderParameters),
+                () -> {
+                    synchronized (DecoderLock.getLock()) {
+                        return new Decoder.SimpleDecodesSet(decoder.decode(irSequence, decoderParameters));
+                    }
+                }), name, comment, ignoreT);
     }
 
     ParametrizedIrSignal(Decoder.SimpleDecodesSet decodes, String name, String comment, boolean ignoreT) throws NoDecodeException {
@@ -127,7 +148,7 @@ class ParametrizedIrSignal extends NamedIrSignal {
         }
         Decoder.Decode decode = decodes.first();
         protocolName = decode.getName();
-        parameters = decode.getMap();
+        parameters = new HashMap<>(decode.getMap()); // decodes may be shared through the DecodeCache, so do not modify
         if (ignoreT && parameters.containsKey("T"))
             parameters.remove("T");
     }
@@ -17,9 +17,26 @@ this program. If not, see http://www.gnu.org/licenses/.
 
 package org.harctoolbox.irscrutinizer;
 
+import java.awt.event.ActionEvent;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import org.harctoolbox.analyze.Analyzer;
 import org.harctoolbox.analyze.NoDecoderMatchException;
 import org.harctoolbox.girr.Command;
@@ -44,6 +61,11 @@ import org.harctoolbox.irscrutinizer.exporter.NameUniquefier;
 @SuppressWarnings({"UseOfSystemOutOrSystemErr", "PackageVisibleInnerClass"})
 class RawIrSignal extends NamedIrSignal {
 
+    /**
+     * Shown in the Decode and Analyze columns while the analysis has not yet finished.
+     */
+    static final String PENDING = "(pending)";
+
     private static Decoder decoder = null;
 
     // Preferences
@@ -51,6 +73,7 @@ class RawIrSignal extends NamedIrSignal {
     private static boolean invokeDecoder = true;
     private static boolean invokeAnalyzer = true;
     private static Decoder.DecoderParameters decoderParameters = null;
+    private static DecodeCache decodeCache = new DecodeCache(0);
 
     // These are parameters for the analyzer. TODO: Should probably be more dynamic.
     private static int analyzerRadix = 16;
@@ -73,6 +96,13 @@ class RawIrSignal extends NamedIrSignal {
         decoderParameters = params;
     }
 
+    /**
+     * @param cache the decodeCache to set; must not be null. (Use a cache with capacity 0 for no caching.)
+     */
+    public static void setDecodeCache(DecodeCache cache) {
+        decodeCache = cache;
+    }
+
     /**
      * @param aInvokeDecoder the invokeDecoder to set
      */
@@ -137,9 +167,20 @@ class RawIrSignal extends NamedIrSignal {
     }
 
     private IrSignal irSignal = null;
-    private String analyzerString = null;
-    private Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes = null; // null: no decoding attempted; isEmpty: tried decoding, but no decode found
+    private ModulatedIrSequence irSequence = null; // if non-null, decode this instead of irSignal
+    private int generation = 0; // incremented every time the signal is changed, guarded by this
+    private volatile boolean analysisPending = false;
+    private volatile String analyzerString = null;
+    private volatile Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes = null; // null: no decoding attempted; isEmpty: tried decoding, but no decode found
 
+    /**
+     * Note that decoding and analyzing are not performed by the constructors;
+     * this is done by {@link #analyze()}, normally invoked from a background thread,
+     * see {@link RawTableModel}.
+     * @param irSignal
+     * @param name
+     * @param comment
+     */
     RawIrSignal(IrSignal irSignal, String name, String comment) {
         super(name, comment);
         setIrSignal(irSignal);
@@ -147,6 +188,12 @@ class RawIrSignal extends NamedIrSignal {
 
     RawIrSignal(RawIrSignal old) {
         this(old.getIrSignal(), old.getName(), old.getComment());
+        if (!old.isAnalysisPending()) {
+            // Same signal, so no need to run decoder and analyzer again.
+            decodes = old.decodes;
+            analyzerString = old.analyzerString;
+            analysisPending = false;
+        }
     }
 
     RawIrSignal(ModulatedIrSequence irSequence, String name, String comment) {
@@ -155,35 +202,100 @@ class RawIrSignal extends NamedIrSignal {
     }
 
     RawIrSignal(Command command) throws IrpException, IrCoreException {
-        this(command.toIrSignal(), command.getName(), command.getComment());
+        this(DecoderLock.toIrSignal(command), command.getName(), command.getComment());
     }
 
     RawIrSignal() {
         this(new IrSignal(), "", "");
     }
 
-    private void setIrSignal(IrSignal irSignal, Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes) {
+    private synchronized void setIrSignal(IrSignal irSignal, ModulatedIrSequence irSequence) {
         this.irSignal = irSignal;
-        this.decodes = decodes;
-        if (irSignal != null && invokeAnalyzer) {
-            try {
-                Analyzer analyzer = new Analyzer(irSignal, absoluteTolerance, relativeTolerance);
-                Analyzer.AnalyzerParams analyzerParams = new Analyzer.AnalyzerParams(irSignal.getFrequency(), timeBaseString, bitDirection, useExtents, parameterWidths, invert);
-                List<Protocol> list = analyzer.searchBestProtocol(analyzerParams);
-                if (!list.isEmpty() && list.get(0) != null)
-                    analyzerString = list.get(0).toIrpString(analyzerRadix);
-            } catch (NoDecoderMatchException | InvalidArgumentException ex) {
-                analyzerString = null;
-            }
-        }
+        this.irSequence = irSequence;
+        generation++;
+        decodes = null;
+        analyzerString = null;
+        analysisPending = irSignal != null && (invokeDecoder || invokeAnalyzer);
     }
 
     private void setIrSignal(IrSignal irSignal) {
-        setIrSignal(irSignal, irSignal != null && invokeDecoder ? decoder.decodeIrSignalWithFallback(irSignal, decoderParameters) : null);
+        setIrSignal(irSignal, null);
     }
 
     private void setIrSignal(ModulatedIrSequence irSequence) {
-        setIrSignal(new IrSignal(irSequence), invokeDecoder ?  new Decoder.SimpleDecodesSet(decoder.decode(irSequence, decoderParameters)) : null);
+        setIrSignal(new IrSignal(irSequence), irSequence);
+    }
+
+    /**
+     * Runs the decoder and the analyzer on the current signal, if not already done.
+     * Can be called from any thread. If the signal is changed while the analysis is running,
+     * the result is discarded, and false is returned.
+     * @return true if the analysis was performed and stored.
+     */
+    boolean analyze() {
+        IrSignal signal;
+        ModulatedIrSequence sequence;
+        int gen;
+        synchronized (this) {
+            if (!analysisPending)
+                return false;
+            signal = irSignal;
+            sequence = irSequence;
+            gen = generation;
+        }
+
+        Decoder.AbstractDecodesCollection<? extends ElementaryDecode> newDecodes = null;
+        if (invokeDecoder) {
+            String paramsKey = DecodeCache.parametersKey(decoderParameters);
+            newDecodes = sequence != null
+                    ? decodeCache.get(DecodeCache.Kind.decodeSequence, sequence, paramsKey, () -> {
+                        synchronized (DecoderLock.getLock()) {
+                            return new Decoder.SimpleDecodesSet(decoder.decode(sequence, decoderParameters));
+                        }
+                    })
+                    : decodeCache.get(DecodeCache.Kind.decodeIrSignalWithFallback, signal, paramsKey, () -> {
+                        synchronized (DecoderLock.getLock()) {
+                            return decoder.decodeIrSignalWithFallback(signal, decoderParameters);
+                        }
+                    });
+        }
+
+        String newAnalyzerString = invokeAnalyzer
+                ? decodeCache.get(DecodeCache.Kind.analyze, signal, analyzerParametersKey(), () -> analyze(signal))
+                : null;
+
+        synchronized (this) {
+            if (gen != generation)
+                return false;
+            decodes = newDecodes;
+            analyzerString = newAnalyzerString;
+            analysisPending = false;
+            return true;
+        }
+    }
+
+    private static String analyze(IrSignal signal) {
+        try {
+            Analyzer analyzer = new Analyzer(signal, absoluteTolerance, relativeTolerance);
+            Analyzer.AnalyzerParams analyzerParams = new Analyzer.AnalyzerParams(signal.getFrequency(), timeBaseString, bitDirection, useExtents, parameterWidths, invert);
+            List<Protocol> list = analyzer.searchBestProtocol(analyzerParams);
+            if (!list.isEmpty() && list.get(0) != null)
+                return list.get(0).toIrpString(analyzerRadix);
+        } catch (NoDecoderMatchException | InvalidArgumentException ex) {
+        }
+        return null;
+    }
+
+    private static String analyzerParametersKey() {
+        return analyzerRadix + "," + absoluteTolerance + "," + relativeTolerance + "," + timeBaseString + ","
+                + bitDirection + "," + useExtents + "," + parameterWidths + "," + invert;
+    }
+
+    /**
+     * @return true if the signal has been changed, but not yet decoded and analyzed.
+     */
+    boolean isAnalysisPending() {
+        return analysisPending;
     }
 
     public Command toCommand() {
@@ -195,6 +307,9 @@ class RawIrSignal extends NamedIrSignal {
     }
 
     public String getDecodeString() {
+        if (analysisPending)
+            return PENDING;
+        Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes = this.decodes;
         if (decodes == null)
             return "";
 
@@ -210,7 +325,7 @@ class RawIrSignal extends NamedIrSignal {
     }
 
     public String getAnalyzerString() {
-        return analyzerString;
+        return analysisPending ? PENDING : analyzerString;
     }
 
     public void setFrequency(double newFrequency) {
@@ -359,15 +474,291 @@ class RawIrSignal extends NamedIrSignal {
         }
     }
 
+    /**
+     * Keeps only the signals; the cells are created from them when asked for.
+     * The formatted sequences of the most recently asked for rows, normally the visible ones, are cached.
+     */
+    private static final class SignalRowStorage implements NamedIrSignal.RowStorage {
+
+        private static final int CACHE_CAPACITY = 256;
+
+        private static String format(IrSequence irSequence) {
+            return irSequence.toString(true, ",");
+        }
+
+        private final ArrayList<RawIrSignal> signals;
+        private final Map<RawIrSignal, FormattedSignal> cache;
+
+        SignalRowStorage() {
+            signals = new ArrayList<>(64);
+            cache = new LinkedHashMap<RawIrSignal, FormattedSignal>(CACHE_CAPACITY, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<RawIrSignal, FormattedSignal> eldest) {
+                    return size() > CACHE_CAPACITY;
+                }
+            };
+        }
+
+        RawIrSignal getSignal(int row) {
+            return signals.get(row);
+        }
+
+        private FormattedSignal formatted(RawIrSignal signal) {
+            FormattedSignal formatted = cache.get(signal);
+            if (formatted == null || formatted.irSignal != signal.getIrSignal()) {
+                formatted = new FormattedSignal(signal);
+                cache.put(signal, formatted);
+            }
+            return formatted;
+        }
+
+        @Override
+        public int size() {
+            return signals.size();
+        }
+
+        @Override
+        public Object get(int row, int column) {
+            RawIrSignal signal = signals.get(row);
+            IrSignal irSignal = signal.getIrSignal();
+            switch (column) {
+                case CapturedIrSignalColumns.posNumber:
+                    return signal.getNumeral();
+                case CapturedIrSignalColumns.posDate:
+                    return formatted(signal).date;
+                case CapturedIrSignalColumns.posIntro:
+                    return formatted(signal).intro;
+                case CapturedIrSignalColumns.posRepetition:
+                    return formatted(signal).repeat;
+                case CapturedIrSignalColumns.posEnding:
+                    return formatted(signal).ending;
+                case CapturedIrSignalColumns.posName:
+                    return signal.getName();
+                case CapturedIrSignalColumns.posDecode:
+                    return signal.getDecodeString();
+                case CapturedIrSignalColumns.posAnalyze:
+                    return signal.getAnalyzerString();
+                case CapturedIrSignalColumns.posComment:
+                    return signal.getComment();
+                case CapturedIrSignalColumns.posFrequency:
+                    return irSignal != null ? Math.round(irSignal.getFrequency()) : null;
+                default:
+                    return column == CapturedIrSignalColumns.posCapturedIrSignal ? signal : null;
+            }
+        }
+
+        @Override
+        public void set(int row, int column, Object value) {
+            RawIrSignal signal = signals.get(row);
+            try {
+                switch (column) {
+                    case CapturedIrSignalColumns.posIntro:
+                        signal.setIntroSequence((String) value);
+                        break;
+                    case CapturedIrSignalColumns.posRepetition:
+                        signal.setRepeatSequence((String) value);
+                        break;
+                    case CapturedIrSignalColumns.posEnding:
+                        signal.setEndingSequence((String) value);
+                        break;
+                    case CapturedIrSignalColumns.posName:
+                        signal.setName((String) value);
+                        break;
+                    case CapturedIrSignalColumns.posComment:
+                        signal.setComment((String) value);
+                        break;
+                    case CapturedIrSignalColumns.posFrequency:
+                        signal.setFrequency((Integer) value);
+                        break;
+                    default:
+                        break; // derived from the signal
+                }
+            } catch (NumberFormatException ex) {
+                System.err.println(ex.getMessage()); // FIXME; (good for now)
+            }
+        }
+
+        @Override
+        public void add(NamedIrSignal signal) {
+            signals.add((RawIrSignal) signal);
+        }
+
+        @Override
+        public void ensureCapacity(int capacity) {
+            signals.ensureCapacity(capacity);
+        }
+
+        @Override
+        public void remove(int row) {
+            cache.remove(signals.remove(row));
+        }
+
+        @Override
+        public void rotate(int first, int last, int distance) {
+            Collections.rotate(signals.subList(first, last + 1), distance);
+        }
+
+        @Override
+        public void truncate(int size) {
+            List<RawIrSignal> removed = signals.subList(size, signals.size());
+            if (size == 0)
+                cache.clear();
+            else
+                removed.forEach(cache::remove);
+            removed.clear();
+        }
+    }
+
+    /**
+     * The cells of a signal that are expensive to create.
+     */
+    private static final class FormattedSignal {
+
+        private final IrSignal irSignal;
+        private final String date;
+        private final String intro;
+        private final String repeat;
+        private final String ending;
+
+        FormattedSignal(RawIrSignal signal) {
+            irSignal = signal.getIrSignal();
+            date = signal.getDate();
+            intro = irSignal != null ? SignalRowStorage.format(irSignal.getIntroSequence()) : "";
+            repeat = irSignal != null ? SignalRowStorage.format(irSignal.getRepeatSequence()) : "";
+            ending = irSignal != null ? SignalRowStorage.format(irSignal.getEndingSequence()) : "";
+        }
+    }
+
     public static class RawTableColumnModel extends NamedIrSignal.LearnedIrSignalTableColumnModel {
         public RawTableColumnModel() {
             super(new CapturedIrSignalColumns());
         }
     }
 
+    /**
+     * Table model for the raw signals. Decoding and analyzing of the signals
+     * is performed by a bounded pool of background threads; the rows are inserted immediately,
+     * and the Decode and Analyze cells are filled in as the results become available.
+     * The analyses run in parallel, the decodings one at a time, under the {@link DecoderLock}.
+     */
     public static class RawTableModel extends NamedIrSignal.LearnedIrSignalTableModel {
+
+        /**
+         * Delay in milliseconds for collecting finished analyses before updating the table.
+         */
+        private static final int FLUSH_DELAY = 100;
+
+        private static ExecutorService newAnalysisExecutor() {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), (Runnable runnable) -> {
+                Thread thread = new Thread(runnable, "RawIrSignal analyzer");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+
+        private final ExecutorService analysisExecutor;
+        private final Map<RawIrSignal, Future<?>> analysisTasks;
+        private final Queue<RawIrSignal> analyzedSignals;
+        private final AtomicBoolean flushScheduled;
+        private final Timer flushTimer;
+
         public RawTableModel() {
-            super(new CapturedIrSignalColumns());
+            super(new CapturedIrSignalColumns(), new SignalRowStorage());
+            analysisExecutor = newAnalysisExecutor();
+            analysisTasks = new ConcurrentHashMap<>(64);
+            analyzedSignals = new ConcurrentLinkedQueue<>();
+            flushScheduled = new AtomicBoolean(false);
+            flushTimer = new Timer(FLUSH_DELAY, (ActionEvent e) -> {
+                flushAnalyzedSignals();
+            });
+            flushTimer.setRepeats(false);
+        }
+
+        @Override
+        protected synchronized void addSignal(NamedIrSignal signal) {
+            super.addSignal(signal);
+            scheduleAnalysis((RawIrSignal) signal);
+        }
+
+        @Override
+        protected synchronized void addSignals(Collection<? extends NamedIrSignal> signals) {
+            super.addSignals(signals);
+            signals.forEach((signal) -> {
+                scheduleAnalysis((RawIrSignal) signal);
+            });
+        }
+
+        @Override
+        public void removeRow(int row) {
+            cancelAnalysis(getCapturedIrSignal(row));
+            super.removeRow(row);
+        }
+
+        @Override
+        public void setRowCount(int rowCount) {
+            for (int row = rowCount; row < getRowCount(); row++)
+                cancelAnalysis(getCapturedIrSignal(row));
+            super.setRowCount(rowCount);
+        }
+
+        private void scheduleAnalysis(RawIrSignal signal) {
+            if (!signal.isAnalysisPending())
+                return;
+
+            // Registered before it is run, and unregistered by itself when done, also if cancelled.
+            FutureTask<Void> task = new FutureTask<Void>(() -> {
+                if (signal.analyze()) {
+                    analyzedSignals.add(signal);
+                    scheduleFlush();
+                }
+            }, null) {
+                @Override
+                protected void done() {
+                    analysisTasks.remove(signal, this);
+                }
+            };
+            Future<?> old = analysisTasks.put(signal, task);
+            if (old != null)
+                old.cancel(false);
+            analysisExecutor.execute(task);
+        }
+
+        private void cancelAnalysis(RawIrSignal signal) {
+            if (signal == null)
+                return;
+            Future<?> future = analysisTasks.remove(signal);
+            if (future != null)
+                future.cancel(false);
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled.compareAndSet(false, true))
+                SwingUtilities.invokeLater(flushTimer::start);
+        }
+
+        /**
+         * Fires one update event for the rows of the finished analyses, which are thereby shown. Runs on the EDT.
+         */
+        private void flushAnalyzedSignals() {
+            flushScheduled.set(false);
+            Set<RawIrSignal> signals = Collections.newSetFromMap(new IdentityHashMap<>(64));
+            for (RawIrSignal signal = analyzedSignals.poll(); signal != null; signal = analyzedSignals.poll())
+                signals.add(signal);
+
+            int firstRow = Integer.MAX_VALUE;
+            int lastRow = -1;
+            for (int row = 0; row < getRowCount() && !signals.isEmpty(); row++) {
+                RawIrSignal signal = getCapturedIrSignal(row);
+                if (!signals.remove(signal))
+                    continue;
+
+                firstRow = Math.min(firstRow, row);
+                lastRow = row;
+            }
+
+            if (lastRow >= 0)
+                fireTableRowsUpdated(firstRow, lastRow);
         }
 
         public RawIrSignal getCapturedIrSignal(int row) {
@@ -393,36 +784,17 @@ class RawIrSignal extends NamedIrSignal {
             addSignal(raw);
         }
 
+        /**
+         * Stores the edit in the signal. If thereby the signal has changed,
+         * its Decode and Analyze cells become pending, and its analysis is scheduled.
+         */
         @Override
-        public void fireTableCellUpdated(int row, int column) {
-            try {
-                RawIrSignal rawIrSignal = getCapturedIrSignal(row);
-                switch (column) {
-                    case CapturedIrSignalColumns.posIntro:
-                        rawIrSignal.setIntroSequence((String) getValueAt(row, column));
-                        break;
-                    case CapturedIrSignalColumns.posRepetition:
-                        rawIrSignal.setRepeatSequence((String) getValueAt(row, column));
-                        break;
-                    case CapturedIrSignalColumns.posEnding:
-                        rawIrSignal.setEndingSequence((String) getValueAt(row, column));
-                        break;
-                    case CapturedIrSignalColumns.posName:
-                        rawIrSignal.setName((String) getValueAt(row, column));
-                        break;
-                    case CapturedIrSignalColumns.posComment:
-                        rawIrSignal.setComment((String) getValueAt(row, column));
-                        break;
-                    case CapturedIrSignalColumns.posFrequency:
-                        rawIrSignal.setFrequency((Integer)getValueAt(row, column));
-                        break;
-                    default:
-                        return; // !!
-                }
-                setValueAt(rawIrSignal.getDecodeString(), row, CapturedIrSignalColumns.posDecode);
-                setValueAt(rawIrSignal.getAnalyzerString(), row, CapturedIrSignalColumns.posAnalyze);
-            } catch (NumberFormatException ex) {
-                System.err.println(ex.getMessage()); // FIXME; (good for now)
+        public void setValueAt(Object value, int row, int column) {
+            super.setValueAt(value, row, column);
+            RawIrSignal signal = getCapturedIrSignal(row);
+            if (signal.isAnalysisPending()) {
+                fireTableRowsUpdated(row, row);
+                scheduleAnalysis(signal);
             }
         }
 
@@ -442,7 +814,7 @@ class RawIrSignal extends NamedIrSignal {
 
             for (Integer row : rows) {
                 Command command = toCommand(row);
-                IrSignal irSignal = command.toIrSignal();
+                IrSignal irSignal = DecoderLock.toIrSignal(command);
                 ModulatedIrSequence irSequence = irSignal.toModulatedIrSequence();
                 Double frequency = irSignal.getFrequency();
                 String stem = command.getName();
@@ -32,7 +32,6 @@ import javax.swing.InputMap;
 import javax.swing.JComponent;
 import javax.swing.JTable;
 import javax.swing.KeyStroke;
-import javax.swing.table.DefaultTableModel;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.girr.GirrException;
 import org.harctoolbox.guicomponents.ErroneousSelectionException;
@@ -138,7 +137,7 @@ public class TableUtils {
             guiUtils.error("No signal selected");
             return;
         }
-        DefaultTableModel tableModel = (DefaultTableModel) table.getModel();
+        NamedIrSignal.LearnedIrSignalTableModel tableModel = (NamedIrSignal.LearnedIrSignalTableModel) table.getModel();
         if (up) {
             if (row == 0) {
                 guiUtils.error("Cannot move up");
@@ -170,7 +169,7 @@ public class TableUtils {
 
         Arrays.sort(rows);
 
-        DefaultTableModel tableModel = (DefaultTableModel) table.getModel();
+        NamedIrSignal.LearnedIrSignalTableModel tableModel = (NamedIrSignal.LearnedIrSignalTableModel) table.getModel();
 
         for (int i = rows.length - 1; i >= 0; i--)
             tableModel.removeRow(rows[i]);
@@ -246,7 +245,7 @@ public class TableUtils {
 
     void clearTableConfirm(JTable table) {
         if (guiUtils.confirm("Delete it all?")) {
-            ((DefaultTableModel) table.getModel()).setRowCount(0);
+            ((NamedIrSignal.LearnedIrSignalTableModel) table.getModel()).setRowCount(0);
             ((NamedIrSignal.LearnedIrSignalTableModel) table.getModel()).clearUnsavedChanges();
         }
     }
@@ -0,0 +1,254 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.harchardware.HarcHardwareException;
+import org.harctoolbox.ircore.InvalidArgumentException;
+import org.harctoolbox.ircore.IrCoreException;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.irp.IrpException;
+
+/**
+ * Sends a list of commands, each with its own repeat count and delay after it, on a thread of its own.
+ * Every signal is rendered on that thread, under the {@link DecoderLock}, during the delay after the previous one,
+ * so that the rendering normally does not add to the time between the signals.
+ * The transmission can be paused, resumed, and cancelled. The listener is informed of every signal sent,
+ * together with its wire latency, i.e., the time the transmitter took to send it.
+ * The transmission stops at the first error.
+ */
+final class TransmissionQueue {
+
+    private final List<Item> items;
+    private final Transmitter transmitter;
+    private final Listener listener;
+    private final Thread thread;
+    private boolean paused;
+    private boolean cancelled;
+    private volatile int noTransmitted;
+    private volatile long totalLatency;
+    private volatile long maxLatency;
+
+    /**
+     * @param items Commands to send, in order.
+     * @param transmitter Used to send the signals.
+     * @param listener Informed about the progress; may be null. See {@link Listener} for the thread it is called on.
+     */
+    TransmissionQueue(List<Item> items, Transmitter transmitter, Listener listener) {
+        this.items = new ArrayList<>(items);
+        this.transmitter = transmitter;
+        this.listener = listener;
+        this.thread = new Thread(this::run, "transmission");
+        this.thread.setDaemon(true);
+        this.paused = false;
+        this.cancelled = false;
+        this.noTransmitted = 0;
+        this.totalLatency = 0L;
+        this.maxLatency = 0L;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Waits for the transmission to finish.
+     * @throws InterruptedException
+     */
+    void join() throws InterruptedException {
+        thread.join();
+    }
+
+    boolean isRunning() {
+        return thread.isAlive();
+    }
+
+    /**
+     * Holds the transmission after the signal presently being sent.
+     */
+    synchronized void pause() {
+        paused = true;
+    }
+
+    synchronized void resume() {
+        paused = false;
+        notifyAll();
+    }
+
+    synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Stops the transmission after the signal presently being sent, if any.
+     */
+    synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    int getNoTransmitted() {
+        return noTransmitted;
+    }
+
+    /**
+     * @return Mean wire latency in nanoseconds of the signals sent so far.
+     */
+    long getMeanLatency() {
+        return noTransmitted > 0 ? totalLatency / noTransmitted : 0L;
+    }
+
+    /**
+     * @return Maximal wire latency in nanoseconds of the signals sent so far.
+     */
+    long getMaxLatency() {
+        return maxLatency;
+    }
+
+    private void run() {
+        int index = 0;
+        try {
+            long deadline = System.nanoTime();
+            for (; index < items.size(); index++) {
+                Item item = items.get(index);
+                IrSignal irSignal = DecoderLock.toIrSignal(item.command);
+                if (!await(deadline))
+                    break;
+
+                long start = System.nanoTime();
+                boolean success = transmitter.transmit(irSignal, item.count);
+                long latency = System.nanoTime() - start;
+                totalLatency += latency;
+                maxLatency = Math.max(maxLatency, latency);
+                noTransmitted++;
+                if (listener != null)
+                    listener.transmitted(index, item, success, latency);
+
+                deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(item.delay);
+            }
+        } catch (IrpException | IrCoreException | HardwareUnavailableException | HarcHardwareException | IOException | RuntimeException ex) {
+            if (listener != null)
+                listener.failed(index, items.get(index), ex);
+        } catch (InterruptedException ex) {
+            cancel();
+        } finally {
+            if (listener != null)
+                listener.finished(this);
+        }
+    }
+
+    /**
+     * Waits until the deadline, and as long as paused.
+     * @param deadline In terms of System.nanoTime().
+     * @return false if cancelled.
+     * @throws InterruptedException
+     */
+    private synchronized boolean await(long deadline) throws InterruptedException {
+        while (!cancelled) {
+            long left = deadline - System.nanoTime();
+            if (paused)
+                wait();
+            else if (left > 0L)
+                TimeUnit.NANOSECONDS.timedWait(this, left);
+            else
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Transmitted " + noTransmitted + " of " + items.size() + " signal(s)"
+                + (isCancelled() ? " (cancelled)" : "")
+                + String.format(", wire latency: mean %.1f ms, max %.1f ms", getMeanLatency() / 1000000.0, getMaxLatency() / 1000000.0);
+    }
+
+    /**
+     * A command to send, the number of times to send it, and the delay in milliseconds before sending the next one.
+     */
+    static final class Item {
+
+        private final Command command;
+        private final int count;
+        private final int delay;
+
+        Item(Command command, int count, int delay) {
+            this.command = command;
+            this.count = count;
+            this.delay = delay;
+        }
+
+        Command getCommand() {
+            return command;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        int getDelay() {
+            return delay;
+        }
+    }
+
+    interface Transmitter {
+        boolean transmit(IrSignal irSignal, int count) throws HardwareUnavailableException, HarcHardwareException, IOException, InvalidArgumentException;
+    }
+
+    /**
+     * Informed about the progress of the queue. It is called on the thread of the queue, not on the event dispatch thread,
+     * so a listener updating the GUI must pass the calls on to the latter.
+     */
+    interface Listener {
+
+        /**
+         * Called after every signal sent.
+         * @param index Position of the item in the list.
+         * @param item
+         * @param success As returned by the transmitter.
+         * @param latency Wire latency in nanoseconds.
+         */
+        void transmitted(int index, Item item, boolean success, long latency);
+
+        /**
+         * Called when rendering or sending an item failed, which stops the transmission.
+         * @param index
+         * @param item
+         * @param ex
+         */
+        void failed(int index, Item item, Exception ex);
+
+        /**
+         * Called last, also when cancelled or failed.
+         * @param queue
+         */
+        void finished(TransmissionQueue queue);
+    }
+}
@@ -37,7 +37,7 @@ public class BroadlinkBase64Formatter implements Command.CommandTextFormat {
         if (irSignal.repeatOnly())
             return Broadlink.broadlinkBase64String(irSignal.getRepeatSequence(), count);
 
-        ModulatedIrSequence irSequence = irSignal.getRepeatLength() > 0 ? irSignal.toModulatedIrSequence(true, count, true) : irSignal.getIntroSequence();
+        ModulatedIrSequence irSequence = irSignal.getRepeatLength() > 0 ? ExtraFormatter.toModulatedIrSequence(irSignal, count) : irSignal.getIntroSequence();
         return Broadlink.broadlinkBase64String(irSequence, 1);
     }
 }
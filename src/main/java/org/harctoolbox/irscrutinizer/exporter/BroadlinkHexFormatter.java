@@ -37,7 +37,7 @@ public class BroadlinkHexFormatter implements Command.CommandTextFormat {
         if (irSignal.repeatOnly())
             return Broadlink.broadlinkHexString(irSignal.getRepeatSequence(), count);
 
-        ModulatedIrSequence irSequence = irSignal.getRepeatLength() > 0 ? irSignal.toModulatedIrSequence(true, count, true) : irSignal.getIntroSequence();
+        ModulatedIrSequence irSequence = irSignal.getRepeatLength() > 0 ? ExtraFormatter.toModulatedIrSequence(irSignal, count) : irSignal.getIntroSequence();
         return Broadlink.broadlinkHexString(irSequence, 1);
     }
 }
@@ -18,6 +18,8 @@ this program. If not, see http://www.gnu.org/licenses/.
 package org.harctoolbox.irscrutinizer.exporter;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.regex.Pattern;
 
 /**
  * This class is a helper for C exporters. It makes unique C identifiers from "arbitrary"
@@ -25,26 +27,38 @@ import java.util.HashMap;
  */
 public class CIdentifierFactory {
 
+    private static final Pattern INVALID_CHARS = Pattern.compile("[^0-9A-Za-z_]");
+
     private final HashMap<Integer, String> table;
+    private final HashSet<String> identifiers;
+    // For every stem, the suffix below which all stem_n are taken
+    private final HashMap<String, Integer> nextSuffix;
 
     public CIdentifierFactory() {
         table = new HashMap<>(8);
+        identifiers = new HashSet<>(8);
+        nextSuffix = new HashMap<>(8);
     }
 
     public String mkCIdentifier(String s, int position) {
         if (table.containsKey(position))
             return table.get(position);
 
-        String str = s.replaceAll("[^0-9A-Za-z_]", "_");
-        if (str.matches("^[0-9].*"))
+        String str = INVALID_CHARS.matcher(s).replaceAll("_");
+        if (!str.isEmpty() && Character.isDigit(str.charAt(0)))
             str = "_" + str;
-        int n = 1;
         String candidate = str;
-        while (table.containsValue(candidate)) {
+        if (identifiers.contains(candidate)) {
+            int n = nextSuffix.getOrDefault(str, 1);
             candidate = str + "_" + n;
-            n++;
+            while (identifiers.contains(candidate)) {
+                n++;
+                candidate = str + "_" + n;
+            }
+            nextSuffix.put(str, n + 1);
         }
         table.put(position, candidate);
+        identifiers.add(candidate);
         return candidate;
     }
 }
@@ -20,11 +20,11 @@ package org.harctoolbox.irscrutinizer.exporter;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
 import javax.xml.transform.TransformerException;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 import org.harctoolbox.xml.XmlUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
@@ -40,7 +40,7 @@ public class DynamicCommandExportFormat extends CommandExporter {
     private final String extension;
     private final boolean simpleSequence;
     private final boolean binary;
-    private final Document xslt;
+    private final XsltTemplates xsltTemplates;
     private final boolean executable;
     private final DocumentFragment documentation;
 
@@ -52,10 +52,11 @@ public class DynamicCommandExportFormat extends CommandExporter {
         this.extension = el.getAttribute("extension");
         this.simpleSequence = Boolean.parseBoolean(el.getAttribute("simpleSequence"));
         this.binary = Boolean.parseBoolean(el.getAttribute("binary"));
-        xslt = XmlUtils.newDocument(true);
+        Document xslt = XmlUtils.newDocument(true);
         xslt.setDocumentURI(documentURI);
         Node stylesheet = el.getElementsByTagName("xsl:stylesheet").item(0);
         xslt.appendChild(xslt.importNode(stylesheet, true));
+        xsltTemplates = new XsltTemplates(name, xslt, Collections.singletonList("noRepeats"), binary);
     }
 
     @Override
@@ -92,19 +93,20 @@ public class DynamicCommandExportFormat extends CommandExporter {
     //  FIXME
     @Override
     public void export(Command command, String source, String title, int repeatCount, File exportFile, String charsetName) throws IOException, TransformerException {
-        Document document = command.toDocument(title, true, true, true, true);
+        Document document;
+        synchronized (DecoderLock.getLock()) {
+            document = command.toDocument(title, true, true, true, true);
+        }
         export(document, exportFile.getCanonicalPath(), charsetName, repeatCount);
     }
 
-    private void export(Document document, String fileName, String charsetName, Map<String, String> parameters) throws IOException, TransformerException {
+    void export(Document document, String fileName, String charsetName, int noRepeats) throws IOException, TransformerException {
         try (OutputStream out = IrCoreUtils.getPrintStream(fileName, charsetName)) {
-            XmlUtils.printDOM(out, document, charsetName, xslt, parameters, binary);
+            xsltTemplates.transform(out, document, charsetName, Collections.singletonMap("noRepeats", noRepeats));
         }
     }
 
-    void export(Document document, String fileName, String charsetName, int noRepeats) throws IOException, TransformerException {
-        Map<String, String> parameters = new HashMap<>(1);
-        parameters.put("noRepeats", Integer.toString(noRepeats));
-        export(document, fileName, charsetName, parameters);
+    XsltTemplates getXsltTemplates() {
+        return xsltTemplates;
     }
 }
@@ -21,16 +21,22 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.validation.Schema;
 import org.harctoolbox.girr.Command;
+import org.harctoolbox.girr.GirrException;
 import org.harctoolbox.girr.RemoteSet;
 import org.harctoolbox.guicomponents.GuiUtils;
+import org.harctoolbox.ircore.IrCoreException;
 import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 import org.harctoolbox.xml.XmlUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
@@ -46,6 +52,8 @@ import org.xml.sax.SAXException;
 public class DynamicRemoteSetExportFormat extends RemoteSetExporter {
 
     public final static String EXPORTFORMAT_NAMESPACE = "http://www.harctoolbox.org/exportformats";
+    final static String XSLT_NAMESPACE = "http://www.w3.org/1999/XSL/Transform";
+    private final static List<String> STANDARD_PARAMETERS = Arrays.asList("encoding", "creatingUser", "creatingTool", "creatingDate");
 
     static Map<String, IExporterFactory> parseExportFormats(GuiUtils guiUtils, File file) throws ParserConfigurationException, SAXException, IOException {
         return parseExportFormats(guiUtils, file, null);
@@ -85,16 +93,73 @@ public class DynamicRemoteSetExportFormat extends RemoteSetExporter {
         NodeList nl = doc.getElementsByTagNameNS(EXPORTFORMAT_NAMESPACE, "exportformat");
         String documentURI = doc.getDocumentURI();
         for (int i = 0; i < nl.getLength(); i++) {
-            final Element el = (Element) nl.item(i);
-            final Exporter ef = (el.getAttribute("multiSignal").equals("true"))
-                    ? new DynamicRemoteSetExportFormat(el, documentURI)
-                    : new DynamicCommandExportFormat(el, documentURI);
-
-            putWithCheck(guiUtils, result, ef.getName(), () -> ef);
+            final Exporter ef = newExporter((Element) nl.item(i), documentURI);
+            putWithCheck(guiUtils, result, ef.getName(), new Factory(ef));
         }
         return result;
     }
 
+    static Exporter newExporter(Element el, String documentURI) {
+        return el.getAttribute("multiSignal").equals("true")
+                ? new DynamicRemoteSetExportFormat(el, documentURI)
+                : new DynamicCommandExportFormat(el, documentURI);
+    }
+
+    /**
+     * Factory handing out the one instance of a dynamic export format, so that its compiled stylesheet is kept.
+     * The instance is either given, or loaded on the first invocation of newExporter().
+     */
+    static final class Factory implements IExporterFactory {
+
+        private final Loader loader;
+        private Exporter exporter;
+
+        Factory(Exporter exporter) {
+            this.loader = null;
+            this.exporter = exporter;
+        }
+
+        Factory(Loader loader) {
+            this.loader = loader;
+            this.exporter = null;
+        }
+
+        /**
+         * @return The exporter.
+         * @throws IOException if the exporter could not be loaded.
+         */
+        @Override
+        public synchronized Exporter newExporter() throws IOException {
+            if (exporter == null) {
+                try {
+                    exporter = loader.load();
+                } catch (ParserConfigurationException | SAXException ex) {
+                    throw new IOException(ex.getLocalizedMessage(), ex);
+                }
+            }
+            return exporter;
+        }
+
+        synchronized boolean isLoaded() {
+            return exporter != null;
+        }
+
+        /**
+         * @return The XsltTemplates of the exporter, or null if the exporter has not been loaded.
+         */
+        synchronized XsltTemplates getXsltTemplates() {
+            return exporter == null ? null
+                    : exporter instanceof DynamicRemoteSetExportFormat
+                    ? ((DynamicRemoteSetExportFormat) exporter).getXsltTemplates()
+                    : ((DynamicCommandExportFormat) exporter).getXsltTemplates();
+        }
+
+        @FunctionalInterface
+        interface Loader {
+            Exporter load() throws ParserConfigurationException, SAXException, IOException;
+        }
+    }
+
     static DocumentFragment extractDocumentation(Element el) {
         NodeList nodeList = el.getElementsByTagNameNS(EXPORTFORMAT_NAMESPACE, "documentation");
         return nodeList.getLength() > 0 ? nodeListToDocumentFragment(nodeList, true) : null;
@@ -130,13 +195,13 @@ public class DynamicRemoteSetExportFormat extends RemoteSetExporter {
         return fragment;
     }
 
-    private static void putWithCheck(GuiUtils guiUtils, Map<String, IExporterFactory> result, String formatName, IExporterFactory iExporterFactory) {
+    static void putWithCheck(GuiUtils guiUtils, Map<String, IExporterFactory> result, String formatName, IExporterFactory iExporterFactory) {
         if (result.containsKey(formatName))
             warning(guiUtils, "Export format \"" + formatName + "\" present more than once; keeping the last.");
         result.put(formatName, iExporterFactory);
     }
 
-    private static void warning(GuiUtils guiUtils, String message) {
+    static void warning(GuiUtils guiUtils, String message) {
         if (guiUtils != null)
             guiUtils.warning(message);
         else
@@ -148,7 +213,7 @@ public class DynamicRemoteSetExportFormat extends RemoteSetExporter {
     private final boolean simpleSequence;
     private final boolean binary;
     private final boolean metadata;
-    private final Document xslt;
+    private final XsltTemplates xsltTemplates;
     private final DocumentFragment documentation;
     private final boolean executable;
 
@@ -162,10 +227,11 @@ public class DynamicRemoteSetExportFormat extends RemoteSetExporter {
         this.binary = Boolean.parseBoolean(el.getAttribute("binary"));
         this.metadata = Boolean.parseBoolean(el.getAttribute("metadata"));
 
-        xslt = XmlUtils.newDocument(true);
+        Document xslt = XmlUtils.newDocument(true);
         xslt.setDocumentURI(documentURI);
-        Node stylesheet = el.getElementsByTagNameNS("http://www.w3.org/1999/XSL/Transform", "stylesheet").item(0);
+        Node stylesheet = el.getElementsByTagNameNS(XSLT_NAMESPACE, "stylesheet").item(0);
         xslt.appendChild(xslt.importNode(stylesheet, true));
+        xsltTemplates = new XsltTemplates(formatName, xslt, STANDARD_PARAMETERS, binary);
     }
 
     @Override
@@ -211,31 +277,60 @@ public class DynamicRemoteSetExportFormat extends RemoteSetExporter {
     }
 
     private void export(RemoteSet remoteSet, String title, String fileName, String encoding) throws IOException, TransformerException {
-        boolean oldInheritStatus = Command.isUseInheritanceForXml();
-        Command.setUseInheritanceForXml(false);
-        Document document = remoteSet.toDocument(title,
-                true, //fatRaw,
-                true, //generateRaw,
-                true, //generateCcf,
-                true //generateParameters)
-        );
-        Command.setUseInheritanceForXml(oldInheritStatus);
-        export(document, fileName, encoding);
+        export(toDocument(remoteSet, title), fileName, encoding);
+    }
+
+    /**
+     * Generates the document without inheritance. Since the latter is a global setting,
+     * it is changed only while holding the {@link DecoderLock}, under which all rendering is performed.
+     */
+    private static Document toDocument(RemoteSet remoteSet, String title) {
+        synchronized (DecoderLock.getLock()) {
+            boolean oldInheritStatus = Command.isUseInheritanceForXml();
+            Command.setUseInheritanceForXml(false);
+            try {
+                return remoteSet.toDocument(title,
+                        true, //fatRaw,
+                        true, //generateRaw,
+                        true, //generateCcf,
+                        true //generateParameters)
+                );
+            } finally {
+                Command.setUseInheritanceForXml(oldInheritStatus);
+            }
+        }
+    }
+
+    /**
+     * Exports every Remote to a file of its own, concurrently. The documents are generated under the
+     * {@link DecoderLock}, the transformations run in parallel, sharing the compiled stylesheet.
+     */
+    @Override
+    public List<File> exportPerRemote(RemoteSet remoteSet, String title, File exportDir, boolean zip, String charsetName)
+            throws IOException, TransformerException, GirrException, IrpException, IrCoreException {
+        return exportPerRemote(remoteSet, title, exportDir, zip, charsetName,
+                (RemoteSet rs, String t, File file, String encoding) -> {
+                    export(rs, t, file.getCanonicalPath(), encoding);
+                }, true);
     }
 
     void export(Document document, String fileName, String wantedEncoding) throws IOException, TransformerException {
         String encoding = (getEncoding() == null || getEncoding().isEmpty()) ? wantedEncoding : getEncoding();
         try (OutputStream out = IrCoreUtils.getPrintStream(fileName, encoding)) {
-            XmlUtils.printDOM(out, document, encoding, xslt, standardParameter(encoding), binary);
+            xsltTemplates.transform(out, document, encoding, standardParameterValues(encoding));
         }
     }
 
-    private Map<String, String> standardParameter(String encoding) {
+    XsltTemplates getXsltTemplates() {
+        return xsltTemplates;
+    }
+
+    private Map<String, String> standardParameterValues(String encoding) {
         Map<String, String> parameters = new HashMap<>(8);
-        parameters.put("encoding", "'" + encoding + "'");
-        parameters.put("creatingUser", "'" + getCreatingUser() + "'");
-        parameters.put("creatingTool", "'" + org.harctoolbox.irscrutinizer.Version.versionString + "'");
-        parameters.put("creatingDate", "'" + (new Date()).toString() + "'");
+        parameters.put("encoding", encoding);
+        parameters.put("creatingUser", getCreatingUser());
+        parameters.put("creatingTool", org.harctoolbox.irscrutinizer.Version.versionString);
+        parameters.put("creatingDate", (new Date()).toString());
         return parameters;
     }
 }
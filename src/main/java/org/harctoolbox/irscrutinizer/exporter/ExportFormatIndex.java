@@ -0,0 +1,296 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer.exporter;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.validation.Schema;
+import org.harctoolbox.guicomponents.GuiUtils;
+import org.harctoolbox.xml.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Persistent index of the dynamic export formats, allowing for reading the export formats files lazily.
+ * For every export formats file, its path, modification time, and length are recorded,
+ * together with the name and the attributes of the export formats therein.
+ * Files that are unchanged since the index was written are not parsed until one of their
+ * formats is actually used; other files are parsed, and the index updated.
+ * A file that fails to load when used is removed from the index, which is then saved, so that it is parsed anew the next time.
+ */
+final class ExportFormatIndex {
+
+    private static final Logger logger = Logger.getLogger(ExportFormatIndex.class.getName());
+
+    private static final String INDEX_ELEMENT_NAME = "exportformatsindex";
+    private static final String FILE_ELEMENT_NAME = "file";
+    private static final String EXPORTFORMAT_ELEMENT_NAME = "exportformat";
+    private static final String VERSION_ATTRIBUTE_NAME = "version";
+    private static final String PATH_ATTRIBUTE_NAME = "path";
+    private static final String LASTMODIFIED_ATTRIBUTE_NAME = "lastModified";
+    private static final String LENGTH_ATTRIBUTE_NAME = "length";
+    private static final String NAME_ATTRIBUTE_NAME = "name";
+    private static final String VERSION = "1";
+
+    /**
+     * Attributes of the exportformat element that are copied to the index.
+     */
+    private static final String[] INDEXED_ATTRIBUTES = {
+        "name", "extension", "multiSignal", "simpleSequence", "binary", "metadata", "executable"
+    };
+
+    private final File indexFile;
+    private final Map<String, FileEntry> entries;
+    private boolean dirty;
+
+    /**
+     * Reads the index file, if present. An unreadable or outdated index is silently ignored.
+     * @param indexFile
+     */
+    ExportFormatIndex(File indexFile) {
+        this.indexFile = indexFile;
+        this.entries = new LinkedHashMap<>(32);
+        this.dirty = false;
+        if (indexFile.canRead()) {
+            try {
+                read();
+            } catch (IOException | SAXException | NumberFormatException ex) {
+                logger.log(Level.WARNING, "Export formats index {0} could not be read, ignoring it: {1}",
+                        new Object[]{indexFile, ex.getLocalizedMessage()});
+                entries.clear();
+                dirty = true;
+            }
+        }
+    }
+
+    private void read() throws IOException, SAXException {
+        Document document = XmlUtils.openXmlFile(indexFile);
+        Element root = document.getDocumentElement();
+        if (!root.getTagName().equals(INDEX_ELEMENT_NAME) || !root.getAttribute(VERSION_ATTRIBUTE_NAME).equals(VERSION)) {
+            dirty = true;
+            return;
+        }
+        NodeList files = root.getElementsByTagName(FILE_ELEMENT_NAME);
+        for (int i = 0; i < files.getLength(); i++) {
+            Element fileElement = (Element) files.item(i);
+            FileEntry entry = new FileEntry(fileElement.getAttribute(PATH_ATTRIBUTE_NAME),
+                    Long.parseLong(fileElement.getAttribute(LASTMODIFIED_ATTRIBUTE_NAME)),
+                    Long.parseLong(fileElement.getAttribute(LENGTH_ATTRIBUTE_NAME)));
+            NodeList formats = fileElement.getElementsByTagName(EXPORTFORMAT_ELEMENT_NAME);
+            for (int j = 0; j < formats.getLength(); j++)
+                entry.formats.add(indexedAttributes((Element) formats.item(j)));
+            entries.put(entry.path, entry);
+        }
+    }
+
+    private static Map<String, String> indexedAttributes(Element element) {
+        Map<String, String> attributes = new LinkedHashMap<>(INDEXED_ATTRIBUTES.length);
+        for (String attribute : INDEXED_ATTRIBUTES)
+            if (element.hasAttribute(attribute))
+                attributes.put(attribute, element.getAttribute(attribute));
+        return attributes;
+    }
+
+    /**
+     * Writes the index file, if it has been changed. Failure is logged, but otherwise ignored,
+     * since the index can be recreated.
+     */
+    synchronized void save() {
+        if (!dirty)
+            return;
+
+        Document document = XmlUtils.newDocument();
+        Element root = document.createElement(INDEX_ELEMENT_NAME);
+        root.setAttribute(VERSION_ATTRIBUTE_NAME, VERSION);
+        document.appendChild(root);
+        entries.values().forEach((entry) -> {
+            Element fileElement = document.createElement(FILE_ELEMENT_NAME);
+            fileElement.setAttribute(PATH_ATTRIBUTE_NAME, entry.path);
+            fileElement.setAttribute(LASTMODIFIED_ATTRIBUTE_NAME, Long.toString(entry.lastModified));
+            fileElement.setAttribute(LENGTH_ATTRIBUTE_NAME, Long.toString(entry.length));
+            entry.formats.forEach((attributes) -> {
+                Element formatElement = document.createElement(EXPORTFORMAT_ELEMENT_NAME);
+                attributes.forEach((name, value) -> {
+                    formatElement.setAttribute(name, value);
+                });
+                fileElement.appendChild(formatElement);
+            });
+            root.appendChild(fileElement);
+        });
+
+        try {
+            File directory = indexFile.getAbsoluteFile().getParentFile();
+            if (directory != null && !directory.isDirectory())
+                directory.mkdirs();
+            XmlUtils.printDOM(indexFile, document);
+            dirty = false;
+        } catch (FileNotFoundException ex) {
+            logger.log(Level.WARNING, "Export formats index {0} could not be written: {1}",
+                    new Object[]{indexFile, ex.getLocalizedMessage()});
+        }
+    }
+
+    /**
+     * Counterpart of {@link DynamicRemoteSetExportFormat#parseExportFormats(GuiUtils, File)}, using the index.
+     * @param guiUtils
+     * @param file File or directory of export formats.
+     * @return Map of factories, keyed by format name.
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException
+     */
+    Map<String, IExporterFactory> parseExportFormats(GuiUtils guiUtils, File file) throws ParserConfigurationException, SAXException, IOException {
+        if (!file.exists())
+            throw new FileNotFoundException(file + " does not exist.");
+
+        Map<String, IExporterFactory> result = new HashMap<>(32);
+        Set<String> seen = new HashSet<>(32);
+        parse(guiUtils, file, result, seen);
+        removeStale(file.getCanonicalPath(), seen);
+        return result;
+    }
+
+    private void parse(GuiUtils guiUtils, File file, Map<String, IExporterFactory> result, Set<String> seen) throws ParserConfigurationException, SAXException, IOException {
+        if (!file.isDirectory()) {
+            parseFile(guiUtils, file, result, seen);
+            return;
+        }
+
+        File[] files = file.listFiles((File dir, String name) -> name.endsWith(".xml"));
+        for (File f : files) {
+            try {
+                parse(guiUtils, f, result, seen); // allow hierarchies
+            } catch (ParserConfigurationException | SAXException | IOException ex) {
+                String message = "Export formats file \"" + f.getPath() + "\" could not be read, ignoring it. " + ex.getLocalizedMessage();
+                DynamicRemoteSetExportFormat.warning(guiUtils, message);
+            }
+        }
+    }
+
+    private void parseFile(GuiUtils guiUtils, File file, Map<String, IExporterFactory> result, Set<String> seen) throws ParserConfigurationException, SAXException, IOException {
+        String path = file.getCanonicalPath();
+        seen.add(path);
+        FileEntry entry = entries.get(path);
+        if (entry == null || !entry.isUpToDate(file)) {
+            entry = new FileEntry(path, file.lastModified(), file.length());
+            entry.load();
+            entries.put(path, entry);
+            dirty = true;
+            logger.log(Level.FINE, "Indexed export formats file {0}", path);
+        }
+        for (Map<String, String> attributes : entry.formats) {
+            String name = attributes.get(NAME_ATTRIBUTE_NAME);
+            FileEntry fileEntry = entry;
+            Exporter exporter = entry.getLoadedExporter(name);
+            DynamicRemoteSetExportFormat.putWithCheck(guiUtils, result, name, exporter != null
+                    ? new DynamicRemoteSetExportFormat.Factory(exporter)
+                    : new DynamicRemoteSetExportFormat.Factory(() -> getExporter(fileEntry, name)));
+        }
+    }
+
+    private Exporter getExporter(FileEntry entry, String name) throws ParserConfigurationException, SAXException, IOException {
+        try {
+            return entry.getExporter(name);
+        } catch (ParserConfigurationException | SAXException | IOException ex) {
+            synchronized (this) {
+                entries.remove(entry.path);
+                dirty = true;
+                save();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Removes the entries of files below root that no longer exist.
+     */
+    private void removeStale(String root, Set<String> seen) {
+        String prefix = root + File.separator;
+        for (Iterator<String> it = entries.keySet().iterator(); it.hasNext();) {
+            String path = it.next();
+            if ((path.equals(root) || path.startsWith(prefix)) && !seen.contains(path)) {
+                it.remove();
+                dirty = true;
+            }
+        }
+    }
+
+    private static final class FileEntry {
+
+        private final String path;
+        private final long lastModified;
+        private final long length;
+        private final List<Map<String, String>> formats;
+        private Map<String, Exporter> exporters;
+
+        FileEntry(String path, long lastModified, long length) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.formats = new ArrayList<>(4);
+            this.exporters = null;
+        }
+
+        boolean isUpToDate(File file) {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+
+        /**
+         * Parses the file, creating all of its exporters, and (re-)creating the list of formats.
+         */
+        synchronized void load() throws ParserConfigurationException, SAXException, IOException {
+            Document doc = XmlUtils.openXmlFile(new File(path), (Schema) null, true, true);
+            NodeList nl = doc.getElementsByTagNameNS(DynamicRemoteSetExportFormat.EXPORTFORMAT_NAMESPACE, EXPORTFORMAT_ELEMENT_NAME);
+            exporters = new LinkedHashMap<>(nl.getLength());
+            formats.clear();
+            for (int i = 0; i < nl.getLength(); i++) {
+                Element el = (Element) nl.item(i);
+                Exporter exporter = DynamicRemoteSetExportFormat.newExporter(el, doc.getDocumentURI());
+                exporters.put(exporter.getName(), exporter);
+                formats.add(indexedAttributes(el));
+            }
+        }
+
+        synchronized Exporter getLoadedExporter(String name) {
+            return exporters != null ? exporters.get(name) : null;
+        }
+
+        synchronized Exporter getExporter(String name) throws ParserConfigurationException, SAXException, IOException {
+            if (exporters == null)
+                load();
+            Exporter exporter = exporters.get(name);
+            if (exporter == null)
+                throw new IOException("Export format \"" + name + "\" no longer present in file \"" + path + "\".");
+            return exporter;
+        }
+    }
+}
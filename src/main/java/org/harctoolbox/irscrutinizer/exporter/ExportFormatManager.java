@@ -21,7 +21,9 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import javax.swing.ButtonGroup;
 import javax.swing.JCheckBoxMenuItem;
@@ -29,6 +31,7 @@ import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.xml.parsers.ParserConfigurationException;
 import org.harctoolbox.guicomponents.GuiUtils;
+import org.harctoolbox.ircore.IrCoreUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
 import org.xml.sax.SAXException;
@@ -38,22 +41,49 @@ import org.xml.sax.SAXException;
  */
 public class ExportFormatManager {
 
+    /**
+     * Name of the index file of the dynamic export formats, residing in the directory of the properties.
+     */
+    public static final String INDEX_FILENAME = "exportformats.index.xml";
+
+    public static File indexFile(String propertiesFilename) {
+        return new File(new File(propertiesFilename).getAbsoluteFile().getParentFile(), INDEX_FILENAME);
+    }
+
     private final LinkedHashMap<String, IExporterFactory> exportFormats;
     private final IExportFormatSelector exportFormatSelector;
     private JMenu menu;
     private ButtonGroup buttonGroup;
     private IExporterFactory selected;
+    private final Map<IExporterFactory, DocumentFragment> documentations;
 
     public ExportFormatManager(IExportFormatSelector exportFormatSelector) {
         this.exportFormatSelector = exportFormatSelector;
         selected = null;
         exportFormats = new LinkedHashMap<>(32);
+        documentations = new IdentityHashMap<>(32);
     }
 
     public void addDynamicFormats(GuiUtils guiUtils, File file) throws ParserConfigurationException, SAXException, IOException {
         exportFormats.putAll(DynamicRemoteSetExportFormat.parseExportFormats(guiUtils, file));
     }
 
+    /**
+     * Adds the dynamic export formats in the file or directory given, using (and updating) the index file given.
+     * Only files changed since the index was written are parsed; the other ones are parsed when one of their formats is first used.
+     * @param guiUtils
+     * @param file
+     * @param indexFile
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     * @throws IOException
+     */
+    public void addDynamicFormats(GuiUtils guiUtils, File file, File indexFile) throws ParserConfigurationException, SAXException, IOException {
+        ExportFormatIndex index = new ExportFormatIndex(indexFile);
+        exportFormats.putAll(index.parseExportFormats(guiUtils, file));
+        index.save();
+    }
+
     public void add(String name, IExporterFactory factory) {
          exportFormats.put(name, factory);
     }
@@ -62,6 +92,39 @@ public class ExportFormatManager {
         return exportFormats.get(name);
     }
 
+    /**
+     * Creates an exporter of the named format. A format that cannot be created, i.e. a dynamic format whose file
+     * has become broken, or has been changed, since it was read, is removed, also from the menu.
+     * @param name
+     * @return Exporter
+     * @throws IOException if the exporter could not be created; the format is then removed.
+     */
+    public Exporter newExporter(String name) throws IOException {
+        IExporterFactory factory = exportFormats.get(name);
+        try {
+            return factory.newExporter();
+        } catch (IOException ex) {
+            remove(name);
+            throw new IOException("Export format \"" + name + "\" could not be loaded, and has been removed. " + ex.getLocalizedMessage(), ex);
+        }
+    }
+
+    private void remove(String name) {
+        IExporterFactory factory = exportFormats.remove(name);
+        documentations.remove(factory);
+        if (selected == factory)
+            selected = null;
+        if (menu != null)
+            for (int i = 0; i < menu.getItemCount(); i++) {
+                JMenuItem item = menu.getItem(i);
+                if (item.getText().equals(name)) {
+                    buttonGroup.remove(item);
+                    menu.remove(i);
+                    break;
+                }
+            }
+    }
+
     public IExporterFactory getSelected() {
         return selected;
     }
@@ -84,33 +147,47 @@ public class ExportFormatManager {
         }
     }
 
-    public DocumentFragment getDocumentation() {
+    public DocumentFragment getDocumentation() throws IOException {
         return getDocumentation(selected);
     }
 
-    public DocumentFragment getDocumentation(String formatName) {
+    public DocumentFragment getDocumentation(String formatName) throws IOException {
         return getDocumentation(get(formatName));
     }
 
-    public DocumentFragment getDocumentation(IExporterFactory format) {
-        Exporter exporter = format.newExporter();
-        return exporter.getDocumentation();
+    /**
+     * Returns the documentation of the export format. It is remembered, so that an Exporter
+     * is not instantiated every time the documentation is asked for.
+     * @param format
+     * @return Documentation, possibly null.
+     * @throws IOException if the exporter could not be created.
+     */
+    public DocumentFragment getDocumentation(IExporterFactory format) throws IOException {
+        if (documentations.containsKey(format))
+            return documentations.get(format);
+
+        DocumentFragment documentation = format.newExporter().getDocumentation();
+        documentations.put(format, documentation);
+        return documentation;
     }
 
-    public Document getDocument() {
+    public Document getDocument() throws IOException {
         return getDocument(selected);
     }
 
-    public Document getDocument(IExporterFactory factory) {
+    public Document getDocument(IExporterFactory factory) throws IOException {
         Exporter exporter = factory.newExporter();
         return exporter.getDocument();
     }
 
-    public String getFormatName(IExporterFactory format) {
+    public String getFormatName(IExporterFactory format) throws IOException {
+        for (Map.Entry<String, IExporterFactory> kvp : exportFormats.entrySet())
+            if (kvp.getValue() == format)
+                return kvp.getKey();
         return format.newExporter().getName();
     }
 
-    public String getFormatName() {
+    public String getFormatName() throws IOException {
         return getFormatName(selected);
     }
 
@@ -130,6 +207,24 @@ public class ExportFormatManager {
         return menu;
     }
 
+    /**
+     * Reports, for the dynamic export formats having been used, the time for compiling the stylesheet,
+     * and the number of, and average time for, transformations.
+     * @return Multi-line string.
+     */
+    public String getStatistics() {
+        StringBuilder stringBuilder = new StringBuilder(256);
+        for (String name : toArray()) {
+            IExporterFactory factory = exportFormats.get(name);
+            if (factory instanceof DynamicRemoteSetExportFormat.Factory) {
+                XsltTemplates xsltTemplates = ((DynamicRemoteSetExportFormat.Factory) factory).getXsltTemplates();
+                if (xsltTemplates != null && xsltTemplates.isCompiled())
+                    stringBuilder.append(xsltTemplates).append(IrCoreUtils.LINE_SEPARATOR);
+            }
+        }
+        return stringBuilder.length() > 0 ? stringBuilder.toString() : "No dynamic export format has been used.";
+    }
+
     public Set<String> getNames() {
         return exportFormats.keySet();
     }
@@ -60,6 +60,7 @@ public abstract class Exporter {
     private static String encodingName = IrCoreUtils.UTF8_NAME;
     @SuppressWarnings("StaticNonFinalUsedInInitialization")
     private static Charset charset = Charset.forName(encodingName);
+    private static volatile boolean xsltDebug = false;
 
     /**
      * @param aDateFormatString the dateFormatString to set
@@ -122,6 +123,19 @@ public abstract class Exporter {
         charset = Charset.forName(encodingName);
     }
 
+    /**
+     * If set, the XSLT based exports write their input, and stylesheet, to files in the current directory.
+     * @param debug
+     */
+    public static void setXsltDebug(boolean debug) {
+        xsltDebug = debug;
+        XmlUtils.setDebug(debug);
+    }
+
+    static boolean isXsltDebug() {
+        return xsltDebug;
+    }
+
     public static Document getDocument(DocumentFragment fragment) {
         if (fragment == null)
             return null;
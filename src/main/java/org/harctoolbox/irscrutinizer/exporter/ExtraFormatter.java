@@ -0,0 +1,176 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer.exporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.ircore.IrCoreException;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import org.harctoolbox.ircore.ThisCannotHappenException;
+import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
+
+/**
+ * Computes the extra text formats of commands, a chunk of commands at a time, with the formatting spread over a thread pool.
+ * The IrSignals are rendered on the calling thread, under the {@link DecoderLock}; only the formatters run in parallel.
+ * Formatters that decode, like {@link ShortCcfFormatter}, must take the DecoderLock themselves.
+ */
+final class ExtraFormatter implements AutoCloseable {
+
+    /**
+     * Number of commands the callers should collect before calling {@link #format(List)}.
+     */
+    static final int CHUNK_SIZE = 256;
+
+    /**
+     * The memo of the slice being formatted by the current thread, if any.
+     */
+    private static final ThreadLocal<RepeatedSequence> lastRepeatedSequence = new ThreadLocal<>();
+
+    /**
+     * Returns irSignal.toModulatedIrSequence(true, count, true). While a slice of a chunk is being formatted,
+     * the last result is remembered, so that the formats of the same signal share it.
+     * @param irSignal
+     * @param count
+     * @return
+     */
+    static ModulatedIrSequence toModulatedIrSequence(IrSignal irSignal, int count) {
+        RepeatedSequence last = lastRepeatedSequence.get();
+        if (last == null)
+            return irSignal.toModulatedIrSequence(true, count, true);
+
+        if (last.irSignal != irSignal || last.count != count) {
+            last.irSignal = irSignal;
+            last.count = count;
+            last.sequence = irSignal.toModulatedIrSequence(true, count, true);
+        }
+        return last.sequence;
+    }
+
+    /**
+     * Formats a slice of a chunk with all the formats. The memo of {@link #toModulatedIrSequence(IrSignal, int)}
+     * lives only during the call, so no signal is kept alive after it.
+     * @param formats
+     * @param irSignals
+     * @param count
+     * @return For every signal, in order, its formats.
+     */
+    static String[][] format(Command.CommandTextFormat[] formats, List<IrSignal> irSignals, int count) {
+        lastRepeatedSequence.set(new RepeatedSequence());
+        try {
+            String[][] result = new String[irSignals.size()][formats.length];
+            for (int i = 0; i < result.length; i++)
+                for (int j = 0; j < formats.length; j++)
+                    result[i][j] = formats[j].format(irSignals.get(i), count);
+            return result;
+        } finally {
+            lastRepeatedSequence.remove();
+        }
+    }
+
+    private static String[][] waitFor(Future<String[][]> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new ThisCannotHappenException(cause);
+        }
+    }
+
+    private final Command.CommandTextFormat[] formats;
+    private final int count;
+    private final int noThreads;
+    private ExecutorService executor;
+
+    /**
+     * @param formats Formats to compute, possibly none.
+     * @param count Number of repetitions to pass to the formatters.
+     */
+    ExtraFormatter(Command.CommandTextFormat[] formats, int count) {
+        this.formats = formats;
+        this.count = count;
+        this.noThreads = Runtime.getRuntime().availableProcessors();
+        this.executor = null;
+    }
+
+    /**
+     * Formats the commands with all the formats.
+     * @param commands
+     * @return For every command, in order, its formats, in the order of the formats given to the constructor.
+     * @throws IrpException
+     * @throws IrCoreException
+     * @throws InterruptedException
+     */
+    List<String[]> format(List<Command> commands) throws IrpException, IrCoreException, InterruptedException {
+        List<String[]> result = new ArrayList<>(commands.size());
+        if (formats.length == 0) {
+            for (Command command : commands)
+                result.add(new String[0]);
+            return result;
+        }
+
+        List<IrSignal> irSignals = new ArrayList<>(commands.size());
+        synchronized (DecoderLock.getLock()) {
+            for (Command command : commands)
+                irSignals.add(command.toIrSignal());
+        }
+
+        int noSlices = Math.min(noThreads, irSignals.size());
+        if (noSlices <= 1) {
+            result.addAll(Arrays.asList(format(formats, irSignals, count)));
+            return result;
+        }
+
+        if (executor == null)
+            executor = Executors.newFixedThreadPool(noThreads);
+        List<Future<String[][]>> futures = new ArrayList<>(noSlices);
+        int sliceSize = (irSignals.size() + noSlices - 1) / noSlices;
+        for (int start = 0; start < irSignals.size(); start += sliceSize) {
+            List<IrSignal> slice = irSignals.subList(start, Math.min(start + sliceSize, irSignals.size()));
+            futures.add(executor.submit(() -> format(formats, slice, count)));
+        }
+        for (Future<String[][]> future : futures)
+            for (String[] formatted : waitFor(future))
+                result.add(formatted);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    private static final class RepeatedSequence {
+
+        private IrSignal irSignal = null;
+        private int count = 0;
+        private ModulatedIrSequence sequence = null;
+    }
+}
@@ -17,11 +17,17 @@ this program. If not, see http://www.gnu.org/licenses/.
 
 package org.harctoolbox.irscrutinizer.exporter;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.UnsupportedEncodingException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.xml.stream.XMLStreamException;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.girr.RemoteSet;
+import org.harctoolbox.ircore.IrCoreException;
+import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
 
@@ -48,16 +54,43 @@ public class GirrExporter extends RemoteSetExporter {
         this.extraFormats = extraFormats;
     }
 
+    /**
+     * Writes the file one command at a time, without building the DOM of the remote set,
+     * and without adding the extra formats to its commands.
+     * Whether the commands inherit the parameters of their command set follows {@link Command#isUseInheritanceForXml()}.
+     */
     @Override
-    public void export(RemoteSet remoteSet, String title, File file, String charsetName) throws FileNotFoundException, UnsupportedEncodingException  {
-        Document document = toDocument(remoteSet, title);
-        export(document, file, charsetName);
+    public void export(RemoteSet remoteSet, String title, File file, String charsetName) throws IOException, IrpException, IrCoreException {
+        if (file == null)
+            return;
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file), 65536)) {
+            export(remoteSet, title, outputStream, charsetName);
+        }
     }
 
+    public void export(RemoteSet remoteSet, String title, OutputStream outputStream, String charsetName) throws IOException, IrpException, IrCoreException {
+        try (GirrWriter writer = new GirrWriter(outputStream, charsetName, fatRaw, generateRaw, generateCcf, generateParameters, extraFormats)) {
+            writer.write(remoteSet, title);
+        } catch (XMLStreamException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Generates the DOM of the complete remote set. Note that the extra formats are added to the commands.
+     * @param remoteSet
+     * @param title
+     * @return
+     */
     public Document toDocument(RemoteSet remoteSet, String title) {
         for (Command.CommandTextFormat formatter : extraFormats)
             remoteSet.addFormat(formatter, 1);
-        return remoteSet.toDocument(title, fatRaw, generateParameters, generateCcf, generateRaw);
+        synchronized (DecoderLock.getLock()) {
+            return remoteSet.toDocument(title, fatRaw, generateParameters, generateCcf, generateRaw);
+        }
     }
 
     @Override
@@ -0,0 +1,368 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer.exporter;
+
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.girr.CommandSet;
+import org.harctoolbox.girr.Remote;
+import org.harctoolbox.girr.RemoteSet;
+import static org.harctoolbox.girr.XmlStatic.*;
+import org.harctoolbox.ircore.IrCoreException;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
+import org.harctoolbox.xml.XmlUtils;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Writes a RemoteSet in the Girr format with StAX, one command at a time,
+ * so that only the command being written is present as DOM with its signals rendered.
+ * The administrative data of the remote set is generated by Girr from a copy without remotes.
+ * Since the languages of its notes cannot be enumerated, only those of the ISO 639 languages are carried over.
+ * Everything else, i.e., the notes, the application data, and the attributes and parameters of the command sets,
+ * is copied from a skeleton generated by Girr for one remote at a time,
+ * in which the commands contain their master representation only, so that generating it does not render.
+ * The commands are written by Girr itself. If {@link Command#isUseInheritanceForXml()}, as by default,
+ * the parameters that are equal to those of the command set are then left out, as in the inherited form Girr writes.
+ * Otherwise every command carries all of its parameters.
+ * The extra formats are computed during writing, a chunk of commands at a time in parallel, and are not added to the commands.
+ */
+final class GirrWriter implements AutoCloseable {
+
+    private static final String HTML_PREFIX = "html";
+    private static final String HTML_NAMESPACE = "http://www.w3.org/1999/xhtml";
+    private static final String XSI_PREFIX = "xsi";
+    private static final String INDENT = "    ";
+
+    private final XMLStreamWriter writer;
+    private final String charsetName;
+    private final boolean fatRaw;
+    private final boolean generateRaw;
+    private final boolean generateCcf;
+    private final boolean generateParameters;
+    private final Command.CommandTextFormat[] extraFormats;
+    private final Set<String> extraFormatNames;
+    private final ExtraFormatter extraFormatter;
+    private final Deque<Boolean> hasChildElements;
+
+    GirrWriter(OutputStream outputStream, String charsetName, boolean fatRaw, boolean generateRaw, boolean generateCcf,
+            boolean generateParameters, Command.CommandTextFormat... extraFormats) throws XMLStreamException {
+        this.writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, charsetName);
+        this.charsetName = charsetName;
+        this.fatRaw = fatRaw;
+        this.generateRaw = generateRaw;
+        this.generateCcf = generateCcf;
+        this.generateParameters = generateParameters;
+        this.extraFormats = extraFormats;
+        this.extraFormatNames = new HashSet<>(extraFormats.length);
+        for (Command.CommandTextFormat format : extraFormats)
+            extraFormatNames.add(format.getName());
+        this.extraFormatter = new ExtraFormatter(extraFormats, 1);
+        this.hasChildElements = new ArrayDeque<>(16);
+    }
+
+    void write(RemoteSet remoteSet, String title) throws XMLStreamException, IrpException, IrCoreException, InterruptedException {
+        writer.writeStartDocument(charsetName, "1.0");
+        writer.writeCharacters("\n");
+        writer.writeComment(GIRR_COMMENT);
+        writer.writeCharacters("\n");
+        writer.setDefaultNamespace(GIRR_NAMESPACE);
+        writer.setPrefix(HTML_PREFIX, HTML_NAMESPACE);
+        writer.setPrefix(XSI_PREFIX, XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+
+        startElement(REMOTES_ELEMENT_NAME);
+        writer.writeDefaultNamespace(GIRR_NAMESPACE);
+        writer.writeNamespace(HTML_PREFIX, HTML_NAMESPACE);
+        writer.writeNamespace(XSI_PREFIX, XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+        writer.writeAttribute(GIRR_VERSION_ATTRIBUTE_NAME, GIRR_VERSION);
+        writeAttribute(TITLE_ATTRIBUTE_NAME, title);
+        writer.writeAttribute(XSI_PREFIX, XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation",
+                GIRR_NAMESPACE + " " + GIRR_SCHEMA_LOCATION_URI);
+
+        Document document = XmlUtils.newDocument(true);
+        Element header = header(remoteSet).toElement(document, false, false, false, false);
+        writeAttributes(header);
+        for (Node node = header.getFirstChild(); node != null; node = node.getNextSibling())
+            writeNode(node);
+        IrpDatabase irpDatabase = remoteSet.getIrpDatabase();
+        if (irpDatabase != null && !irpDatabase.isEmpty())
+            writeNode(irpDatabase.toElement(document));
+        for (Remote remote : remoteSet)
+            write(remote);
+
+        endElement();
+        writer.writeEndDocument();
+        writer.writeCharacters("\n");
+        writer.flush();
+    }
+
+    /**
+     * Returns a RemoteSet with the administrative data of the argument, but without remotes.
+     */
+    private static RemoteSet header(RemoteSet remoteSet) {
+        Map<String, String> notes = new LinkedHashMap<>(4);
+        for (String language : Locale.getISOLanguages()) {
+            String note = remoteSet.getNotes(language);
+            if (note != null)
+                notes.put(language, note);
+        }
+        return new RemoteSet(remoteSet.getCreatingUser(), remoteSet.getSource(), remoteSet.getCreationDate(),
+                remoteSet.getTool(), remoteSet.getToolVersion(), remoteSet.getTool2(), remoteSet.getTool2Version(),
+                notes, new LinkedHashMap<>(0));
+    }
+
+    private void write(Remote remote) throws XMLStreamException, IrpException, IrCoreException, InterruptedException {
+        Element skeleton;
+        // Generating the inheritance parameters of a command set may decode its first command.
+        synchronized (DecoderLock.getLock()) {
+            skeleton = remote.toElement(XmlUtils.newDocument(true), false, false, false, false);
+        }
+        startElement(skeleton);
+        writeAttributes(skeleton);
+        Iterator<CommandSet> commandSets = remote.iterator();
+        for (Node node = skeleton.getFirstChild(); node != null; node = node.getNextSibling())
+            if (isElement(node, COMMANDSET_ELEMENT_NAME))
+                write(commandSets.next(), (Element) node);
+            else
+                writeNode(node);
+        endElement();
+    }
+
+    private void write(CommandSet commandSet, Element skeleton) throws XMLStreamException, IrpException, IrCoreException, InterruptedException {
+        startElement(skeleton);
+        writeAttributes(skeleton);
+        Map<String, String> inheritedParameters = new HashMap<>(4);
+        for (Node node = skeleton.getFirstChild(); node != null; node = node.getNextSibling())
+            if (isElement(node, PARAMETERS_ELEMENT_NAME)) {
+                if (Command.isUseInheritanceForXml())
+                    inheritedParameters = parameters((Element) node);
+                writeNode(node);
+            } else if (!isElement(node, COMMAND_ELEMENT_NAME))
+                writeNode(node);
+
+        List<Command> chunk = new ArrayList<>(ExtraFormatter.CHUNK_SIZE);
+        for (Command command : commandSet) {
+            chunk.add(command);
+            if (chunk.size() == ExtraFormatter.CHUNK_SIZE)
+                write(chunk, inheritedParameters);
+        }
+        write(chunk, inheritedParameters);
+        endElement();
+    }
+
+    private static Map<String, String> parameters(Element parameters) {
+        Map<String, String> result = new HashMap<>(4);
+        for (Node node = parameters.getFirstChild(); node != null; node = node.getNextSibling())
+            if (isElement(node, PARAMETER_ELEMENT_NAME)) {
+                Element parameter = (Element) node;
+                result.put(parameter.getAttribute(NAME_ATTRIBUTE_NAME), parameter.getAttribute(VALUE_ATTRIBUTE_NAME));
+            }
+        return result;
+    }
+
+    private static boolean isElement(Node node, String localName) {
+        return node.getNodeType() == Node.ELEMENT_NODE && localName.equals(node.getLocalName());
+    }
+
+    private void write(List<Command> commands, Map<String, String> inheritedParameters)
+            throws XMLStreamException, IrpException, IrCoreException, InterruptedException {
+        List<String[]> extras = extraFormatter.format(commands);
+        for (int i = 0; i < commands.size(); i++)
+            write(commands.get(i), extras.get(i), inheritedParameters);
+        commands.clear();
+    }
+
+    private void write(Command command, String[] extras, Map<String, String> inheritedParameters)
+            throws XMLStreamException, IrpException, IrCoreException {
+        Document document;
+        synchronized (DecoderLock.getLock()) {
+            document = command.toDocument(null, fatRaw, generateParameters, generateCcf, generateRaw);
+        }
+        Element element = document.getDocumentElement();
+        startElement(COMMAND_ELEMENT_NAME);
+        writeAttributes(element);
+        for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling())
+            if (isElement(node, PARAMETERS_ELEMENT_NAME))
+                writeNode(reduce((Element) node, inheritedParameters));
+            else if (!isReplacedFormat(node))
+                writeNode(node);
+
+        for (int i = 0; i < extraFormats.length; i++) {
+            startElement(FORMAT_ELEMENT_NAME);
+            writer.writeAttribute(NAME_ATTRIBUTE_NAME, extraFormats[i].getName());
+            writer.writeCharacters(extras[i]);
+            endElement();
+        }
+        endElement();
+    }
+
+    /**
+     * Removes the parameters that are inherited from the command set.
+     */
+    private static Element reduce(Element parameters, Map<String, String> inheritedParameters) {
+        Node node = parameters.getFirstChild();
+        while (node != null) {
+            Node next = node.getNextSibling();
+            if (isElement(node, PARAMETER_ELEMENT_NAME)) {
+                Element parameter = (Element) node;
+                if (parameter.getAttribute(VALUE_ATTRIBUTE_NAME).equals(inheritedParameters.get(parameter.getAttribute(NAME_ATTRIBUTE_NAME))))
+                    parameters.removeChild(node);
+            }
+            node = next;
+        }
+        return parameters;
+    }
+
+    private boolean isReplacedFormat(Node node) {
+        return isElement(node, FORMAT_ELEMENT_NAME)
+                && extraFormatNames.contains(((Element) node).getAttribute(NAME_ATTRIBUTE_NAME));
+    }
+
+    private void writeNode(Node node) throws XMLStreamException {
+        switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                Element element = (Element) node;
+                if (!element.hasChildNodes()) {
+                    emptyElement(element);
+                    writeAttributes(element);
+                } else {
+                    startElement(element);
+                    writeAttributes(element);
+                    for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling())
+                        writeNode(child);
+                    endElement();
+                }
+                break;
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+                writer.writeCharacters(node.getNodeValue());
+                break;
+            case Node.COMMENT_NODE:
+                writer.writeComment(node.getNodeValue());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Writes the attributes, leaving out the namespace declarations and the attributes that only belong on the root.
+     */
+    private void writeAttributes(Element element) throws XMLStreamException {
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            String namespace = attribute.getNamespaceURI();
+            if (namespace == null || namespace.isEmpty()) {
+                String name = attribute.getName();
+                if (!name.equals(GIRR_VERSION_ATTRIBUTE_NAME) && !name.equals(TITLE_ATTRIBUTE_NAME)
+                        && !name.startsWith(XMLConstants.XMLNS_ATTRIBUTE) && !name.startsWith(XSI_PREFIX + ":"))
+                    writer.writeAttribute(name, attribute.getValue());
+            } else if (!namespace.equals(XMLConstants.XMLNS_ATTRIBUTE_NS_URI) && !namespace.equals(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI))
+                writer.writeAttribute(prefix(attribute.getPrefix(), namespace), namespace, attribute.getLocalName(), attribute.getValue());
+        }
+    }
+
+    private static String prefix(String prefix, String namespace) {
+        return namespace.equals(XMLConstants.XML_NS_URI) ? XMLConstants.XML_NS_PREFIX
+                : prefix != null ? prefix : "";
+    }
+
+    private void writeAttribute(String name, String value) throws XMLStreamException {
+        if (value != null && !value.isEmpty())
+            writer.writeAttribute(name, value);
+    }
+
+    private void indent() throws XMLStreamException {
+        if (hasChildElements.isEmpty())
+            return;
+        hasChildElements.pop();
+        hasChildElements.push(true);
+        newline(hasChildElements.size());
+    }
+
+    private void newline(int depth) throws XMLStreamException {
+        StringBuilder str = new StringBuilder(1 + INDENT.length() * depth);
+        str.append('\n');
+        for (int i = 0; i < depth; i++)
+            str.append(INDENT);
+        writer.writeCharacters(str.toString());
+    }
+
+    private void startElement(String localName) throws XMLStreamException {
+        indent();
+        writer.writeStartElement(GIRR_NAMESPACE, localName);
+        hasChildElements.push(false);
+    }
+
+    private void startElement(Element element) throws XMLStreamException {
+        indent();
+        String namespace = element.getNamespaceURI();
+        if (namespace == null || namespace.equals(GIRR_NAMESPACE))
+            writer.writeStartElement(GIRR_NAMESPACE, element.getLocalName());
+        else
+            writer.writeStartElement(prefix(element.getPrefix(), namespace), element.getLocalName(), namespace);
+        hasChildElements.push(false);
+    }
+
+    private void emptyElement(String localName) throws XMLStreamException {
+        indent();
+        writer.writeEmptyElement(GIRR_NAMESPACE, localName);
+    }
+
+    private void emptyElement(Element element) throws XMLStreamException {
+        indent();
+        String namespace = element.getNamespaceURI();
+        if (namespace == null || namespace.equals(GIRR_NAMESPACE))
+            writer.writeEmptyElement(GIRR_NAMESPACE, element.getLocalName());
+        else
+            writer.writeEmptyElement(prefix(element.getPrefix(), namespace), element.getLocalName(), namespace);
+    }
+
+    private void endElement() throws XMLStreamException {
+        if (hasChildElements.pop())
+            newline(hasChildElements.size());
+        writer.writeEndElement();
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        extraFormatter.close();
+        writer.close();
+    }
+}
@@ -17,10 +17,16 @@ this program. If not, see http://www.gnu.org/licenses/.
 
 package org.harctoolbox.irscrutinizer.exporter;
 
+import java.io.IOException;
+
 /**
  *
  */
 public interface IExporterFactory {
 
-    public Exporter newExporter();
+    /**
+     * @return The exporter.
+     * @throws IOException if the exporter could not be created, for a dynamic export format if its file is broken, or has been changed.
+     */
+    public Exporter newExporter() throws IOException;
 }
\ No newline at end of file
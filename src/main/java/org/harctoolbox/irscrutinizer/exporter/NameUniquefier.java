@@ -19,10 +19,18 @@ package org.harctoolbox.irscrutinizer.exporter;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Makes names unique by appending separator and a number, if necessary.
+ * The names taken are kept in a hash set, and for every stem the smallest number below which all
+ * decorated names are taken, so that making n equal names unique costs O(n), not O(n^2).
+ */
 public class NameUniquefier {
 
     private final static String DEFAULT_SEPARATOR = "#";
@@ -40,18 +48,20 @@ public class NameUniquefier {
 
     private final String separator;
     private final Pattern pattern;
-    private final List<String> names;
+    private final HashSet<String> names;
+    private final Map<String, Integer> nextNumber;
 
     public NameUniquefier(String separator) {
         this(new ArrayList<String>(0), separator);
     }
-    
+
     public NameUniquefier(Collection<String> oldNames, String separator) {
         this.separator = separator;
         pattern = Pattern.compile(separator + "\\d+$");
-        names = new ArrayList<>(oldNames);
+        names = new HashSet<>(oldNames);
+        nextNumber = new HashMap<>(INIT_CAPACITY);
     }
-    
+
     public NameUniquefier() {
         this(DEFAULT_SEPARATOR);
     }
@@ -90,10 +100,14 @@ public class NameUniquefier {
     }
 
     private String uniq(String stem, int number) {
-        for (int n = number;; n++) {
+        // Names are never removed, so stem#1 ... stem#(next-1) are still taken.
+        int next = nextNumber.getOrDefault(stem, 1);
+        for (int n = Math.max(number, next);; n++) {
             String candidate = decorate(stem, n);
             if (isOk(candidate)) {
                 names.add(candidate);
+                if (number <= next)
+                    nextNumber.put(stem, n + 1);
                 return candidate;
             }
         }
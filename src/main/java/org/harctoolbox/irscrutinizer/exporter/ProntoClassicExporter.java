@@ -40,6 +40,7 @@ import org.harctoolbox.girr.Remote;
 import org.harctoolbox.girr.RemoteSet;
 import org.harctoolbox.ircore.IrCoreException;
 import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 import org.w3c.dom.DocumentFragment;
 
 /**
@@ -150,7 +151,10 @@ public class ProntoClassicExporter extends RemoteSetExporter {
                         b1.setLocation(new Point(xPos, yPos));
                         b1.setSize(new Dimension(buttonWidth, buttonHeight));
                         panel.addButton(b1);
-                        String ccfstring = cmd.getProntoHex();
+                        String ccfstring;
+                        synchronized (DecoderLock.getLock()) {
+                            ccfstring = cmd.getProntoHex();
+                        }
 
                         if ((prontoModel.getModel() == ProntoModel.CUSTOM) || (prontoModel.getCapability() & (1 << 18)) != 0)
                             ccfstring = "0000 0000 0000 " + ccfstring;
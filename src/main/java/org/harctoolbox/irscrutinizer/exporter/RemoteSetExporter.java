@@ -19,17 +19,29 @@ package org.harctoolbox.irscrutinizer.exporter;
 
 import java.awt.Component;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import javax.xml.transform.TransformerException;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.girr.GirrException;
 import org.harctoolbox.girr.Remote;
 import org.harctoolbox.girr.RemoteSet;
 import org.harctoolbox.ircore.IrCoreException;
+import org.harctoolbox.ircore.ThisCannotHappenException;
 import org.harctoolbox.irp.IrpException;
 import org.harctoolbox.irscrutinizer.Version;
 
@@ -53,7 +65,157 @@ public abstract class RemoteSetExporter extends Exporter {
 
     public void export(Remote remote, String title, String source, File saveFile, String charsetName)
             throws IOException, TransformerException, GirrException, IrpException, IrCoreException {
-        RemoteSet remoteSet = new RemoteSet(getCreatingUser(),
+        export(mkRemoteSet(remote, source), title, saveFile, charsetName);
+    }
+
+    /**
+     * Exports every Remote of the RemoteSet to a file of its own, one after the other.
+     * @param remoteSet
+     * @param title
+     * @param exportDir Directory where the files are written.
+     * @param zip If true, put the files in one zip file (named after the source of the RemoteSet) instead.
+     * @param charsetName
+     * @return The files written, or the zip file.
+     * @throws IOException
+     * @throws TransformerException
+     * @throws GirrException
+     * @throws IrpException
+     * @throws IrCoreException
+     */
+    public List<File> exportPerRemote(RemoteSet remoteSet, String title, File exportDir, boolean zip, String charsetName)
+            throws IOException, TransformerException, GirrException, IrpException, IrCoreException {
+        return exportPerRemote(remoteSet, title, exportDir, zip, charsetName, this::export, false);
+    }
+
+    /**
+     * Exports every Remote of the RemoteSet to a file of its own.
+     * Every file is written under a temporary name, and renamed when complete,
+     * so that a failing export does not leave truncated files behind.
+     * Presently, only the batch conversion with --split reaches here.
+     * @param remoteSet
+     * @param title
+     * @param exportDir
+     * @param zip
+     * @param charsetName
+     * @param writer Writes one file.
+     * @param concurrent If true, the writer is called from several threads at once; it must then render
+     * the commands under the {@link org.harctoolbox.irscrutinizer.DecoderLock}.
+     * @return The files written, or the zip file.
+     * @throws IOException
+     * @throws TransformerException
+     * @throws GirrException
+     * @throws IrpException
+     * @throws IrCoreException
+     */
+    protected final List<File> exportPerRemote(RemoteSet remoteSet, String title, File exportDir, boolean zip,
+            String charsetName, RemoteSetWriter writer, boolean concurrent)
+            throws IOException, TransformerException, GirrException, IrpException, IrCoreException {
+        List<Remote> remotes = new ArrayList<>(remoteSet.getRemotes());
+        List<String> remoteNames = new ArrayList<>(remotes.size());
+        for (Remote remote : remotes)
+            remoteNames.add((remote.getName() != null ? remote.getName() : "remote").replaceAll("[^\\w.-]", "_"));
+        List<String> names = NameUniquefier.mkUnique(remoteNames, "_");
+
+        File directory = zip ? Files.createTempDirectory(Version.appName).toFile() : exportDir;
+        List<File> files = new ArrayList<>(remotes.size());
+        for (String name : names)
+            files.add(new File(directory, name + "." + getPreferredFileExtension()));
+
+        try {
+            if (concurrent)
+                exportConcurrently(remoteSet, remotes, files, title, charsetName, writer);
+            else
+                for (int i = 0; i < remotes.size(); i++)
+                    export(writer, mkRemoteSet(remotes.get(i), remoteSet.getSource()), title, files.get(i), charsetName);
+
+            if (!zip)
+                return files;
+
+            String zipName = remoteSet.getSource() != null ? new File(remoteSet.getSource()).getName() : Version.appName;
+            File zipFile = new File(exportDir, zipName.replaceAll("\\.[^.]*$", "") + ".zip");
+            try (ZipOutputStream zipStream = new ZipOutputStream(new FileOutputStream(zipFile))) {
+                for (File file : files) {
+                    zipStream.putNextEntry(new ZipEntry(file.getName()));
+                    Files.copy(file.toPath(), zipStream);
+                    zipStream.closeEntry();
+                }
+            }
+            List<File> result = new ArrayList<>(1);
+            result.add(zipFile);
+            return result;
+        } finally {
+            if (zip) {
+                for (File file : files)
+                    file.delete();
+                directory.delete();
+            }
+        }
+    }
+
+    private void exportConcurrently(RemoteSet remoteSet, List<Remote> remotes, List<File> files, String title, String charsetName, RemoteSetWriter writer)
+            throws IOException, TransformerException, GirrException, IrpException, IrCoreException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(Runtime.getRuntime().availableProcessors(), Math.max(1, remotes.size())));
+        try {
+            List<Future<Void>> tasks = new ArrayList<>(remotes.size());
+            for (int i = 0; i < remotes.size(); i++) {
+                final Remote remote = remotes.get(i);
+                final File file = files.get(i);
+                tasks.add(executor.submit(() -> {
+                    export(writer, mkRemoteSet(remote, remoteSet.getSource()), title, file, charsetName);
+                    return null;
+                }));
+            }
+            for (Future<Void> task : tasks)
+                waitFor(task);
+        } finally {
+            executor.shutdownNow();
+            // Let the remaining writers remove their temporary files before returning.
+            try {
+                executor.awaitTermination(1L, TimeUnit.MINUTES);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void export(RemoteSetWriter writer, RemoteSet remoteSet, String title, File file, String charsetName)
+            throws IOException, TransformerException, GirrException, IrpException, IrCoreException {
+        File temporary = File.createTempFile("." + file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            writer.export(remoteSet, title, temporary, charsetName);
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            temporary.delete(); // nothing left to delete if moved
+        }
+        possiblyMakeExecutable(file);
+    }
+
+    private static void waitFor(Future<Void> task) throws IOException, TransformerException, GirrException, IrpException, IrCoreException {
+        try {
+            task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof TransformerException)
+                throw (TransformerException) cause;
+            if (cause instanceof GirrException)
+                throw (GirrException) cause;
+            if (cause instanceof IrpException)
+                throw (IrpException) cause;
+            if (cause instanceof IrCoreException)
+                throw (IrCoreException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new ThisCannotHappenException(cause);
+        }
+    }
+
+    private RemoteSet mkRemoteSet(Remote remote, String source) {
+        return new RemoteSet(getCreatingUser(),
                 source,
                 Exporter.getDateString(), //java.lang.String creationDate,
                 Version.appName, //java.lang.String tool,
@@ -62,7 +224,6 @@ public abstract class RemoteSetExporter extends Exporter {
                 org.harctoolbox.irp.Version.version, //java.lang.String tool2Version,
                 null, //java.lang.String notes,
                 remote);
-        export(remoteSet, title, saveFile, charsetName);
     }
 
     public void export(Map<String, Command> commands, String source, String title,
@@ -137,4 +298,10 @@ public abstract class RemoteSetExporter extends Exporter {
     public boolean supportsMetaData() {
         return false;
     }
+
+    @FunctionalInterface
+    protected interface RemoteSetWriter {
+        public void export(RemoteSet remoteSet, String title, File saveFile, String charsetName)
+                throws IOException, GirrException, IrpException, IrCoreException, TransformerException;
+    }
 }
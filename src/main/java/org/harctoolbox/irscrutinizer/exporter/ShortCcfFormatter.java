@@ -20,6 +20,7 @@ package org.harctoolbox.irscrutinizer.exporter;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.ircore.IrSignal;
 import org.harctoolbox.irp.ShortPronto;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 
 /**
  * This class formats an IrSignal as a short form CCF format, if possible.
@@ -31,8 +32,13 @@ public class ShortCcfFormatter implements Command.CommandTextFormat {
         return "short-ccf";
     }
 
+    /**
+     * Decodes the signal, so the result is computed under the {@link DecoderLock}.
+     */
     @Override
     public String format(IrSignal irSignal, int count) {
-        return ShortPronto.toString(irSignal, false);
+        synchronized (DecoderLock.getLock()) {
+            return ShortPronto.toString(irSignal, false);
+        }
     }
 }
@@ -17,9 +17,14 @@ this program. If not, see http://www.gnu.org/licenses/.
 
 package org.harctoolbox.irscrutinizer.exporter;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.girr.CommandSet;
 import org.harctoolbox.girr.GirrException;
@@ -27,6 +32,7 @@ import org.harctoolbox.girr.Remote;
 import org.harctoolbox.girr.RemoteSet;
 import org.harctoolbox.ircore.IrCoreException;
 import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 import org.harctoolbox.xml.XmlUtils;
 import org.w3c.dom.DocumentFragment;
 
@@ -75,41 +81,65 @@ public class TextExporter extends RemoteSetExporter {
         return true;
     }
 
+    /**
+     * Writes the commands one chunk at a time, the extra formats of a chunk being computed in parallel.
+     * The extra formats are computed for the writing only, and not added to the commands.
+     */
     @Override
     public void export(RemoteSet remoteSet, String title, File file, String charsetName)
             throws IOException, GirrException, IrCoreException, IrpException {
         if (file != null)
-            try (PrintStream printStream = new PrintStream(file, charsetName)) {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), charsetName), 65536);
+                    ExtraFormatter extraFormatter = new ExtraFormatter(extraFormatters, 1)) {
+                String linefeed = System.getProperty("line.separator", "\n");
+                List<Command> chunk = new ArrayList<>(ExtraFormatter.CHUNK_SIZE);
                 for (Remote remote : remoteSet)
                     for (CommandSet commandSet : remote)
-                        for (Command command : commandSet)
-                            printStream.println(formatCommand(command, 1));
+                        for (Command command : commandSet) {
+                            chunk.add(command);
+                            if (chunk.size() == ExtraFormatter.CHUNK_SIZE)
+                                formatCommands(writer, extraFormatter, chunk, linefeed);
+                        }
+                formatCommands(writer, extraFormatter, chunk, linefeed);
             }
     }
 
-    private String formatCommand(Command command, int count) throws GirrException, IrpException, IrCoreException {
-        StringBuilder str = new StringBuilder(128);
-        String linefeed = System.getProperty("line.separator", "\n");
-        if (generateParameters) {
-            command.checkForParameters();
-            str.append(command.nameProtocolParameterString());
-        } else
-            str.append(command.getName());
-        str.append(linefeed);
-
-        if (generateCcf) {
-            str.append(command.getProntoHex()).append(linefeed);
+    private void formatCommands(Writer writer, ExtraFormatter extraFormatter, List<Command> commands, String linefeed)
+            throws IOException, GirrException, IrpException, IrCoreException {
+        List<String[]> extras;
+        try {
+            extras = extraFormatter.format(commands);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
         }
-        if (generateRaw) {
-            str.append(command.getIntro()).append(linefeed);
-            str.append(command.getRepeat()).append(linefeed);
-            if (command.getEnding() != null && !command.getEnding().isEmpty())
-                str.append(command.getEnding()).append(linefeed);
+        for (int i = 0; i < commands.size(); i++) {
+            formatCommand(writer, commands.get(i), extras.get(i), linefeed);
+            writer.append(linefeed);
         }
-        for (Command.CommandTextFormat formatter : extraFormatters) {
-            command.addFormat(formatter, count);
-            str.append(command.getFormat(formatter.getName())).append(linefeed);
+        commands.clear();
+    }
+
+    private void formatCommand(Writer writer, Command command, String[] extras, String linefeed) throws IOException, GirrException, IrpException, IrCoreException {
+        synchronized (DecoderLock.getLock()) {
+            if (generateParameters) {
+                command.checkForParameters();
+                writer.append(command.nameProtocolParameterString());
+            } else
+                writer.append(command.getName());
+            writer.append(linefeed);
+
+            if (generateCcf) {
+                writer.append(command.getProntoHex()).append(linefeed);
+            }
+            if (generateRaw) {
+                writer.append(command.getIntro()).append(linefeed);
+                writer.append(command.getRepeat()).append(linefeed);
+                if (command.getEnding() != null && !command.getEnding().isEmpty())
+                    writer.append(command.getEnding()).append(linefeed);
+            }
         }
-        return str.toString();
+        for (String extra : extras)
+            writer.append(extra).append(linefeed);
     }
 }
@@ -25,6 +25,7 @@ import org.harctoolbox.harchardware.ir.Wave;
 import org.harctoolbox.ircore.IrCoreException;
 import org.harctoolbox.ircore.ModulatedIrSequence;
 import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 import org.w3c.dom.DocumentFragment;
 
 /**
@@ -96,7 +97,10 @@ public class WaveExporter extends CommandExporter {
 
     @Override
     public void export(Command command, String source, String title, int repeatCount, File file, String charsetName) throws IrpException, IrCoreException, FileNotFoundException {
-        ModulatedIrSequence seq = command.toIrSignal().toModulatedIrSequence(repeatCount);
+        ModulatedIrSequence seq;
+        synchronized (DecoderLock.getLock()) {
+            seq = command.toIrSignal().toModulatedIrSequence(repeatCount);
+        }
         export(seq, file);
         possiblyMakeExecutable(file);
     }
@@ -0,0 +1,197 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer.exporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.harctoolbox.xml.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * The stylesheet of a dynamic export format, compiled into a (thread safe) Templates on first use.
+ * The output is the same as that of XmlUtils.printDOM, which compiles the stylesheet on every invocation;
+ * instead of inserting the values of the parameters into the stylesheet, the parameters are declared
+ * once, and their values are given to the Transformer.
+ * As with XmlUtils.printDOM, if {@link Exporter#isXsltDebug()}, the input, the stylesheet, and a binary result
+ * are written to document.xml, stylesheet-params.xsl, and girr-binary.xml in the current directory.
+ */
+final class XsltTemplates {
+
+    private static final Logger logger = Logger.getLogger(XsltTemplates.class.getName());
+    private static final String XSLT_NAMESPACE = "http://www.w3.org/1999/XSL/Transform";
+    private static final String INDENT_AMOUNT = "{http://xml.apache.org/xslt}indent-amount";
+
+    private final String name;
+    private final Document xslt;
+    private final Collection<String> parameterNames;
+    private final boolean binary;
+    private volatile Templates templates;
+    private long compileTime;
+    private final AtomicLong transformations;
+    private final AtomicLong transformTime;
+
+    /**
+     * @param name Name of the export format, for the statistics.
+     * @param xslt Stylesheet; not modified.
+     * @param parameterNames Names of the top level parameters that are to be declared.
+     * @param binary If true, the output of the stylesheet consists of byte elements, written as bytes.
+     */
+    XsltTemplates(String name, Document xslt, Collection<String> parameterNames, boolean binary) {
+        this.name = name;
+        this.xslt = xslt;
+        this.parameterNames = parameterNames;
+        this.binary = binary;
+        this.templates = null;
+        this.compileTime = -1L;
+        this.transformations = new AtomicLong(0L);
+        this.transformTime = new AtomicLong(0L);
+    }
+
+    private Templates getTemplates() throws TransformerException {
+        Templates result = templates;
+        if (result == null) {
+            synchronized (this) {
+                result = templates;
+                if (result == null) {
+                    long startTime = System.nanoTime();
+                    result = compile();
+                    compileTime = System.nanoTime() - startTime;
+                    logger.log(Level.FINE, "Compiled stylesheet of {0} in {1} ms", new Object[]{name, compileTime / 1000000});
+                    templates = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Templates compile() throws TransformerException {
+        Document stylesheet = stylesheet(null);
+        return TransformerFactory.newInstance().newTemplates(new DOMSource(stylesheet, stylesheet.getDocumentURI()));
+    }
+
+    /**
+     * @param parameters If non-null, the values are given to the declarations, for the debug dump.
+     */
+    private Document stylesheet(Map<String, ?> parameters) {
+        Document stylesheet = (Document) xslt.cloneNode(true);
+        stylesheet.setDocumentURI(xslt.getDocumentURI());
+        Element root = stylesheet.getDocumentElement();
+        for (String parameterName : parameterNames) {
+            Element param = stylesheet.createElementNS(XSLT_NAMESPACE, "xsl:param");
+            param.setAttribute("name", parameterName);
+            if (parameters != null && parameters.get(parameterName) != null)
+                param.setTextContent(parameters.get(parameterName).toString());
+            root.insertBefore(param, root.getFirstChild());
+        }
+        return stylesheet;
+    }
+
+    /**
+     * Writes the document to the file in the current directory. Concurrent transformations write one at a time.
+     */
+    private static void dump(String fileName, Document document) throws IOException {
+        synchronized (XsltTemplates.class) {
+            XmlUtils.printDOM(new File(fileName), document);
+        }
+    }
+
+    /**
+     * Transforms the document, and writes the result to out. May be called concurrently.
+     * @param out
+     * @param document
+     * @param encoding
+     * @param parameters Values of (some of) the declared parameters.
+     * @throws TransformerException
+     * @throws IOException
+     */
+    void transform(OutputStream out, Document document, String encoding, Map<String, ?> parameters) throws TransformerException, IOException {
+        Transformer transformer = getTemplates().newTransformer();
+        boolean debug = Exporter.isXsltDebug();
+        if (debug) {
+            dump("document.xml", document);
+            dump("stylesheet-params.xsl", stylesheet(parameters));
+        }
+        long startTime = System.nanoTime();
+        parameters.forEach((parameterName, value) -> {
+            transformer.setParameter(parameterName, value);
+        });
+        transformer.setOutputProperty(OutputKeys.ENCODING, encoding);
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty(INDENT_AMOUNT, "4");
+        if (binary) {
+            DOMResult result = new DOMResult();
+            transformer.transform(new DOMSource(document), result);
+            if (debug)
+                dump("girr-binary.xml", (Document) result.getNode());
+            NodeList bytes = ((Document) result.getNode()).getDocumentElement().getElementsByTagName("byte");
+            for (int i = 0; i < bytes.getLength(); i++)
+                out.write(Integer.parseInt(bytes.item(i).getTextContent()));
+        } else
+            transformer.transform(new DOMSource(document), new StreamResult(out));
+        transformations.incrementAndGet();
+        transformTime.addAndGet(System.nanoTime() - startTime);
+    }
+
+    boolean isCompiled() {
+        return templates != null;
+    }
+
+    /**
+     * @return Time in nanoseconds for compiling the stylesheet, or -1 if not yet compiled.
+     */
+    synchronized long getCompileTime() {
+        return compileTime;
+    }
+
+    long getTransformations() {
+        return transformations.get();
+    }
+
+    /**
+     * @return Total time in nanoseconds spent in transformations.
+     */
+    long getTransformTime() {
+        return transformTime.get();
+    }
+
+    @Override
+    public String toString() {
+        long count = getTransformations();
+        long compile = getCompileTime();
+        return name + ": "
+                + (compile >= 0 ? String.format("compiled in %.1f ms", compile / 1000000.0) : "not compiled")
+                + ", " + count + " transformations"
+                + (count > 0 ? String.format(", %.1f ms/transformation", getTransformTime() / 1000000.0 / count) : "");
+    }
+}
@@ -0,0 +1,419 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer.importer;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads the files in a zip, gzip, or gzipped tar archive, one after the other, as streams,
+ * without extracting them to disk.
+ * Only regular files are considered; directories, links etc. are skipped.
+ */
+abstract class ArchiveReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * @param filename
+     * @return true if the file name denotes an archive that can be read by this class.
+     */
+    static boolean isArchive(String filename) {
+        String name = filename.toLowerCase(Locale.US);
+        return name.endsWith(".zip") || name.endsWith(".gz") || name.endsWith(".tgz");
+    }
+
+    /**
+     * Opens the archive, as determined by its file name.
+     * @param file
+     * @return ArchiveReader positioned before the first file.
+     * @throws IOException
+     */
+    static ArchiveReader open(File file) throws IOException {
+        String name = file.getName().toLowerCase(Locale.US);
+        if (name.endsWith(".zip"))
+            return new Zip(file);
+
+        InputStream inputStream = new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE);
+        return name.endsWith(".tar.gz") || name.endsWith(".tgz")
+                ? new Tar(inputStream)
+                : new Single(inputStream, file.getName().substring(0, file.getName().length() - ".gz".length()));
+    }
+
+    private static boolean matches(String name, String extension) {
+        return extension == null || name.toLowerCase(Locale.US).endsWith(extension);
+    }
+
+    private int count = 0;
+
+    /**
+     * Advances to the next file in the archive.
+     * @return Its name, or null if there are no more.
+     * @throws IOException
+     */
+    final String next() throws IOException {
+        String name = advance();
+        if (name != null)
+            count++;
+        return name;
+    }
+
+    /**
+     * Advances to the next file with a name ending with the extension.
+     * @param extension Extension, without leading period, or null, matching all files.
+     * @return Its name, or null if there are no more.
+     * @throws IOException
+     */
+    final String nextMatch(String extension) throws IOException {
+        for (String name = next(); name != null; name = next())
+            if (matches(name, extension))
+                return name;
+        return null;
+    }
+
+    /**
+     * @return Number of files advanced to so far.
+     */
+    final int getCount() {
+        return count;
+    }
+
+    protected abstract String advance() throws IOException;
+
+    /**
+     * Returns the content of the current file. Closing it does not close the archive.
+     * @return InputStream
+     * @throws IOException
+     */
+    abstract InputStream getInputStream() throws IOException;
+
+    private static final class Zip extends ArchiveReader {
+
+        private final ZipFile zipFile;
+        private final Enumeration<? extends ZipEntry> entries;
+        private ZipEntry current;
+
+        Zip(File file) throws IOException {
+            zipFile = new ZipFile(file, ZipFile.OPEN_READ);
+            entries = zipFile.entries();
+            current = null;
+        }
+
+        @Override
+        protected String advance() {
+            while (entries.hasMoreElements()) {
+                current = entries.nextElement();
+                if (!current.isDirectory())
+                    return current.getName();
+            }
+            current = null;
+            return null;
+        }
+
+        @Override
+        InputStream getInputStream() throws IOException {
+            return zipFile.getInputStream(current);
+        }
+
+        @Override
+        public void close() throws IOException {
+            zipFile.close();
+        }
+    }
+
+    /**
+     * A gzipped single file.
+     */
+    private static final class Single extends ArchiveReader {
+
+        private final InputStream inputStream;
+        private final String name;
+
+        Single(InputStream inputStream, String name) {
+            this.inputStream = inputStream;
+            this.name = name;
+        }
+
+        @Override
+        protected String advance() {
+            return getCount() == 0 ? name : null;
+        }
+
+        @Override
+        InputStream getInputStream() {
+            return new EntryInputStream(inputStream, Long.MAX_VALUE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Tar archive, in ustar format, with GNU or pax long names.
+     */
+    private static final class Tar extends ArchiveReader {
+
+        private static final int BLOCK_SIZE = 512;
+        private static final int NAME_OFFSET = 0;
+        private static final int NAME_LENGTH = 100;
+        private static final int SIZE_OFFSET = 124;
+        private static final int SIZE_LENGTH = 12;
+        private static final int TYPE_OFFSET = 156;
+        private static final int MAGIC_OFFSET = 257;
+        private static final int PREFIX_OFFSET = 345;
+        private static final int PREFIX_LENGTH = 155;
+        private static final String USTAR_MAGIC = "ustar";
+        private static final String PAX_PATH = "path";
+
+        private static String string(byte[] block, int offset, int length) {
+            int end = offset;
+            while (end < offset + length && block[end] != 0)
+                end++;
+            return new String(block, offset, end - offset, StandardCharsets.UTF_8);
+        }
+
+        private static long size(byte[] block) throws IOException {
+            if ((block[SIZE_OFFSET] & 0x80) != 0) { // GNU base-256 encoding
+                long size = 0L;
+                for (int i = SIZE_OFFSET + 1; i < SIZE_OFFSET + SIZE_LENGTH; i++)
+                    size = (size << 8) | (block[i] & 0xFF);
+                return size;
+            }
+            String octal = string(block, SIZE_OFFSET, SIZE_LENGTH).trim();
+            try {
+                return octal.isEmpty() ? 0L : Long.parseLong(octal, 8);
+            } catch (NumberFormatException ex) {
+                throw new IOException("Invalid tar header: " + ex.getMessage());
+            }
+        }
+
+        private static boolean isZero(byte[] block) {
+            for (byte b : block)
+                if (b != 0)
+                    return false;
+            return true;
+        }
+
+        /**
+         * Extracts the path from the records "length key=value\n" of a pax extended header.
+         */
+        private static String paxPath(byte[] data) {
+            String records = new String(data, StandardCharsets.UTF_8);
+            int index = 0;
+            while (index < records.length()) {
+                int space = records.indexOf(' ', index);
+                if (space < 0)
+                    break;
+                int length;
+                try {
+                    length = Integer.parseInt(records.substring(index, space));
+                } catch (NumberFormatException ex) {
+                    break;
+                }
+                if (length <= 0 || index + length > records.length())
+                    break;
+                String record = records.substring(space + 1, index + length - 1);
+                if (record.startsWith(PAX_PATH + "="))
+                    return record.substring(PAX_PATH.length() + 1);
+                index += length;
+            }
+            return null;
+        }
+
+        private final InputStream inputStream;
+        private final byte[] block;
+        private EntryInputStream current;
+
+        Tar(InputStream inputStream) {
+            this.inputStream = new BufferedInputStream(inputStream, BUFFER_SIZE);
+            this.block = new byte[BLOCK_SIZE];
+            this.current = null;
+        }
+
+        @Override
+        protected String advance() throws IOException {
+            String longName = null;
+            while (true) {
+                skipCurrent();
+                if (!readBlock() || isZero(block))
+                    return null;
+
+                long size = size(block);
+                char type = (char) block[TYPE_OFFSET];
+                current = new EntryInputStream(inputStream, size);
+                switch (type) {
+                    case 'L': // GNU long name of the next entry
+                        longName = string(readCurrent(size), 0, (int) size);
+                        break;
+                    case 'x': // pax extended header of the next entry
+                        String path = paxPath(readCurrent(size));
+                        if (path != null)
+                            longName = path;
+                        break;
+                    case '0':
+                    case '\0':
+                    case '7':
+                        if (longName != null)
+                            return longName;
+                        String name = string(block, NAME_OFFSET, NAME_LENGTH);
+                        String prefix = string(block, MAGIC_OFFSET, USTAR_MAGIC.length()).equals(USTAR_MAGIC)
+                                ? string(block, PREFIX_OFFSET, PREFIX_LENGTH) : "";
+                        return prefix.isEmpty() ? name : prefix + "/" + name;
+                    default: // directories, links, devices, global headers etc.
+                        longName = null;
+                        break;
+                }
+            }
+        }
+
+        private boolean readBlock() throws IOException {
+            int length = 0;
+            while (length < BLOCK_SIZE) {
+                int n = inputStream.read(block, length, BLOCK_SIZE - length);
+                if (n < 0) {
+                    if (length == 0)
+                        return false;
+                    throw new EOFException("Truncated tar archive");
+                }
+                length += n;
+            }
+            return true;
+        }
+
+        private byte[] readCurrent(long size) throws IOException {
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("Invalid tar header: extended header too long");
+            byte[] data = new byte[(int) size];
+            int length = 0;
+            while (length < data.length) {
+                int n = current.read(data, length, data.length - length);
+                if (n < 0)
+                    throw new EOFException("Truncated tar archive");
+                length += n;
+            }
+            return data;
+        }
+
+        /**
+         * Skips the rest of the current entry, including the padding to the next block.
+         */
+        private void skipCurrent() throws IOException {
+            if (current == null)
+                return;
+            long padding = (BLOCK_SIZE - current.size % BLOCK_SIZE) % BLOCK_SIZE;
+            skipFully(current.remaining + padding);
+            current.remaining = 0L;
+            current = null;
+        }
+
+        private void skipFully(long n) throws IOException {
+            long left = n;
+            while (left > 0) {
+                long skipped = inputStream.skip(left);
+                if (skipped <= 0) {
+                    if (inputStream.read() < 0)
+                        throw new EOFException("Truncated tar archive");
+                    skipped = 1;
+                }
+                left -= skipped;
+            }
+        }
+
+        @Override
+        InputStream getInputStream() {
+            return current;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * View of at most size bytes of the underlying stream, that does not close it.
+     */
+    private static final class EntryInputStream extends FilterInputStream {
+
+        private final long size;
+        private long remaining;
+
+        EntryInputStream(InputStream inputStream, long size) {
+            super(inputStream);
+            this.size = size;
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0)
+                return -1;
+            int b = in.read();
+            if (b >= 0)
+                remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0)
+                return -1;
+            int n = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (n > 0)
+                remaining -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            if (skipped > 0)
+                remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // the archive is closed by its owner
+        }
+    }
+}
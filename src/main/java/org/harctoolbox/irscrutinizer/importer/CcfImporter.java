@@ -30,6 +30,7 @@ import com.neuron.app.tonto.ProntoModel;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -165,6 +166,12 @@ public class CcfImporter extends RemoteSetImporter implements IFileImporter {
         load(ccf, origin);
     }
 
+    // The file is read randomly, so it has to be extracted from an archive.
+    @Override
+    protected void loadArchiveEntry(InputStream inputStream, String origin, String charsetName) throws IOException, ParseException, InvalidArgumentException {
+        loadViaTemporaryFile(inputStream, origin, charsetName);
+    }
+
     private void load(CCF ccf, String origin) throws IOException {
         prepareLoad(origin);
         Map<String,Remote> remotes = new HashMap<>(16);
@@ -17,17 +17,27 @@ this program. If not, see http://www.gnu.org/licenses/.
 
 package org.harctoolbox.irscrutinizer.importer;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.harctoolbox.girr.Command;
@@ -35,6 +45,7 @@ import org.harctoolbox.girr.Remote;
 import org.harctoolbox.girr.RemoteSet;
 import org.harctoolbox.ircore.InvalidArgumentException;
 import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ThisCannotHappenException;
 import org.harctoolbox.irscrutinizer.Version;
 
 /**
@@ -45,6 +56,12 @@ public class CmlImporter extends RemoteSetImporter implements IFileImporter, Ser
     private static final int remoteToken = 0xbbbbbbbb;
     private static final int commandToken = 0xcccccccc;
     private static final int EOF = -1;
+    private static final byte REMOTE_TOKEN_BYTE = (byte) 0xbb;
+    private static final byte COMMAND_TOKEN_BYTE = (byte) 0xcc;
+    private static final int TOKEN_LENGTH = 4;
+    private static final int REMOTE_HEADER_LENGTH = 12;
+    private static final int COMMAND_HEADER_LENGTH = 23;
+    private static final int STRING_LENGTH = 21;
 
     public static void main(String[] args) {
 
@@ -69,33 +86,38 @@ public class CmlImporter extends RemoteSetImporter implements IFileImporter, Ser
 
     @Override
     public void load(File file, String origin, String charsetName) throws IOException, InvalidArgumentException {
-        try (FileInputStream fileInputStream = new FileInputStream(file)) {
-            load(fileInputStream, origin, charsetName);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            load(channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()), origin, charsetName);
         }
     }
 
     @Override
     public void load(InputStream reader, String origin, String charsetName) throws IOException, InvalidArgumentException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(65536);
+        byte[] buf = new byte[65536];
+        for (int n = reader.read(buf); n != EOF; n = reader.read(buf))
+            bytes.write(buf, 0, n);
+        load(ByteBuffer.wrap(bytes.toByteArray()), origin, charsetName);
+    }
+
+    private void load(ByteBuffer buffer, String origin, String charsetName) throws IOException, InvalidArgumentException {
         charactersetName = charsetName;
         prepareLoad(origin);
-        remoteSet = parseRemoteSet(reader, origin);
+        remoteSet = parseRemoteSet(buffer, origin);
         setupCommands();
     }
 
-    private RemoteSet parseRemoteSet(InputStream inputStream, String origin) throws IOException, InvalidArgumentException {
+    /**
+     * Parses the file in two passes: first the positions of the remotes and their commands are located,
+     * which requires only the lengths in the command headers, then the remotes are decoded concurrently.
+     */
+    private RemoteSet parseRemoteSet(ByteBuffer buffer, String origin) throws IOException, InvalidArgumentException {
+        List<RemoteLocation> locations = locateRemotes(buffer);
+        List<Remote> decoded = decodeRemotes(buffer, locations);
         Map<String, Remote> remotes = new HashMap<>(64);
-        while (true) {
-            int token = searchToken(inputStream);
-            if (token == remoteToken)
-                break;
-            if (token == 0)
-                throw new InvalidArgumentException("Erroneous CML file");
-        }
-        while (inputStream.available() > 0) {
-            Remote remote = parseRemote(inputStream);
+        for (Remote remote : decoded)
             if (remote != null)
                 remotes.put(remote.getName(), remote);
-        }
 
         remoteSet = new RemoteSet(getCreatingUser(),
                  origin, //java.lang.String source,
@@ -109,38 +131,113 @@ public class CmlImporter extends RemoteSetImporter implements IFileImporter, Ser
         return remoteSet;
     }
 
-    private int searchToken(InputStream inputStream) throws IOException {
-        int noHitsRemote = 0;
-        int noHitsCommand = 0;
+    private List<RemoteLocation> locateRemotes(ByteBuffer buffer) throws IOException, InvalidArgumentException {
+        Cursor cursor = new Cursor(buffer);
         while (true) {
-            int b = inputStream.read();
-            if (b == EOF)
-                return 0;
-            noHitsRemote = (b == 0xbb) ? noHitsRemote + 1 : 0;
-            noHitsCommand = (b == 0xcc) ? noHitsCommand + 1 : 0;
-            if (noHitsRemote == 4)
-                return remoteToken;
-            if (noHitsCommand == 4)
-                return commandToken;
+            int token = searchToken(cursor);
+            if (token == remoteToken)
+                break;
+            if (token == 0)
+                throw new InvalidArgumentException("Erroneous CML file");
+        }
+        List<RemoteLocation> locations = new ArrayList<>(64);
+        while (cursor.available() > 0) {
+            int start = cursor.position;
+            if (cursor.available() < REMOTE_HEADER_LENGTH) {
+                cursor.position = cursor.limit;
+                break;
+            }
+            cursor.position += REMOTE_HEADER_LENGTH;
+            cursor.require(3 * STRING_LENGTH);
+            cursor.position += 3 * STRING_LENGTH;
+            RemoteLocation location = new RemoteLocation(start);
+            while (searchToken(cursor) == commandToken) {
+                location.commands.add(cursor.position);
+                cursor.require(COMMAND_HEADER_LENGTH + STRING_LENGTH);
+                int noTimings = cursor.unsigned(cursor.position + 11);
+                int totalLength = cursor.unsignedShort(cursor.position + 12) + cursor.unsignedShort(cursor.position + 14);
+                cursor.position += COMMAND_HEADER_LENGTH + STRING_LENGTH;
+                if (noTimings != 0) {
+                    cursor.require(3 * noTimings + totalLength);
+                    cursor.position += 3 * noTimings + totalLength;
+                }
+            }
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    private List<Remote> decodeRemotes(ByteBuffer buffer, List<RemoteLocation> locations) throws IOException, InvalidArgumentException {
+        List<Remote> remotes = new ArrayList<>(locations.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(Runtime.getRuntime().availableProcessors(), Math.max(1, locations.size())));
+        try {
+            List<Future<Remote>> tasks = new ArrayList<>(locations.size());
+            for (RemoteLocation location : locations)
+                tasks.add(executor.submit(() -> parseRemote(new Cursor(buffer), location)));
+            for (Future<Remote> task : tasks)
+                remotes.add(waitFor(task));
+        } finally {
+            executor.shutdownNow();
+        }
+        return remotes;
+    }
+
+    private static Remote waitFor(Future<Remote> task) throws IOException, InvalidArgumentException {
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof InvalidArgumentException)
+                throw (InvalidArgumentException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new ThisCannotHappenException(cause);
         }
     }
 
+    /**
+     * Finds the next run of four remote or command token bytes, and positions the cursor after it.
+     * Since a token must contain every fourth byte, the search advances four bytes at a time
+     * as long as it hits bytes belonging to neither token.
+     * @return The token found, or 0 if none, in which case the cursor is at the end.
+     */
+    private static int searchToken(Cursor cursor) {
+        int end = cursor.position + TOKEN_LENGTH - 1;
+        while (end < cursor.limit) {
+            byte b = cursor.buffer.get(end);
+            if (b != REMOTE_TOKEN_BYTE && b != COMMAND_TOKEN_BYTE) {
+                end += TOKEN_LENGTH;
+                continue;
+            }
+            int start = end;
+            while (start > cursor.position && end - start < TOKEN_LENGTH - 1 && cursor.buffer.get(start - 1) == b)
+                start--;
+            if (end - start == TOKEN_LENGTH - 1) {
+                cursor.position = end + 1;
+                return b == REMOTE_TOKEN_BYTE ? remoteToken : commandToken;
+            }
+            end = start - 1 + TOKEN_LENGTH;
+        }
+        cursor.position = cursor.limit;
+        return 0;
+    }
+
     @SuppressWarnings("UseOfSystemOutOrSystemErr")
-    private Remote parseRemote(InputStream inputStream) throws IOException, InvalidArgumentException {
-        long status = inputStream.skip(12);
-        if (status != 12)
-            return null;//throw new IOException("to short skip");
-
-        String vendor = getString(inputStream, 21);
-        String kind = getString(inputStream, 21);
-        String model = getString(inputStream, 21);
+    private Remote parseRemote(Cursor cursor, RemoteLocation location) throws IOException, InvalidArgumentException {
+        cursor.position = location.start + REMOTE_HEADER_LENGTH;
+        String vendor = getString(cursor);
+        String kind = getString(cursor);
+        String model = getString(cursor);
         String remoteName = vendor + "_" + kind + "_" + model;
         Map<String, Command> commands = new LinkedHashMap<>(32);
-        while (true) {
-            int token = searchToken(inputStream);
-            if (token != commandToken)
-                break;
-            Command command = parseCommand(inputStream, remoteName);
+        for (int start : location.commands) {
+            cursor.position = start;
+            Command command = parseCommand(cursor, remoteName);
             if (command != null)
                 commands.put(command.getName(), command);
         }
@@ -153,35 +250,32 @@ public class CmlImporter extends RemoteSetImporter implements IFileImporter, Ser
     }
 
     @SuppressWarnings("UseOfSystemOutOrSystemErr")
-    private Command parseCommand(InputStream inputStream, String remoteName) throws IOException, InvalidArgumentException {
-        byte[] x = getBytes(inputStream, 23);
-        int wav = byte2unsigned(x[9]) + 256 * byte2unsigned(x[10]);
+    private Command parseCommand(Cursor cursor, String remoteName) throws IOException, InvalidArgumentException {
+        int header = cursor.position;
+        int wav = cursor.unsignedShort(header + 9);
         int frequency = wav != 0 ? 1000000000 / wav : 0;
-        int noTimings = byte2unsigned(x[11]);
-        int introLength = byte2unsigned(x[12]) + 256 * byte2unsigned(x[13]);
-        int repeatLength = byte2unsigned(x[14]) + 256 * byte2unsigned(x[15]);
+        int noTimings = cursor.unsigned(header + 11);
+        int introLength = cursor.unsignedShort(header + 12);
+        int repeatLength = cursor.unsignedShort(header + 14);
+        cursor.position += COMMAND_HEADER_LENGTH;
 
-        String commandName = getString(inputStream, 21);
+        String commandName = getString(cursor);
         if (noTimings == 0)
             return null;
 
-        byte[][] timingData = new byte[noTimings][3];
-        for (int i = 0; i < noTimings; i++) {
-            int status = inputStream.read(timingData[i], 0, 3);
-            if (status != 3)
-                throw new IOException("too short read");
-        }
         int timingsTable[] = new int[noTimings];
         for (int i = 0; i < noTimings; i++) {
-            byte[] v = timingData[i];
-            timingsTable[i] = (byte2unsigned(v[2]) + 1) * 32768 - byte2unsigned(v[0]) / 2 - 128 * byte2unsigned(v[1]);
+            int v = cursor.position + 3 * i;
+            timingsTable[i] = (cursor.unsigned(v + 2) + 1) * 32768 - cursor.unsigned(v) / 2 - 128 * cursor.unsigned(v + 1);
         }
+        cursor.position += 3 * noTimings;
 
         int totalLength = introLength + repeatLength;
         int[] timingsMicroseconds = new int[totalLength];
-        byte[] encodedDuration = getBytes(inputStream, totalLength);
         for (int i = 0; i < totalLength; i++) {
-            int index = byte2unsigned(encodedDuration[i]) - 1;
+            int index = cursor.unsigned(cursor.position + i) - 1;
+            if (index < 0 || index >= noTimings)
+                throw new InvalidArgumentException(String.format("%s/%s: invalid timing index %d", remoteName, commandName, index + 1));
             timingsMicroseconds[i] = timingsTable[index];
         }
         if (((introLength & 1) != 0) || ((repeatLength & 1) != 0)) {
@@ -192,27 +286,24 @@ public class CmlImporter extends RemoteSetImporter implements IFileImporter, Ser
         return new Command(commandName, null, irSignal);
     }
 
-
-    private byte[] getBytes(InputStream in, int length) throws IOException {
-        byte buf[] = new byte[length];
-        int status = in.read(buf, 0, length);
-        if (status != length)
-            throw new IOException("too short read");
-        return buf;
-    }
-
-    private String getString(InputStream in, int length) throws IOException {
-        byte buf[] = getBytes(in, length);
+    private String getString(Cursor cursor) throws IOException {
+        byte buf[] = cursor.getBytes(STRING_LENGTH);
         String str = new String(buf, charactersetName); //throws UnsupportedEncodingException, subclass of IOException
         int n = str.indexOf(0);
         return n == -1 ? str.trim() : str.substring(0, n).trim();
     }
 
     // WHY on earth should this be necessary????????
-    int byte2unsigned(byte x) {
+    static int byte2unsigned(byte x) {
         return x >= 0 ? x : x + 256;
     }
 
+    // The commands are created from raw signals only.
+    @Override
+    public boolean isConcurrentLoadSafe() {
+        return true;
+    }
+
     @Override
     public boolean canImportDirectories() {
         return false;
@@ -229,4 +320,56 @@ public class CmlImporter extends RemoteSetImporter implements IFileImporter, Ser
     public String getFormatName() {
         return "CML";
     }
+
+    /**
+     * Read position in a buffer. The buffer is accessed with absolute indices only, so that
+     * several cursors can share a buffer across threads.
+     */
+    private static final class Cursor {
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int position;
+
+        Cursor(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+            this.position = 0;
+        }
+
+        int available() {
+            return limit - position;
+        }
+
+        void require(int length) throws IOException {
+            if (available() < length)
+                throw new IOException("too short read");
+        }
+
+        int unsigned(int index) {
+            return byte2unsigned(buffer.get(index));
+        }
+
+        int unsignedShort(int index) {
+            return unsigned(index) + 256 * unsigned(index + 1);
+        }
+
+        byte[] getBytes(int length) throws IOException {
+            require(length);
+            byte[] buf = new byte[length];
+            for (int i = 0; i < length; i++)
+                buf[i] = buffer.get(position + i);
+            position += length;
+            return buf;
+        }
+    }
+
+    private static final class RemoteLocation {
+        private final int start;
+        private final List<Integer> commands;
+
+        RemoteLocation(int start) {
+            this.start = start;
+            this.commands = new ArrayList<>(32);
+        }
+    }
 }
@@ -146,11 +146,12 @@ public class CsvParametrizedImporter extends CsvImporter {
                 || nameColumn < sColumn || nameColumn < fColumn;
         lineNo = 1;
         BufferedReader bufferedReader = new BufferedReader(reader);
+        CsvTokenizer tokenizer = new CsvTokenizer(separator, true);
         while (true) {
             String line = bufferedReader.readLine();
             if (line == null)
                 break;
-            String[] chunks = line.split(separator);
+            String[] chunks = tokenizer.split(line);
             try {
                 Command command = scrutinizeParameters(chunks, "Line " + lineNo + ", " + origin, rejectNumbers);
                 if (command != null)
@@ -24,12 +24,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Reader;
 import java.text.ParseException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.girr.GirrException;
 import org.harctoolbox.ircore.InvalidArgumentException;
@@ -101,48 +98,15 @@ public class CsvRawImporter extends CsvImporter {
         }
     }
 
-    // This is probably quite inefficient. Better would be to copy
-    // String.split and make the necessary fixes to it.
-    private String[] csvSplit(String line, String separator) {
-        StringBuilder str = new StringBuilder(line.trim());
-        ArrayList<String> chunks = new ArrayList<>(16);
-        Pattern pattern = Pattern.compile(separator);
-
-        while (str.length() > 0) {
-            if (str.length() >= separator.length() && separator.equals(str.substring(0, separator.length())))
-                str.delete(0, separator.length());
-            while (str.length() > 0 && Character.isWhitespace(str.charAt(0))) {
-                str.deleteCharAt(0);
-            }
-            String chunk;
-            if (str.length() > 0 && str.charAt(0) == '"') {
-                int n = str.indexOf("\"", 1);
-                chunk = str.substring(1, n);
-                str.delete(0, n+1);
-            } else {
-                Matcher matcher = pattern.matcher(str);
-                boolean success = matcher.find();
-                if (success) {
-                    chunk = str.substring(0, matcher.start());
-                    str.delete(0, matcher.end());
-                } else {
-                    chunk = str.toString();
-                    str.setLength(0);
-                }
-            }
-            chunks.add(chunk.trim());
-        }
-        return chunks.toArray(new String[0]);
-    }
-
     @Override
     public void load(Reader reader, String origin) throws IOException {
         prepareLoad(origin);
         boolean rejectNumbers = nameColumn < codeColumn;
         BufferedReader bufferedReader = new BufferedReader(reader);
+        CsvTokenizer tokenizer = new CsvTokenizer(separator, false);
         lineNo = 1;
         for (String line = bufferedReader.readLine(); line != null; line = bufferedReader.readLine()) {
-            String[] chunks = csvSplit(line, separator);
+            String[] chunks = tokenizer.split(line);
             Command signal = scrutinizeRaw(chunks, rejectNumbers);
             if (signal != null) {
                 addCommand(signal);
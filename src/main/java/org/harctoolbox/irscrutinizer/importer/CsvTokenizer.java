@@ -0,0 +1,182 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer.importer;
+
+import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits lines of delimited text into fields, scanning every line once.
+ * The separators of {@link CsvImporter} are recognized without regular expressions;
+ * other separators are taken as regular expressions, compiled once.
+ * A field starting with a double quote extends to the closing quote, and may thus contain the separator.
+ * An instance reuses its buffers, and is therefore not thread safe.
+ */
+final class CsvTokenizer {
+
+    private static final String WHITESPACE_SEPARATOR = "\\s+";
+    private static final String[] EMPTY = new String[0];
+
+    /**
+     * Characters matched by \s in a regular expression.
+     */
+    private static boolean isRegexpWhitespace(char ch) {
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+    }
+
+    private final String separator;
+    private final boolean keepEmptyFields;
+    private final char separatorChar;
+    private final boolean whitespace;
+    private final Matcher matcher;
+    private final ArrayList<String> fields;
+    private int separatorEnd;
+
+    /**
+     * @param separator One of the separators of {@link CsvImporter}, or a regular expression.
+     * @param keepEmptyFields If true, split like {@link String#split(String)}: every separator ends a field,
+     * fields are returned untrimmed, including their quotes, and trailing empty fields are dropped.
+     * Otherwise, leading and trailing white space of the line and of the fields, as well as the quotes, are removed,
+     * and a separator directly following another one, or a quoted field, is ignored.
+     */
+    CsvTokenizer(String separator, boolean keepEmptyFields) {
+        this.separator = separator;
+        this.keepEmptyFields = keepEmptyFields;
+        this.whitespace = separator.equals(WHITESPACE_SEPARATOR);
+        this.separatorChar = separator.length() == 1 ? separator.charAt(0) : '\0';
+        this.matcher = whitespace || separator.length() == 1 ? null : Pattern.compile(separator).matcher("");
+        this.fields = new ArrayList<>(16);
+        this.separatorEnd = 0;
+    }
+
+    String getSeparator() {
+        return separator;
+    }
+
+    /**
+     * @param line
+     * @return The fields of the line.
+     */
+    String[] split(String line) {
+        fields.clear();
+        if (keepEmptyFields)
+            splitKeepingEmpty(line);
+        else
+            splitLoose(line);
+        return fields.toArray(EMPTY);
+    }
+
+    private void splitLoose(String line) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) <= ' ')
+            end--;
+        int index = 0;
+        while (index < end && line.charAt(index) <= ' ')
+            index++;
+
+        while (index < end) {
+            if (line.startsWith(separator, index))
+                index += separator.length();
+            while (index < end && Character.isWhitespace(line.charAt(index)))
+                index++;
+            if (index < end && line.charAt(index) == '"') {
+                int closing = line.indexOf('"', index + 1);
+                if (closing < 0) {
+                    addTrimmed(line, index + 1, end);
+                    index = end;
+                } else {
+                    addTrimmed(line, index + 1, closing);
+                    index = closing + 1;
+                }
+            } else {
+                int position = findSeparator(line, index, end);
+                if (position >= 0) {
+                    addTrimmed(line, index, position);
+                    index = separatorEnd;
+                } else {
+                    addTrimmed(line, index, end);
+                    index = end;
+                }
+            }
+        }
+    }
+
+    private void splitKeepingEmpty(String line) {
+        int end = line.length();
+        int index = 0;
+        while (true) {
+            int scanFrom = index;
+            if (index < end && line.charAt(index) == '"') {
+                int closing = line.indexOf('"', index + 1);
+                scanFrom = closing < 0 ? end : closing + 1;
+            }
+            int position = findSeparator(line, scanFrom, end);
+            if (position < 0) {
+                fields.add(index == 0 ? line : line.substring(index, end));
+                break;
+            }
+            fields.add(line.substring(index, position));
+            index = separatorEnd;
+        }
+
+        if (fields.size() > 1)
+            for (int i = fields.size() - 1; i >= 0 && fields.get(i).isEmpty(); i--)
+                fields.remove(i);
+    }
+
+    private void addTrimmed(String line, int begin, int end) {
+        while (begin < end && line.charAt(begin) <= ' ')
+            begin++;
+        while (end > begin && line.charAt(end - 1) <= ' ')
+            end--;
+        fields.add(line.substring(begin, end));
+    }
+
+    /**
+     * Finds the next separator in line[from, end).
+     * @return Its start, or -1 if none found; its end is stored in separatorEnd.
+     */
+    private int findSeparator(String line, int from, int end) {
+        if (whitespace) {
+            for (int i = from; i < end; i++) {
+                if (isRegexpWhitespace(line.charAt(i))) {
+                    int j = i + 1;
+                    while (j < end && isRegexpWhitespace(line.charAt(j)))
+                        j++;
+                    separatorEnd = j;
+                    return i;
+                }
+            }
+            return -1;
+        } else if (matcher == null) {
+            int position = line.indexOf(separatorChar, from);
+            if (position < 0 || position >= end)
+                return -1;
+            separatorEnd = position + 1;
+            return position;
+        } else {
+            matcher.reset(line);
+            matcher.region(from, end);
+            if (!matcher.find())
+                return -1;
+            separatorEnd = matcher.end();
+            return matcher.start();
+        }
+    }
+}
@@ -25,10 +25,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.text.ParseException;
-import java.util.Enumeration;
-import java.util.Locale;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import javax.swing.JFileChooser;
 import org.harctoolbox.guicomponents.SelectFile;
 import org.harctoolbox.ircore.InvalidArgumentException;
@@ -91,80 +89,98 @@ public abstract class FileImporter extends Importer {
         }
     }
 
-    // Reason there is no version returning an InputStream: Such an InputStream would
-    // close when the zip file is closed; i.e. the zip file has to be left open,
-    // and the caller has to take responsibility for somehow closing the zip file.
-    // A reasonably clean solution would be to have a protected class for the zip file
-    // -- just not worth it.
+    /**
+     * Loads the file, or, if it is a zip, gzip, or gzipped tar archive, its content.
+     * The archive is read as a stream, without extracting its content to disk.
+     * @param file
+     * @param charsetName
+     * @throws IOException
+     * @throws FileNotFoundException
+     * @throws ParseException
+     * @throws InvalidArgumentException
+     */
     public void possiblyZipLoad(File file, String charsetName) throws IOException, FileNotFoundException, ParseException, InvalidArgumentException {
-        if (file.getName().toLowerCase(Locale.US).endsWith(".zip")) {
-            String extension = getFileExtensions()[0][1];
-            File tmpFile = unzipFirstMatch(file, extension);
-            boolean success;
-            // I do not understand when File.delete throws an exception,
-            // and when it just returns false.
-            // Better to be on the safe side...
-            try {
-                load(tmpFile, file.getPath(), charsetName);
-            } finally {
-
-                success = tmpFile.delete();
-            }
-            if (!success)
-                throw new IOException("Deletion of temporary file " + file.getAbsolutePath() + " failed.");
+        if (ArchiveReader.isArchive(file.getName())) {
+            if (!file.exists())
+                throw new FileNotFoundException();
+            loadArchive(file, charsetName);
         } else
             load(file, charsetName);
     }
 
-    private File unzipFirstMatch(File file, String extension) throws IOException {
-        ZipFile zip = new ZipFile(file, ZipFile.OPEN_READ);
-        String payload = null;
-        ZipEntry entry = null;
-        int index = 0;
-        for (Enumeration<? extends ZipEntry> enumeration = zip.entries();
-                payload == null && enumeration.hasMoreElements();) {
-            entry = enumeration.nextElement();
-            if (extension == null
-                    || (index == 0 && !enumeration.hasMoreElements()) // first and only element
-                    || entry.getName().toLowerCase(Locale.US).endsWith(extension))
-                payload = entry.getName();
-            index++;
+    /**
+     * Loads the first file in the archive having the (first) file extension of the importer,
+     * or, if there is no such file, its only file.
+     * Importers able to combine the content of several files should override this.
+     * @param file Archive
+     * @param charsetName
+     * @throws IOException
+     * @throws ParseException
+     * @throws InvalidArgumentException
+     */
+    protected void loadArchive(File file, String charsetName) throws IOException, ParseException, InvalidArgumentException {
+        String extension = getArchiveExtension();
+        try (ArchiveReader archive = ArchiveReader.open(file)) {
+            if (archive.nextMatch(extension) != null) {
+                loadArchiveEntry(archive.getInputStream(), file.getPath(), charsetName);
+                return;
+            }
+            if (archive.getCount() != 1)
+                throw new IOException(noMatchMessage(file, extension));
         }
-        if (payload == null) {
-            zip.close();
-            throw new IOException(
-                    (extension == null
-                    ? "No content"
-                    : ("No file with extension ." + extension))
-                    + " in " + file.getCanonicalPath());
+        try (ArchiveReader archive = ArchiveReader.open(file)) {
+            archive.next();
+            loadArchiveEntry(archive.getInputStream(), file.getPath(), charsetName);
         }
+    }
 
-        InputStream in = null;
-        FileOutputStream out = null;
-        File outFile = null;
+    /**
+     * @return Extension, without period, of the files in an archive to be loaded, or null for all.
+     */
+    protected String getArchiveExtension() {
+        return getFileExtensions()[0][1];
+    }
+
+    protected static String noMatchMessage(File file, String extension) throws IOException {
+        return (extension == null
+                ? "No content"
+                : ("No file with extension ." + extension))
+                + " in " + file.getCanonicalPath();
+    }
+
+    /**
+     * Loads a file from an archive. This implementation copies the content to a temporary file,
+     * and loads that; importers that can read streams should override it.
+     * @param inputStream Content of the file; not to be closed.
+     * @param origin
+     * @param charsetName
+     * @throws IOException
+     * @throws ParseException
+     * @throws InvalidArgumentException
+     */
+    protected void loadArchiveEntry(InputStream inputStream, String origin, String charsetName) throws IOException, ParseException, InvalidArgumentException {
+        loadViaTemporaryFile(inputStream, origin, charsetName);
+    }
+
+    protected final void loadViaTemporaryFile(InputStream inputStream, String origin, String charsetName) throws IOException, ParseException, InvalidArgumentException {
+        File tmpFile = File.createTempFile(Version.appName, null);
+        tmpFile.deleteOnExit();
         try {
-            in = zip.getInputStream(entry);
-            outFile = File.createTempFile(Version.appName + origin, null);
-            outFile.deleteOnExit();
-            out = new FileOutputStream(outFile);
-            byte[] buf = new byte[8192];
-            while (true) {
-                int len = in.read(buf);
-                if (len == -1)
-                    break;
-                out.write(buf, 0, len);
-            }
+            Files.copy(inputStream, tmpFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            load(tmpFile, origin, charsetName);
         } finally {
-            try {
-                zip.close();
-            } finally {
-                if (out != null)
-                    out.close();
-                if (in != null)
-                    in.close();
-            }
+            if (!tmpFile.delete())
+                throw new IOException("Deletion of temporary file " + tmpFile.getAbsolutePath() + " failed.");
         }
-        return outFile;
+    }
+
+    /**
+     * Tells whether instances may load files in different threads at the same time, i.e., whether loading
+     * uses no non-thread safe global state, like the IrpDatabase, against which commands with a protocol are checked.
+     * @return false, to be overridden by importers that are safe.
+     */
+    public boolean isConcurrentLoadSafe() {
+        return false;
     }
 
     public boolean canImportDirectories() {
@@ -178,10 +194,9 @@ public abstract class FileImporter extends Importer {
         if (!zip)
             return exts;
 
-        String[][] extensions = new String[exts.length + 1][2];
+        String[][] extensions = new String[exts.length + 1][];
         System.arraycopy(exts, 0, extensions, 0, exts.length);
-        extensions[exts.length][0] = "Zip files (*.zip)";
-        extensions[exts.length][1] = "zip";
+        extensions[exts.length] = new String[]{"Archives (*.zip *.gz *.tgz)", "zip", "gz", "tgz"};
         return extensions;
     }
 }
@@ -18,14 +18,27 @@ this program. If not, see http://www.gnu.org/licenses/.
 package org.harctoolbox.irscrutinizer.importer;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.net.URL;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import org.harctoolbox.girr.Command;
@@ -36,6 +49,7 @@ import org.harctoolbox.girr.RemoteSet;
 import org.harctoolbox.girr.XmlStatic;
 import org.harctoolbox.ircore.InvalidArgumentException;
 import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.ircore.ThisCannotHappenException;
 import org.harctoolbox.irp.IrpDatabase;
 import org.harctoolbox.irscrutinizer.GuiMain;
 import org.harctoolbox.xml.XmlUtils;
@@ -131,6 +145,10 @@ public class GirrImporter extends RemoteSetImporter implements IReaderImporter {
                 throw new GirrException("Invalid root element \"" + root.getTagName() + "\" in " + origin);
         }
 
+        append(rs);
+    }
+
+    private void append(RemoteSet rs) {
         if (remoteSet == null || remoteSet.isEmpty())
             remoteSet = rs;
         else
@@ -191,24 +209,131 @@ public class GirrImporter extends RemoteSetImporter implements IReaderImporter {
         }
         prepareLoad(origin);
         remoteSet = null;
-        loadRecursive(file, origin);
+        if (file.isDirectory())
+            loadDirectory(file);
+        else
+            loadFile(file, origin);
         accumulateProtocols(origin);
         setupCommands();
     }
 
-    private void loadRecursive(File fileOrDirectory, String origin) throws IOException {
-        if (fileOrDirectory.isDirectory()) {
-            File[] files = fileOrDirectory.listFiles();
-            for (File file : files) {
-                if (!ignored(file.getName()))
-                    loadRecursive(file, file.getCanonicalPath());
+    private void loadFile(File file, String origin) throws IOException {
+        try {
+            RemoteSet rs = streamRemoteSet(file, origin);
+            if (rs != null)
+                append(rs);
+            else
+                loadIncremental(XmlUtils.openXmlFile(file, validate ? schema : null, true, true), origin);
+        } catch (ParseException | SAXException | GirrException ex) {
+            logger.log(Level.WARNING, "{0} in file {1}", new Object[]{ex.getMessage(), origin});
+        }
+    }
+
+    /**
+     * Reads a file with remotes as root element one remote at a time, so that only the DOM of
+     * one remote, and of the content outside of the remotes, is in memory at any time.
+     * If the file is to be validated, this is done in a separate, streaming, pass.
+     * @return The RemoteSet read, or null if the file is to be parsed the normal way,
+     * because of another root element, or because it cannot be streamed.
+     */
+    private RemoteSet streamRemoteSet(File file, String origin) throws IOException, SAXException, GirrException {
+        Map<String, Remote> remotes = new LinkedHashMap<>(8);
+        Element root;
+        try (InputStream stream = new FileInputStream(file);
+                StreamingDomBuilder builder = new StreamingDomBuilder(stream, file.toURI().toString(), true, null)) {
+            root = builder.readRoot();
+            if (!root.getTagName().equals(XmlStatic.REMOTES_ELEMENT_NAME))
+                return null;
+            while (builder.nextChild(root)) {
+                boolean isRemote = builder.getName().equals(XmlStatic.REMOTE_ELEMENT_NAME);
+                Element element = builder.readElement(root);
+                if (isRemote) {
+                    Remote remote = new Remote(element, origin);
+                    remotes.put(remote.getName(), remote);
+                    root.removeChild(element);
+                }
             }
-        } else {
-            try {
-                loadIncremental(XmlUtils.openXmlFile(fileOrDirectory, validate ? schema : null, true, true), origin);
-            } catch (ParseException | SAXException | GirrException ex) {
-                logger.log(Level.WARNING, "{0} in file {1}", new Object[]{ex.getMessage(), origin});
+        } catch (XMLStreamException | StreamingDomBuilder.UnsupportedException ex) {
+            logger.log(Level.FINE, "Cannot stream {0} ({1}), parsing it completely", new Object[]{origin, ex.getMessage()});
+            return null;
+        }
+
+        if (validate && schema != null)
+            schema.newValidator().validate(new StreamSource(file));
+        RemoteSet rs = new RemoteSet(root, origin);
+        rs.append(new RemoteSet(null, origin, remotes));
+        return rs;
+    }
+
+    /**
+     * Loads all files in the directory tree. The files are parsed, and possibly validated, concurrently,
+     * while the results are merged in path order, so that the result does not depend on the scheduling.
+     * At most two files per thread are parsed ahead of the merging, bounding the number of documents in memory.
+     * Files that cannot be read are logged, as when loading a single file.
+     */
+    private void loadDirectory(File directory) throws IOException {
+        List<File> files = new ArrayList<>(64);
+        collectFiles(directory, files);
+        Schema validatingSchema = validate ? schema : null;
+        long startTime = System.currentTimeMillis();
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), Math.max(1, files.size()));
+        int failures = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Document>> tasks = new ArrayList<>(files.size());
+            // Commands are checked against the global IrpDatabase when constructed, so this stays in this thread.
+            for (int i = 0; i < files.size(); i++) {
+                while (tasks.size() < Math.min(files.size(), i + 2 * threads)) {
+                    File file = files.get(tasks.size());
+                    tasks.add(executor.submit(() -> XmlUtils.openXmlFile(file, validatingSchema, true, true)));
+                }
+                String origin = files.get(i).getCanonicalPath();
+                try {
+                    loadIncremental(waitFor(tasks.get(i)), origin);
+                } catch (InterruptedIOException ex) {
+                    throw ex;
+                } catch (ParseException | SAXException | GirrException | IOException ex) {
+                    logger.log(Level.WARNING, "{0} in file {1}", new Object[]{ex.getMessage(), origin});
+                    failures++;
+                }
+                tasks.set(i, null); // release the document
             }
+        } finally {
+            executor.shutdownNow();
+        }
+        long time = Math.max(System.currentTimeMillis() - startTime, 1L);
+        logger.log(Level.INFO, "Imported {0} Girr files ({1} failed) from {2} in {3} ms, {4} files/s",
+                new Object[]{files.size(), failures, directory, time, files.size() * 1000L / time});
+    }
+
+    private void collectFiles(File fileOrDirectory, List<File> files) {
+        if (fileOrDirectory.isDirectory()) {
+            File[] children = fileOrDirectory.listFiles();
+            if (children == null)
+                return;
+            Arrays.sort(children);
+            for (File child : children)
+                if (!ignored(child.getName()))
+                    collectFiles(child, files);
+        } else
+            files.add(fileOrDirectory);
+    }
+
+    private static Document waitFor(Future<Document> task) throws IOException, SAXException {
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof SAXException)
+                throw (SAXException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new ThisCannotHappenException(cause);
         }
     }
 
@@ -228,6 +353,8 @@ public class GirrImporter extends RemoteSetImporter implements IReaderImporter {
     }
 
     private void accumulateProtocols(String origin) {
+        if (guiMain == null) // headless use
+            return;
         IrpDatabase newProtocols = remoteSet.getIrpDatabase();
         guiMain.patchProtocols(newProtocols);
     }
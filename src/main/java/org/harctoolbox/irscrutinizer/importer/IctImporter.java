@@ -21,13 +21,20 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.harctoolbox.girr.Command;
@@ -37,6 +44,7 @@ import org.harctoolbox.ircore.IrCoreUtils;
 import org.harctoolbox.ircore.IrSequence;
 import org.harctoolbox.ircore.IrSignal;
 import org.harctoolbox.ircore.ModulatedIrSequence;
+import org.harctoolbox.ircore.ThisCannotHappenException;
 import org.harctoolbox.irp.IrpException;
 import org.harctoolbox.irscrutinizer.InterpretString;
 
@@ -105,6 +113,62 @@ public class IctImporter extends RemoteSetImporter implements IReaderImporter, S
         }
     }
 
+    private static IrSignal waitFor(Future<IrSignal> task) throws IOException, InvalidArgumentException {
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof InvalidArgumentException)
+                throw (InvalidArgumentException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new ThisCannotHappenException(cause);
+        }
+    }
+
+    /**
+     * @return Index of the first of ' ', ',', and '=' at or after from, or the length of the line if none.
+     */
+    private static int nextSeparator(String line, int from) {
+        for (int i = from; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == ' ' || ch == ',' || ch == '=')
+                return i;
+        }
+        return line.length();
+    }
+
+    private static boolean isKeyword(String line, int end, String keyword) {
+        return end == keyword.length() && line.startsWith(keyword);
+    }
+
+    private static String secondField(String line, int end) {
+        if (end >= line.length())
+            throw new NumberFormatException("Value missing in line \"" + line + "\"");
+        return line.substring(end + 1, nextSeparator(line, end + 1));
+    }
+
+    /**
+     * Parses line[begin, end) as decimal integer, with the same result as Integer.parseInt, but without creating a substring
+     * in the normal case.
+     */
+    private static int parseInt(String line, int begin, int end) {
+        if (begin < end && end - begin <= 9) {
+            int value = 0;
+            for (int i = begin; i < end; i++) {
+                int digit = line.charAt(i) - '0';
+                if (digit < 0 || digit > 9)
+                    return Integer.parseInt(line.substring(begin, end));
+                value = 10 * value + digit;
+            }
+            return value;
+        }
+        return Integer.parseInt(line.substring(Math.min(begin, end), end));
+    }
+
     private boolean chop = false;
     private int lineNumber;
     private int anonymousNumber;
@@ -126,6 +190,10 @@ public class IctImporter extends RemoteSetImporter implements IReaderImporter, S
         this.chop = chop;
     }
 
+    /**
+     * Parses the signals, while their analysis, which is considerably more expensive, is carried out by a thread pool.
+     * The commands are created in input order, in this thread.
+     */
     @Override
     @SuppressWarnings("empty-statement")
     public void load(Reader reader, String origin) throws IOException, InvalidArgumentException {
@@ -136,58 +204,65 @@ public class IctImporter extends RemoteSetImporter implements IReaderImporter, S
         lineNumber = 0;
         noSamples = 0;
         String name = "unnamed_" + anonymousNumber;
-        ArrayList<Integer> data = new ArrayList<>(64);
-        while (true) {
-            String line = bufferedReader.readLine();
-            if (line == null)
-                break;
-            lineNumber++;
-            String[] chunks = line.split("[ ,=]");
-            if (chunks[0].equals("carrier_frequency"))
-                frequency = Integer.parseInt(chunks[1]);
-            else if (chunks[0].equals("sample_count"))
-                sampleCount = Integer.parseInt(chunks[1]);
-            else if (chunks[0].startsWith("+")) {
-                data.add(Integer.valueOf(chunks[0].substring(1)));
-                noSamples++;
-            } else if (chunks[0].equals("pulse")) {
-                data.add(Integer.valueOf(chunks[1]));
-                noSamples++;
-            } else if (chunks[0].equals(IRSCOPE_ENDING_STRING)) {
-                data.add(IRSCOPE_ENDING_GAP);
-                noSamples++;
-                processSignal(data, name, origin);
-                data.clear();
-                anonymousNumber++;
-                name = "unnamed_" + anonymousNumber;
-            } else if (chunks[0].equals("note")) {
-                if (!data.isEmpty()) {
-                    processSignal(data, name, origin);
+        Samples data = new Samples();
+        List<PendingSignal> pending = new ArrayList<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            while (true) {
+                String line = bufferedReader.readLine();
+                if (line == null)
+                    break;
+                lineNumber++;
+                int end = nextSeparator(line, 0); // end of the first field
+                if (isKeyword(line, end, "carrier_frequency"))
+                    frequency = Integer.parseInt(secondField(line, end));
+                else if (isKeyword(line, end, "sample_count"))
+                    sampleCount = Integer.parseInt(secondField(line, end));
+                else if (line.startsWith("+")) {
+                    data.add(parseInt(line, 1, end));
+                    noSamples++;
+                } else if (isKeyword(line, end, "pulse")) {
+                    data.add(parseInt(line, end + 1, nextSeparator(line, end + 1)));
+                    noSamples++;
+                } else if (isKeyword(line, end, IRSCOPE_ENDING_STRING)) {
+                    data.add(IRSCOPE_ENDING_GAP);
+                    noSamples++;
+                    processSignal(data, name, executor, pending);
                     data.clear();
-                }
-                chunks = line.split("=");
-                if (chunks.length >= 2) {
-                    name = chunks[1];
-                    anonymousNumber--;
-                }
-            } else if (chunks[0].equals("irscope"))
-                ;
-            else if (chunks[0].startsWith("-")) {
-                data.add(Integer.valueOf(chunks[0].substring(1)));
-                noSamples++;
-            } else if (chunks[0].equals("space"))
-                if (data.isEmpty())
-                    ; // Ignore leading gaps
-                else {
-                    data.add(Integer.valueOf(chunks[1]));
+                    anonymousNumber++;
+                    name = "unnamed_" + anonymousNumber;
+                } else if (isKeyword(line, end, "note")) {
+                    if (!data.isEmpty()) {
+                        processSignal(data, name, executor, pending);
+                        data.clear();
+                    }
+                    String[] chunks = line.split("=");
+                    if (chunks.length >= 2) {
+                        name = chunks[1];
+                        anonymousNumber--;
+                    }
+                } else if (isKeyword(line, end, "irscope"))
+                    ;
+                else if (line.startsWith("-")) {
+                    data.add(parseInt(line, 1, end));
                     noSamples++;
-                }
-            else if (chunks[0].startsWith("#"))
-                ; // Comment, ignore
-            else
-                logger.log(Level.FINEST, "Ignored line: {0}", lineNumber);
+                } else if (isKeyword(line, end, "space"))
+                    if (data.isEmpty())
+                        ; // Ignore leading gaps
+                    else {
+                        data.add(parseInt(line, end + 1, nextSeparator(line, end + 1)));
+                        noSamples++;
+                    }
+                else if (line.startsWith("#"))
+                    ; // Comment, ignore
+                else
+                    logger.log(Level.FINEST, "Ignored line: {0}", lineNumber);
+            }
+            processSignal(data, name, executor, pending);
+            addCommands(pending, origin);
+        } finally {
+            executor.shutdownNow();
         }
-        processSignal(data, name, origin);
         if (noSamples != sampleCount) {
             if (sampleCount == -1)
                 logger.log(Level.WARNING, "sample_count missing ({0} samples found)", noSamples);
@@ -197,7 +272,10 @@ public class IctImporter extends RemoteSetImporter implements IReaderImporter, S
         setupRemoteSet();
     }
 
-    private void processSignal(List<Integer> data, String name, String origin) throws InvalidArgumentException {
+    /**
+     * Prepares the collected samples as one or more (if chopping) sequences, and submits their analysis to the executor.
+     */
+    private void processSignal(Samples data, String name, ExecutorService executor, List<PendingSignal> pending) throws InvalidArgumentException {
         if (data.isEmpty())
             return;
 
@@ -205,29 +283,32 @@ public class IctImporter extends RemoteSetImporter implements IReaderImporter, S
             logger.log(Level.WARNING, "Last sample was pulse, appending a {0} microsecond gap", lengthInsertedGap);
             data.add(lengthInsertedGap);
         }
-        IrSequence irSequence = new IrSequence(data);
+        IrSequence irSequence = new IrSequence(data.toArray());
 
         if (frequency < 0 && hasComplainedAboutMissingFrequency) {
             hasComplainedAboutMissingFrequency = true;
             frequency = (int) ModulatedIrSequence.DEFAULT_FREQUENCY;
             logger.log(Level.WARNING, "Carrier_frequency missing, assuming {0}", frequency);
         }
-        ModulatedIrSequence modulatedIrSequence = new ModulatedIrSequence(irSequence, (double) frequency);
-        List<ModulatedIrSequence> modulatedIrSequences;
-        if (chop) {
-            List<IrSequence> list = irSequence.chop(IrCoreUtils.milliseconds2microseconds(getChopThreshold()));
-            modulatedIrSequences = new ArrayList<>(list.size());
-            list.forEach((s) -> {
-                modulatedIrSequences.add(new ModulatedIrSequence(s, (double) frequency));
-            });
-        } else {
-            modulatedIrSequences = new ArrayList<>(1);
-            modulatedIrSequences.add(modulatedIrSequence);
+        List<IrSequence> irSequences = chop
+                ? irSequence.chop(IrCoreUtils.milliseconds2microseconds(getChopThreshold()))
+                : Collections.singletonList(irSequence);
+        boolean invokeRepeatFinder = isInvokeRepeatFinder();
+        boolean invokeCleaner = isInvokeCleaner();
+        Double absoluteTolerance = getAbsoluteTolerance();
+        Double relativeTolerance = getRelativeTolerance();
+        for (IrSequence s : irSequences) {
+            ModulatedIrSequence modulatedIrSequence = new ModulatedIrSequence(s, (double) frequency);
+            pending.add(new PendingSignal(name, executor.submit(() ->
+                    InterpretString.interpretIrSequence(modulatedIrSequence, invokeRepeatFinder, invokeCleaner, absoluteTolerance, relativeTolerance))));
         }
-        for (ModulatedIrSequence s : modulatedIrSequences) {
-            IrSignal irSignal = InterpretString.interpretIrSequence(s, isInvokeRepeatFinder(), isInvokeCleaner(), getAbsoluteTolerance(), getRelativeTolerance());
-            Command command = new Command(uniqueName(name), origin == null ? "ICT import" : ("ICT import from " + origin), irSignal);
-            addCommand(command);
+    }
+
+    private void addCommands(List<PendingSignal> pending, String origin) throws IOException, InvalidArgumentException {
+        String comment = origin == null ? "ICT import" : ("ICT import from " + origin);
+        for (PendingSignal signal : pending) {
+            IrSignal irSignal = waitFor(signal.irSignal);
+            addCommand(new Command(uniqueName(signal.name), comment, irSignal));
         }
     }
 
@@ -240,4 +321,46 @@ public class IctImporter extends RemoteSetImporter implements IReaderImporter, S
     public String getFormatName() {
         return "IrScope ict";
     }
+
+    /**
+     * Growable array of samples, reused between the signals of a file.
+     */
+    private static final class Samples {
+
+        private int[] data = new int[256];
+        private int size = 0;
+
+        void add(int sample) {
+            if (size == data.length)
+                data = Arrays.copyOf(data, 2 * size);
+            data[size++] = sample;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    private static final class PendingSignal {
+
+        private final String name;
+        private final Future<IrSignal> irSignal;
+
+        PendingSignal(String name, Future<IrSignal> irSignal) {
+            this.name = name;
+            this.irSignal = irSignal;
+        }
+    }
 }
@@ -20,12 +20,14 @@ package org.harctoolbox.irscrutinizer.importer;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.ircore.IrCoreException;
 import org.harctoolbox.ircore.ModulatedIrSequence;
 import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 import org.harctoolbox.irscrutinizer.Props;
 
 /**
@@ -40,6 +42,9 @@ public abstract class Importer {
     // causing considerable effort to keep consistent with the global version.
     private static Props properties = null;
 
+    // Used when there are no properties; same as the default of captureEndingTimeout (milliseconds).
+    private static final int DEFAULT_ENDING_TIMEOUT = 300;
+
     public static void setProperties(Props newProperties) {
         properties = newProperties;
     }
@@ -50,12 +55,16 @@ public abstract class Importer {
     // This has, of course, unique names
     private final LinkedHashMap<String,Command>commandIndex;
 
+    // For every name passed to uniqueName, the index below which all name$index are taken
+    private final HashMap<String,Integer> nextIndex;
+
     // origin is set by load, not the constructor.
     protected String origin = null;
 
     protected Importer() {
         commands = new ArrayList<>(32);
         commandIndex = new LinkedHashMap<>(32);
+        nextIndex = new HashMap<>(32);
     }
 
 
@@ -117,7 +126,7 @@ public abstract class Importer {
     }
 
     protected int getEndingTimeout() {
-        return properties != null ? properties.getCaptureEndingTimeout() : null;
+        return properties != null ? properties.getCaptureEndingTimeout() : DEFAULT_ENDING_TIMEOUT;
     }
 
     protected Double getAbsoluteTolerance() {
@@ -145,14 +154,24 @@ public abstract class Importer {
         clearCommands();
     }
 
+    /**
+     * Returns the name if it is not already used by a command, otherwise name$1, name$2,..., whichever is free first.
+     * Since commands are only added, the search for a name continues where the previous one for the same name stopped,
+     * so that n equal names cost O(n), not O(n^2).
+     * @param name
+     * @return name, possibly with a $index appended
+     */
     protected String uniqueName(String name) {
-        String uniqueName = name;
-        int index = 1;
+        if (!commandIndex.containsKey(name))
+            return name;
+
+        int index = nextIndex.getOrDefault(name, 1);
+        String uniqueName = name + '$' + Integer.toString(index);
         while (commandIndex.containsKey(uniqueName)) {
-            uniqueName = name + '$' + Integer.toString(index);
             index++;
+            uniqueName = name + '$' + Integer.toString(index);
         }
-
+        nextIndex.put(name, index);
         return uniqueName;
     }
 
@@ -187,7 +206,7 @@ public abstract class Importer {
         ModulatedIrSequence[] array = new ModulatedIrSequence[commands.size()];
         int index = 0;
         for (Command command : commands) {
-            array[index] = command.toIrSignal().toModulatedIrSequence(1);
+            array[index] = DecoderLock.toIrSignal(command).toModulatedIrSequence(1);
             index++;
         }
         return ModulatedIrSequence.concatenate(array);
@@ -201,6 +220,7 @@ public abstract class Importer {
     protected void clearCommands() {
         commands.clear();
         commandIndex.clear();
+        nextIndex.clear();
     }
 
     public String getOrigin() {
@@ -72,6 +72,19 @@ public class LircImporter extends RemoteSetImporter implements IReaderImporter,
         load(ConfigFile.readConfig(reader, origin, rejectLircCode), origin);
     }
 
+    // The commands are created from raw signals, or without checking their protocol, so this is safe.
+    @Override
+    protected RemoteSetImporter newArchiveWorker() {
+        LircImporter worker = new LircImporter();
+        worker.setRejectLircCode(rejectLircCode);
+        return worker;
+    }
+
+    @Override
+    public boolean isConcurrentLoadSafe() {
+        return true;
+    }
+
     @Override
     public boolean canImportDirectories() {
         return true;
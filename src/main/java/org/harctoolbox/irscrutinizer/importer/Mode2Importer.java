@@ -17,11 +17,13 @@ this program. If not, see http://www.gnu.org/licenses/.
 
 package org.harctoolbox.irscrutinizer.importer;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 import org.harctoolbox.ircore.IrCoreUtils;
 import org.harctoolbox.ircore.ModulatedIrSequence;
 import org.harctoolbox.ircore.OddSequenceLengthException;
@@ -29,63 +31,183 @@ import org.harctoolbox.ircore.ThisCannotHappenException;
 
 /**
  * This class imports Lirc's mode2 files.
+ *
+ * <p>The input is parsed as a stream, without creating a String per line, and the durations are
+ * collected in a primitive array. A space longer than the ending timeout terminates the current signal;
+ * the signals can either be collected, or handed to a consumer as soon as they are complete,
+ * in which case only one signal at a time is kept in memory.
  */
 public class Mode2Importer extends ReaderImporter implements IModulatedIrSequenceImporter,IReaderImporter {
 
-    private ModulatedIrSequence sequence;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final char[] PULSE = "pulse".toCharArray();
+    private static final char[] SPACE = "space".toCharArray();
+
+    private List<ModulatedIrSequence> sequences = new ArrayList<>(0);
+    private ModulatedIrSequence sequence = null;
+
+    // Parser state
+    private int[] data;
+    private int length;
+    private boolean lastWasPulse;
+    private Double frequency;
+    private int endingTimeout;
+    private Consumer<ModulatedIrSequence> consumer;
 
     @Override
     public void load(Reader reader, String origin) throws IOException, ParseException {
-        BufferedReader bufferedReader = new BufferedReader(reader);
-        ArrayList<Integer> data = new ArrayList<>(256);
-        boolean lastWasPulse = false;
+        List<ModulatedIrSequence> list = new ArrayList<>(8);
+        load(reader, origin, list::add);
+        sequences = list;
+        sequence = null;
+    }
+
+    /**
+     * Reads the mode2 data, and hands every complete signal to the consumer, as soon as it is parsed.
+     * The signals are not retained by the importer; {@link #getModulatedIrSequence()} and
+     * {@link #getModulatedIrSequences()} will return empty results.
+     * @param reader
+     * @param origin
+     * @param consumer Receives the signals, in the calling thread.
+     * @throws IOException
+     * @throws ParseException
+     */
+    public void load(Reader reader, String origin, Consumer<ModulatedIrSequence> consumer) throws IOException, ParseException {
+        prepareLoad(origin);
+        sequences = new ArrayList<>(0);
+        sequence = null;
+        this.consumer = consumer;
+        data = new int[INITIAL_CAPACITY];
+        length = 0;
+        lastWasPulse = false;
+        frequency = getFallbackFrequency();
+        endingTimeout = (int) IrCoreUtils.milliseconds2microseconds(getEndingTimeout());
+        try {
+            parse(reader);
+            if (length % 2 != 0)
+                add(false, endingTimeout);
+            emit();
+        } finally {
+            this.consumer = null;
+            data = null;
+        }
+    }
+
+    private void parse(Reader reader) throws IOException, ParseException {
+        char[] buffer = new char[BUFFER_SIZE];
+        char[] line = new char[128];
+        int lineLength = 0;
         int lineNo = 0;
         while (true) {
-            String line = bufferedReader.readLine();
-            if (line == null)
+            int n = reader.read(buffer);
+            if (n == -1)
                 break;
-            lineNo++;
-            if (line.isEmpty())
-                continue;
-            int duration;
-            boolean isPulse;
-            if (line.startsWith("pulse")) {
-                isPulse = true;
-            } else if (line.startsWith("space")) {
-                isPulse = false;
-                if (data.isEmpty()) // Ignore leading space
-                    continue;
-            } else
-                throw new ParseException("Unknown line: " + line, lineNo);
-
-            try {
-                duration = Integer.parseInt(line.substring(6));
-            } catch (NumberFormatException e) {
-                throw new ParseException("Unparsable data: " + line, lineNo);
-            }
-            if (lastWasPulse != isPulse)
-                data.add(duration);
-            else {
-                int index = data.size() - 1;
-                data.set(index, data.get(index) + duration);
+            for (int i = 0; i < n; i++) {
+                char c = buffer[i];
+                if (c == '\n') {
+                    lineNo++;
+                    parseLine(line, lineLength, lineNo);
+                    lineLength = 0;
+                } else {
+                    if (lineLength == line.length) {
+                        char[] newLine = new char[2 * line.length];
+                        System.arraycopy(line, 0, newLine, 0, lineLength);
+                        line = newLine;
+                    }
+                    line[lineLength++] = c;
+                }
             }
-            lastWasPulse = isPulse;
         }
-        if (data.size() % 2 != 0)
-            data.add((int)(IrCoreUtils.milliseconds2microseconds(getEndingTimeout())));
-        int[] array = new int[data.size()];
-        int i = 0;
-        for (Integer duration : data) {
-            array[i] = duration;
-            i++;
+        if (lineLength > 0)
+            parseLine(line, lineLength, lineNo + 1);
+    }
+
+    private void parseLine(char[] line, int lineLength, int lineNo) throws ParseException {
+        int end = lineLength;
+        while (end > 0 && Character.isWhitespace(line[end - 1]))
+            end--;
+        if (end == 0)
+            return;
+
+        boolean isPulse;
+        if (startsWith(line, end, PULSE))
+            isPulse = true;
+        else if (startsWith(line, end, SPACE))
+            isPulse = false;
+        else
+            throw new ParseException("Unknown line: " + new String(line, 0, end), lineNo);
+
+        int pos = PULSE.length;
+        if (pos == end || !Character.isWhitespace(line[pos]))
+            throw new ParseException("Unparsable data: " + new String(line, 0, end), lineNo);
+        while (Character.isWhitespace(line[pos]))
+            pos++;
+        long duration = 0L;
+        for (; pos < end; pos++) {
+            int digit = Character.digit(line[pos], 10);
+            if (digit < 0)
+                throw new ParseException("Unparsable data: " + new String(line, 0, end), lineNo);
+            duration = 10 * duration + digit;
+            if (duration > Integer.MAX_VALUE)
+                throw new ParseException("Unparsable data: " + new String(line, 0, end), lineNo);
+        }
+        add(isPulse, (int) duration);
+    }
+
+    private static boolean startsWith(char[] line, int end, char[] keyword) {
+        if (end < keyword.length)
+            return false;
+        for (int i = 0; i < keyword.length; i++)
+            if (line[i] != keyword[i])
+                return false;
+        return true;
+    }
+
+    private void add(boolean isPulse, int duration) {
+        if (!isPulse && length == 0) // Ignore leading space
+            return;
+
+        if (lastWasPulse == isPulse) {
+            data[length - 1] += duration;
+            return;
+        }
+
+        // A pulse following a long space starts a new signal.
+        if (isPulse && length > 0 && data[length - 1] > endingTimeout)
+            emit();
+
+        if (length == data.length) {
+            int[] newData = new int[2 * data.length];
+            System.arraycopy(data, 0, newData, 0, length);
+            data = newData;
         }
+        data[length++] = duration;
+        lastWasPulse = isPulse;
+    }
+
+    private void emit() {
+        if (length == 0)
+            return;
+
+        double[] durations = new double[length];
+        for (int i = 0; i < length; i++)
+            durations[i] = data[i];
+        length = 0;
+        lastWasPulse = false;
         try {
-            sequence = new ModulatedIrSequence(array, getFallbackFrequency());
+            consumer.accept(new ModulatedIrSequence(durations, frequency));
         } catch (OddSequenceLengthException ex) {
             throw new ThisCannotHappenException(ex.getMessage());
         }
     }
 
+    // Only sequences are created.
+    @Override
+    public boolean isConcurrentLoadSafe() {
+        return true;
+    }
+
     @Override
     public String[][] getFileExtensions() {
         return new String[][]{new String[]{"Mode2 files (*.mode2 *.txt)", "mode2", "txt" }};
@@ -96,8 +218,37 @@ public class Mode2Importer extends ReaderImporter implements IModulatedIrSequenc
         return "Mode2";
     }
 
+    /**
+     * @return All signals of the last (non-streaming) load, concatenated to one sequence.
+     */
     @Override
     public ModulatedIrSequence getModulatedIrSequence() {
+        if (sequence == null)
+            sequence = sequences.size() == 1 ? sequences.get(0) : concatenate(sequences);
         return sequence;
     }
+
+    // ModulatedIrSequence.concatenate does not accept a null frequency.
+    private static ModulatedIrSequence concatenate(List<ModulatedIrSequence> list) {
+        int totalLength = 0;
+        for (ModulatedIrSequence seq : list)
+            totalLength += seq.getLength();
+        double[] durations = new double[totalLength];
+        int index = 0;
+        for (ModulatedIrSequence seq : list)
+            for (int i = 0; i < seq.getLength(); i++)
+                durations[index++] = seq.get(i);
+        try {
+            return new ModulatedIrSequence(durations, list.isEmpty() ? null : list.get(0).getFrequency());
+        } catch (OddSequenceLengthException ex) {
+            throw new ThisCannotHappenException(ex.getMessage());
+        }
+    }
+
+    /**
+     * @return The signals of the last (non-streaming) load, split at gaps longer than the ending timeout.
+     */
+    public List<ModulatedIrSequence> getModulatedIrSequences() {
+        return Collections.unmodifiableList(sequences);
+    }
 }
@@ -65,6 +65,11 @@ public abstract class ReaderImporter extends FileImporter {
         }
     }
 
+    @Override
+    protected void loadArchiveEntry(InputStream inputStream, String origin, String charsetName) throws IOException, ParseException, InvalidArgumentException {
+        load(inputStream, origin, charsetName);
+    }
+
     // There is no verbose option here...
     private void loadURL(String urlOrFilename, String charsetName) throws IOException, ParseException, InvalidArgumentException, URISyntaxException {
         URL url = new URI(urlOrFilename).toURL();
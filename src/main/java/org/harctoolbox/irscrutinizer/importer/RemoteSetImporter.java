@@ -17,13 +17,28 @@ this program. If not, see http://www.gnu.org/licenses/.
 
 package org.harctoolbox.irscrutinizer.importer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.harctoolbox.girr.CommandSet;
 import org.harctoolbox.girr.Remote;
 import org.harctoolbox.girr.RemoteSet;
+import org.harctoolbox.ircore.InvalidArgumentException;
 import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.ircore.ThisCannotHappenException;
 import org.harctoolbox.irscrutinizer.Version;
 
 /**
@@ -38,6 +53,34 @@ public abstract class RemoteSetImporter extends ReaderImporter implements IRemot
         return false;
     }
 
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(65536);
+        byte[] buffer = new byte[65536];
+        for (int n = inputStream.read(buffer); n >= 0; n = inputStream.read(buffer))
+            bytes.write(buffer, 0, n);
+        return bytes.toByteArray();
+    }
+
+    private static RemoteSet waitFor(Future<RemoteSet> task) throws IOException, ParseException, InvalidArgumentException {
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof ParseException)
+                throw (ParseException) cause;
+            if (cause instanceof InvalidArgumentException)
+                throw (InvalidArgumentException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new ThisCannotHappenException(cause);
+        }
+    }
+
     protected RemoteSet remoteSet;
 
     protected RemoteSetImporter() {
@@ -95,4 +138,80 @@ public abstract class RemoteSetImporter extends ReaderImporter implements IRemot
                 addCommands(commandSet.getCommands());
 
     }
+
+    /**
+     * Loads all files in the archive having the (first) file extension of the importer, or, if there is no such file,
+     * its only file, and combines their remotes.
+     * If the importer provides {@link #newArchiveWorker()}, the files are parsed concurrently;
+     * the result is combined in archive order nevertheless.
+     * @param file Archive
+     * @param charsetName
+     * @throws IOException
+     * @throws ParseException
+     * @throws InvalidArgumentException
+     */
+    @Override
+    protected void loadArchive(File file, String charsetName) throws IOException, ParseException, InvalidArgumentException {
+        String extension = getArchiveExtension();
+        List<RemoteSet> remoteSets = new ArrayList<>(16);
+        int count;
+        try (ArchiveReader archive = ArchiveReader.open(file)) {
+            loadArchiveEntries(archive, extension, file, charsetName, remoteSets);
+            count = archive.getCount();
+        }
+        if (remoteSets.isEmpty()) {
+            if (count != 1)
+                throw new IOException(noMatchMessage(file, extension));
+            try (ArchiveReader archive = ArchiveReader.open(file)) {
+                loadArchiveEntries(archive, null, file, charsetName, remoteSets);
+            }
+        }
+
+        prepareLoad(file.getPath());
+        remoteSets.removeIf(rs -> rs == null || rs.isEmpty());
+        remoteSet = remoteSets.isEmpty() ? null
+                : remoteSets.size() == 1 ? remoteSets.get(0)
+                : new RemoteSet(getCreatingUser(), file.getPath(), remoteSets);
+        setupCommands();
+    }
+
+    private void loadArchiveEntries(ArchiveReader archive, String extension, File file, String charsetName, List<RemoteSet> remoteSets) throws IOException, ParseException, InvalidArgumentException {
+        RemoteSetImporter worker = newArchiveWorker();
+        if (worker == null) {
+            for (String name = archive.nextMatch(extension); name != null; name = archive.nextMatch(extension)) {
+                remoteSet = null;
+                loadArchiveEntry(archive.getInputStream(), new File(file, name).getPath(), charsetName);
+                remoteSets.add(remoteSet);
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<RemoteSet>> tasks = new ArrayList<>(16);
+            for (String name = archive.nextMatch(extension); name != null; name = archive.nextMatch(extension)) {
+                byte[] content = readAll(archive.getInputStream());
+                String origin = new File(file, name).getPath();
+                RemoteSetImporter importer = tasks.isEmpty() ? worker : newArchiveWorker();
+                tasks.add(executor.submit(() -> {
+                    importer.loadArchiveEntry(new ByteArrayInputStream(content), origin, charsetName);
+                    return importer.getRemoteSet();
+                }));
+            }
+            for (Future<RemoteSet> task : tasks)
+                remoteSets.add(waitFor(task));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns a new importer, configured like this one, for loading a file of an archive in another thread,
+     * or null if the files are to be loaded by this importer, one after the other.
+     * Importers overriding this must not use non-thread safe global state while loading.
+     * @return RemoteSetImporter or null
+     */
+    protected RemoteSetImporter newArchiveWorker() {
+        return null;
+    }
 }
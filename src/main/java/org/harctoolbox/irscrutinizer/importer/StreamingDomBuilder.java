@@ -0,0 +1,255 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irscrutinizer.importer;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Predicate;
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.harctoolbox.xml.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Builds DOM trees from a StAX stream in one forward pass, one subtree at a time,
+ * possibly keeping only the elements the caller is interested in.
+ * This way, large files can be imported without having their complete DOM in memory.
+ *
+ * <p>Elements that are not kept are left out, together with their text, but their kept descendants
+ * are attached to the nearest kept ancestor, so that getElementsByTagName on the result finds the same elements
+ * as on the complete DOM. Comments and processing instructions are ignored.
+ * Files with a DTD or using XInclude are not supported; this is reported by {@link UnsupportedException},
+ * so that the caller can parse the file the normal way instead.
+ */
+final class StreamingDomBuilder implements AutoCloseable {
+
+    private static final String XINCLUDE_NAMESPACE = "http://www.w3.org/2001/XInclude";
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private final XMLStreamReader reader;
+    private final Document document;
+    private final boolean namespaceAware;
+    private final Predicate<String> keep;
+
+    /**
+     * @param inputStream
+     * @param systemId Used for error messages; may be null.
+     * @param namespaceAware If true, elements and attributes are created with their namespaces, as by a namespace aware parser.
+     * @param keep Selects, by qualified name, the elements below the first level to keep; null for all.
+     * @throws XMLStreamException
+     */
+    StreamingDomBuilder(InputStream inputStream, String systemId, boolean namespaceAware, Predicate<String> keep) throws XMLStreamException {
+        this.reader = newInputFactory().createXMLStreamReader(systemId, inputStream);
+        this.document = XmlUtils.newDocument();
+        this.namespaceAware = namespaceAware;
+        this.keep = keep;
+    }
+
+    Document getDocument() {
+        return document;
+    }
+
+    /**
+     * Reads the complete document, subject to the filter.
+     * @return
+     * @throws XMLStreamException
+     * @throws UnsupportedException
+     */
+    Document readDocument() throws XMLStreamException, UnsupportedException {
+        Element root = readRoot();
+        while (nextChild(root))
+            readElement(root);
+        return document;
+    }
+
+    /**
+     * Reads the start tag of the root element, and makes it the document element.
+     * @return The root element, without content.
+     * @throws XMLStreamException
+     * @throws UnsupportedException
+     */
+    Element readRoot() throws XMLStreamException, UnsupportedException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                Element root = createElement();
+                document.appendChild(root);
+                return root;
+            }
+            if (event == XMLStreamConstants.DTD)
+                throw new UnsupportedException("DTD");
+        }
+        throw new XMLStreamException("No root element");
+    }
+
+    /**
+     * Advances to the start of the next child element, adding the text in between to the parent.
+     * @param parent Element whose content is being read.
+     * @return true if positioned at the start of a child element, false if at the end of the parent.
+     * @throws XMLStreamException
+     * @throws UnsupportedException
+     */
+    boolean nextChild(Element parent) throws XMLStreamException, UnsupportedException {
+        while (true) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    checkSupported();
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                    return false;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    parent.appendChild(document.createTextNode(reader.getText()));
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    throw new UnsupportedException("entity reference " + reader.getLocalName());
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("Premature end of document");
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return Qualified name of the element whose start the reader is positioned at.
+     */
+    String getName() {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    /**
+     * Reads the element whose start the reader is positioned at, up to and including its end tag,
+     * and appends it to the parent. The element itself is always kept, its descendants subject to the filter.
+     * @param parent
+     * @return The element read.
+     * @throws XMLStreamException
+     * @throws UnsupportedException
+     */
+    Element readElement(Node parent) throws XMLStreamException, UnsupportedException {
+        Element element = createElement();
+        parent.appendChild(element);
+        Deque<Node> targets = new ArrayDeque<>(16); // nearest kept ancestor, for every open element
+        Deque<Boolean> kept = new ArrayDeque<>(16);
+        targets.push(element);
+        kept.push(true);
+        while (!targets.isEmpty()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    checkSupported();
+                    Node target = targets.peek();
+                    if (keep == null || keep.test(getName())) {
+                        Element child = createElement();
+                        target.appendChild(child);
+                        targets.push(child);
+                        kept.push(true);
+                    } else {
+                        targets.push(target);
+                        kept.push(false);
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    targets.pop();
+                    kept.pop();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (kept.peek())
+                        targets.peek().appendChild(document.createTextNode(reader.getText()));
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    throw new UnsupportedException("entity reference " + reader.getLocalName());
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("Premature end of document");
+                default:
+                    break;
+            }
+        }
+        return element;
+    }
+
+    private void checkSupported() throws UnsupportedException {
+        if (XINCLUDE_NAMESPACE.equals(reader.getNamespaceURI()))
+            throw new UnsupportedException("XInclude");
+    }
+
+    private Element createElement() {
+        Element element;
+        if (namespaceAware) {
+            element = document.createElementNS(emptyToNull(reader.getNamespaceURI()), getName());
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                        prefix == null || prefix.isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix,
+                        reader.getNamespaceURI(i));
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++)
+                element.setAttributeNS(emptyToNull(reader.getAttributeNamespace(i)), attributeName(i), reader.getAttributeValue(i));
+        } else {
+            element = document.createElement(getName());
+            for (int i = 0; i < reader.getAttributeCount(); i++)
+                element.setAttribute(attributeName(i), reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    private String attributeName(int index) {
+        String prefix = reader.getAttributePrefix(index);
+        return prefix == null || prefix.isEmpty() ? reader.getAttributeLocalName(index) : prefix + ":" + reader.getAttributeLocalName(index);
+    }
+
+    private static String emptyToNull(String s) {
+        return s == null || s.isEmpty() ? null : s;
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        reader.close();
+    }
+
+    /**
+     * The file uses a feature not supported by streaming; it should be parsed the normal way instead.
+     */
+    static final class UnsupportedException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedException(String feature) {
+            super("Not supported when streaming: " + feature);
+        }
+    }
+}
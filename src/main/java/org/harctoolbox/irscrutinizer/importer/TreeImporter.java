@@ -40,6 +40,7 @@ import org.harctoolbox.guicomponents.NoSelectionException;
 import org.harctoolbox.harchardware.HarcHardwareException;
 import org.harctoolbox.ircore.IrCoreException;
 import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irscrutinizer.DecoderLock;
 import org.harctoolbox.irscrutinizer.GuiMain;
 import org.harctoolbox.irscrutinizer.HardwareUnavailableException;
 
@@ -119,7 +120,9 @@ public class TreeImporter extends javax.swing.JPanel implements TreeExpansionLis
             return;
         }
         try {
-            remoteSet.checkForParameters();
+            synchronized (DecoderLock.getLock()) {
+                remoteSet.checkForParameters();
+            }
         } catch (IrpException | IrCoreException ex) {
             guiUtils.warning(ex.getMessage());
         }
@@ -541,7 +544,7 @@ public class TreeImporter extends javax.swing.JPanel implements TreeExpansionLis
             return;
         checkGuiMain();
         try {
-            guiMain.scrutinizeIrSignal(command.toIrSignal());
+            guiMain.scrutinizeIrSignal(DecoderLock.toIrSignal(command));
             importJump(1, ImportType.signal);
         } catch (IrpException | IrCoreException ex) {
             guiUtils.error(ex);
@@ -623,7 +626,7 @@ public class TreeImporter extends javax.swing.JPanel implements TreeExpansionLis
 
         checkGuiMain();
         try {
-            guiMain.scrutinizeIrSignal(command.toIrSignal());
+            guiMain.scrutinizeIrSignal(DecoderLock.toIrSignal(command));
         } catch (IrpException | IrCoreException ex) {
             guiUtils.error(ex);
         }
@@ -60,6 +60,12 @@ public class WaveImporter extends FileImporter implements IModulatedIrSequenceIm
         load(file, "US-ASCII");
     }
 
+    // Only a sequence is created.
+    @Override
+    public boolean isConcurrentLoadSafe() {
+        return true;
+    }
+
     @Override
     public String[][] getFileExtensions() {
         return new String[][]{new String[]{"Wave files (*.wav *.wave)", "wave", "wav" }};
@@ -18,20 +18,25 @@ this program. If not, see http://www.gnu.org/licenses/.
 package org.harctoolbox.irscrutinizer.importer;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import javax.xml.stream.XMLStreamException;
 import org.harctoolbox.girr.Command;
 import org.harctoolbox.girr.CommandSet;
 import org.harctoolbox.girr.GirrException;
@@ -59,22 +64,68 @@ public class XcfImporter extends RemoteSetImporter implements IReaderImporter {
     
     private final static Logger logger = Logger.getLogger(XcfImporter.class.getName());
 
+    /**
+     * Elements, besides the ones directly below the root, that the importer looks at.
+     */
+    private static final Set<String> XCF_ELEMENTS = new HashSet<>(Arrays.asList(
+            // version 4
+            "STRING", "Value", "ACTION", "BASICIRCODE", "Name", "Code", "PAGE", "Item", "Next",
+            "ACTIONLIST", "Action", "MODULE", "FirstPage",
+            // version 5 and 6
+            "Device", "ControlType", "Brand", "DeviceType", "Model", "Function", "IrCode"));
+
+    /**
+     * Reads the configuration, keeping only the elements needed for the import.
+     * This avoids having the complete DOM, including the images, in memory.
+     * Files that cannot be read that way are parsed to a complete DOM.
+     */
     private static Document openConfig(File filename) throws SAXException, IOException {
+        try {
+            return streamConfig(filename);
+        } catch (XMLStreamException | StreamingDomBuilder.UnsupportedException ex) {
+            logger.log(Level.FINE, "Cannot stream {0} ({1}), parsing it completely", new Object[]{filename, ex.getMessage()});
+            return parseConfig(filename);
+        }
+    }
+
+    private static Document streamConfig(File filename) throws IOException, XMLStreamException, StreamingDomBuilder.UnsupportedException {
+        if (filename.getName().endsWith(".xml"))
+            try (InputStream stream = new FileInputStream(filename)) {
+                return streamConfig(stream, filename.toURI().toString());
+            }
+        else {
+            try (ZipFile zipFile = new ZipFile(filename); InputStream stream = zipFile.getInputStream(getConfigEntry(zipFile, filename))) {
+                return streamConfig(stream, null);
+            }
+        }
+    }
+
+    private static Document streamConfig(InputStream stream, String systemId) throws XMLStreamException, StreamingDomBuilder.UnsupportedException {
+        try (StreamingDomBuilder builder = new StreamingDomBuilder(stream, systemId, false, XCF_ELEMENTS::contains)) {
+            return builder.readDocument();
+        }
+    }
+
+    private static Document parseConfig(File filename) throws SAXException, IOException {
         if (filename.getName().endsWith(".xml"))
             return XmlUtils.openXmlFile(filename);
         else {
             try (ZipFile zipFile = new ZipFile(filename)) {
-                ZipEntry entry = zipFile.getEntry(XCF_XML_FILENAME);
-                if (entry == null)
-                    entry = zipFile.getEntry("/" + XCF_XML_FILENAME);
-                if (entry == null)
-                    throw new IOException("Cannot read " + filename.getCanonicalPath() + " as XCF file.");
-                InputStream stream = zipFile.getInputStream(entry);
+                InputStream stream = zipFile.getInputStream(getConfigEntry(zipFile, filename));
                 return XmlUtils.openXmlStream(stream, null, false, false);
             }
         }
     }
 
+    private static ZipEntry getConfigEntry(ZipFile zipFile, File filename) throws IOException {
+        ZipEntry entry = zipFile.getEntry(XCF_XML_FILENAME);
+        if (entry == null)
+            entry = zipFile.getEntry("/" + XCF_XML_FILENAME);
+        if (entry == null)
+            throw new IOException("Cannot read " + filename.getCanonicalPath() + " as XCF file.");
+        return entry;
+    }
+
     private static LinkedHashMap<String, Element> mkIndex(Element element, String tagId) {
         LinkedHashMap<String, Element> index = new LinkedHashMap<>(16);
         NodeList things = element.getElementsByTagName(tagId);
@@ -441,6 +492,12 @@ public class XcfImporter extends RemoteSetImporter implements IReaderImporter {
         return new String[][]{ new String[]{ "Pronto professional files (*.xcf)", "xcf" }, new String[]{"ConfigEdit.xml files (*.xml)", "xml" }};
     }
 
+    // An xcf file is itself a zip file, so it has to be extracted from an archive.
+    @Override
+    protected void loadArchiveEntry(InputStream inputStream, String origin, String charsetName) throws IOException, ParseException, InvalidArgumentException {
+        loadViaTemporaryFile(inputStream, origin, charsetName);
+    }
+
     @Override
     public void load(Reader reader, String originName) throws IOException, ParseException, InvalidArgumentException {
         dumbLoad(reader, originName, DEFAULT_CHARSETNAME);
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.guicomponents;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.harctoolbox.harchardware.IHarcHardware;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class ConnectionPoolNGTest {
+
+    private static final String HOST = "127.0.0.1";
+
+    /**
+     * Loopback stand-in for a networked IR unit, answering "version" with a version string.
+     */
+    private static final class StandInServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        private final List<Socket> clients;
+        private final AtomicInteger accepted;
+
+        StandInServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getByName(HOST));
+            clients = Collections.synchronizedList(new ArrayList<>(4));
+            accepted = new AtomicInteger(0);
+            Thread thread = new Thread(this::serve, "stand-in server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void serve() {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    accepted.incrementAndGet();
+                    clients.add(socket);
+                    Thread thread = new Thread(() -> answer(socket), "stand-in client");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            } catch (IOException ex) {
+                // closed
+            }
+        }
+
+        private void answer(Socket socket) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), true)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine())
+                    writer.println(line.equals("version") ? "StandIn 1.0" : "ERROR");
+            } catch (IOException ex) {
+                // disconnected
+            }
+        }
+
+        void disconnectClients() throws IOException {
+            synchronized (clients) {
+                for (Socket socket : clients)
+                    socket.close();
+                clients.clear();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            disconnectClients();
+        }
+    }
+
+    /**
+     * Minimal hardware talking to the stand-in server.
+     */
+    private static final class StandInHardware implements IHarcHardware {
+
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final PrintWriter writer;
+
+        StandInHardware(int port) throws IOException {
+            socket = new Socket(HOST, port);
+            socket.setSoTimeout(1000);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), true);
+        }
+
+        @Override
+        public String getVersion() throws IOException {
+            writer.println("version");
+            String answer = reader.readLine();
+            if (answer == null)
+                throw new IOException("Connection closed by peer");
+            return answer;
+        }
+
+        @Override
+        public void setVerbose(boolean verbose) {
+        }
+
+        @Override
+        public void setDebug(int debug) {
+        }
+
+        @Override
+        public void setTimeout(int timeout) throws IOException {
+            socket.setSoTimeout(timeout);
+        }
+
+        @Override
+        public boolean isValid() {
+            return socket.isConnected() && !socket.isClosed();
+        }
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private StandInServer server;
+
+    public ConnectionPoolNGTest() {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        server = new StandInServer();
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        server.close();
+    }
+
+    @Test(timeOut = 10000)
+    public void testReuse() throws Exception {
+        System.out.println("reuse");
+        ConnectionPool instance = new ConnectionPool(4, 60000L, 60000L, 1000L, 60000L);
+        String key = ConnectionPool.key(HOST, server.getPort());
+        ConnectionPool.Connector connector = () -> new StandInHardware(server.getPort());
+        IHarcHardware first = instance.acquire(key, connector);
+        assertEquals(first.getVersion(), "StandIn 1.0");
+        instance.release(key, first);
+        assertTrue(instance.hasIdle(key));
+        IHarcHardware second = instance.acquire(key, connector);
+        assertSame(second, first);
+        assertFalse(instance.hasIdle(key));
+        assertEquals(server.accepted.get(), 1);
+        assertTrue(instance.probe(HOST, server.getPort(), 1000).get()); // in use, not probed
+        instance.invalidate(key, second);
+        assertFalse(second.isValid());
+        instance.close();
+    }
+
+    /**
+     * With a clock of its own, the pool's background thread does not run during the test;
+     * the maintenance is done by calling maintain() instead.
+     */
+    @Test(timeOut = 10000)
+    public void testDeadIdleConnection() throws Exception {
+        System.out.println("deadIdleConnection");
+        AtomicLong time = new AtomicLong(0L);
+        ConnectionPool instance = new ConnectionPool(4, 1000000L, 1000L, 100000L, 400000L, time::get);
+        String key = ConnectionPool.key(HOST, server.getPort());
+        ConnectionPool.Connector connector = () -> new StandInHardware(server.getPort());
+        IHarcHardware hardware = instance.acquire(key, connector);
+        assertEquals(hardware.getVersion(), "StandIn 1.0"); // accepted by the server
+        instance.release(key, hardware);
+        server.disconnectClients();
+        time.set(1000L);
+        instance.maintain();
+        assertFalse(instance.hasIdle(key));
+        time.set(500000L);
+        instance.maintain();
+        assertFalse(instance.hasIdle(key)); // no pending user, not reconnected
+        assertEquals(server.accepted.get(), 1);
+
+        IHarcHardware reconnected = instance.acquire(key, connector);
+        assertNotSame(reconnected, hardware);
+        assertEquals(reconnected.getVersion(), "StandIn 1.0");
+        assertEquals(server.accepted.get(), 2);
+        instance.close();
+        reconnected.close();
+    }
+
+    @Test(timeOut = 10000)
+    public void testBackoff() throws Exception {
+        System.out.println("backoff");
+        AtomicLong time = new AtomicLong(0L);
+        ConnectionPool instance = new ConnectionPool(4, 10000000L, 10000000L, 100000L, 400000L, time::get);
+        String key = ConnectionPool.key(HOST, server.getPort());
+        AtomicBoolean up = new AtomicBoolean(false);
+        AtomicInteger attempts = new AtomicInteger(0);
+        ConnectionPool.Connector connector = () -> {
+            attempts.incrementAndGet();
+            if (!up.get())
+                throw new IOException("down");
+            return new StandInHardware(server.getPort());
+        };
+        for (int i = 0; i < 2; i++) {
+            try {
+                instance.acquire(key, connector);
+                fail();
+            } catch (IOException ex) {
+            }
+            assertEquals(attempts.get(), 1); // the second one is refused during the backoff
+        }
+
+        long[] times = {99999L, 100000L, 299999L, 300000L, 699999L};
+        int[] expected = {1, 2, 2, 3, 3};
+        for (int i = 0; i < times.length; i++) {
+            time.set(times[i]);
+            instance.maintain();
+            assertEquals(attempts.get(), expected[i], "at " + times[i]);
+        }
+        assertFalse(instance.hasIdle(key));
+
+        up.set(true);
+        time.set(700000L); // backoff limited to 400000
+        instance.maintain();
+        assertEquals(attempts.get(), 4);
+        assertTrue(instance.hasIdle(key));
+        IHarcHardware hardware = instance.acquire(key, connector);
+        assertEquals(attempts.get(), 4);
+        instance.release(key, hardware);
+        time.set(2000000L);
+        instance.maintain();
+        assertEquals(attempts.get(), 4); // reconnected, and not pending any more
+        instance.close();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.girr.RemoteSet;
+import org.harctoolbox.irp.IrpUtils;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class BatchConverterNGTest {
+
+    private static final String ZERO = "+564 -564 ";
+    private static final String ONE = "+564 -1692 ";
+
+    /**
+     * NEC1 with D=0, F=0, as rendered by IrpTransmogrifier.
+     */
+    private static String nec1Intro() {
+        StringBuilder str = new StringBuilder("+9024 -4512 ");
+        for (String bit : new String[]{ZERO, ONE, ZERO, ONE})
+            for (int i = 0; i < 8; i++)
+                str.append(bit);
+        return str.append("+564 -39756").toString();
+    }
+
+    private static String mkGirr() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<remotes xmlns=\"http://www.harctoolbox.org/Girr\" girrVersion=\"1.2\">\n"
+                + "    <remote name=\"tv\">\n"
+                + "        <commandSet name=\"default\">\n"
+                + "            <command name=\"power\" master=\"parameters\">\n"
+                + "                <parameters protocol=\"NEC1\">\n"
+                + "                    <parameter name=\"D\" value=\"12\"/>\n"
+                + "                    <parameter name=\"F\" value=\"34\"/>\n"
+                + "                </parameters>\n"
+                + "            </command>\n"
+                + "            <command name=\"mute\" master=\"raw\">\n"
+                + "                <raw frequency=\"38400\">\n"
+                + "                    <intro>" + nec1Intro() + "</intro>\n"
+                + "                    <repeat>+9024 -2256 +564 -96156</repeat>\n"
+                + "                </raw>\n"
+                + "            </command>\n"
+                + "        </commandSet>\n"
+                + "    </remote>\n"
+                + "</remotes>\n";
+    }
+
+    private static Props mkProperties(Path dir) throws Exception {
+        Path irpProtocols = dir.resolve("IrpProtocols.xml");
+        try (InputStream inputStream = BatchConverterNGTest.class.getResourceAsStream("/IrpProtocols.xml")) {
+            Files.copy(inputStream, irpProtocols, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Props properties = new Props(dir.toString());
+        properties.setIrpProtocolsPath(irpProtocols.toString());
+        properties.setExportFormatFilePath("");
+        properties.setExportDir(dir.resolve("out").toString());
+        properties.setExportGenerateParameters(true);
+        properties.setExportGenerateRaw(true);
+        return properties;
+    }
+
+    public BatchConverterNGTest() {
+    }
+
+    /**
+     * Test of convert method, of class BatchConverter, Girr to Girr, with decoding.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testConvert() throws Exception {
+        System.out.println("convert");
+        Path dir = Files.createTempDirectory("batch");
+        Path input = dir.resolve("tv.girr");
+        Files.write(input, mkGirr().getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream report = new ByteArrayOutputStream(1024);
+        BatchConverter instance = new BatchConverter(mkProperties(dir), true, false, true, new PrintStream(report, true, "UTF-8"));
+        String missing = dir.resolve("missing.girr").toString();
+
+        int result = instance.convert(Arrays.asList(input.toString(), missing), null, "Girr", null, 2);
+        String text = new String(report.toByteArray(), StandardCharsets.UTF_8);
+        System.out.print(text);
+        assertEquals(result, IrpUtils.EXIT_IO_ERROR);
+        assertTrue(text.contains("2 commands, 2 decoded"));
+        assertTrue(text.contains("mute: NEC1"));
+        assertTrue(text.contains(missing + ": "));
+        assertTrue(text.contains("1/2 files, 2 commands converted"));
+
+        File output = new File(dir.resolve("out").toFile(), "tv.girr");
+        RemoteSet remoteSet = new RemoteSet(output);
+        Iterator<Command> commands = remoteSet.getCommands().iterator();
+        Command power = commands.next();
+        assertEquals(power.getName(), "power");
+        assertEquals(power.getParameters().get("D"), (Long) 12L);
+        assertEquals(power.getParameters().get("F"), (Long) 34L);
+        assertTrue(power.getIntro().startsWith("+9024 -4512 +564"));
+        Command mute = commands.next();
+        assertEquals(mute.getName(), "mute");
+        assertEquals(mute.getProtocolName(), "NEC1");
+        assertFalse(commands.hasNext());
+
+        assertEquals(instance.convert(Arrays.asList(input.toString()), null, "Girr", null, 1), IrpUtils.EXIT_SUCCESS);
+    }
+}
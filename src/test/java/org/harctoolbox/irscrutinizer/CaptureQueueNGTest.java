@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class CaptureQueueNGTest {
+
+    public CaptureQueueNGTest() {
+    }
+
+    @Test
+    public void testBound() throws Exception {
+        System.out.println("bound");
+        CaptureQueue<Integer> instance = new CaptureQueue<>(3);
+        for (int i = 0; i < 5; i++)
+            instance.offer(i);
+        assertEquals(instance.getDepth(), 3);
+        assertEquals(instance.getAccepted(), 3L);
+        assertEquals(instance.getDropped(), 2L);
+        assertEquals(instance.getHighWaterMark(), 3);
+        assertEquals(instance.take(), (Integer) 0);
+        assertTrue(instance.offer(5));
+        instance.close();
+        assertFalse(instance.offer(6));
+        assertEquals(instance.take(), (Integer) 1);
+        assertEquals(instance.take(), (Integer) 2);
+        assertEquals(instance.take(), (Integer) 5);
+        assertNull(instance.take());
+        assertEquals(instance.getDepth(), 0);
+        assertEquals(instance.getDropped(), 3L);
+    }
+
+    @Test(timeOut = 10000)
+    public void testConcurrent() throws Exception {
+        System.out.println("concurrent");
+        final int count = 100000;
+        CaptureQueue<Integer> instance = new CaptureQueue<>(16);
+        List<Integer> received = new ArrayList<>(count);
+        Thread consumer = new Thread(() -> {
+            try {
+                Integer element;
+                while ((element = instance.take()) != null)
+                    received.add(element);
+            } catch (InterruptedException ex) {
+            }
+        });
+        consumer.start();
+        for (int i = 0; i < count; i++)
+            instance.offer(i);
+        instance.close();
+        consumer.join();
+        assertEquals(received.size() + instance.getDropped(), count);
+        assertEquals(received.size(), instance.getAccepted());
+        for (int i = 1; i < received.size(); i++)
+            assertTrue(received.get(i) > received.get(i - 1));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer;
+
+import org.harctoolbox.ircore.IrSignal;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class DecodeCacheNGTest {
+
+    private static final String NEC1 = "+9024 -4512 +564 -1692 +564 -564 +564 -39756";
+    private static final String NEC1_JITTERED = "+9031 -4509 +566 -1690 +565 -566 +565 -39750";
+    private static final String OTHER = "+2400 -600 +1200 -600 +600 -25000";
+
+    public DecodeCacheNGTest() {
+    }
+
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        System.out.println("hitsAndMisses");
+        DecodeCache instance = new DecodeCache(10, 100.0);
+        IrSignal nec1 = new IrSignal(NEC1, "", "", 38000.0, null);
+        IrSignal jittered = new IrSignal(NEC1_JITTERED, "", "", 38000.0, null);
+        IrSignal other = new IrSignal(OTHER, "", "", 38000.0, null);
+
+        assertEquals(instance.get(DecodeCache.Kind.decodeIrSignal, nec1, "p", () -> "nec1"), "nec1");
+        assertEquals(instance.get(DecodeCache.Kind.decodeIrSignal, jittered, "p", () -> "fresh"), "nec1");
+        assertEquals(instance.get(DecodeCache.Kind.decodeIrSignal, other, "p", () -> "other"), "other");
+        assertEquals(instance.get(DecodeCache.Kind.decodeIrSignal, nec1, "q", () -> "nec1q"), "nec1q");
+        // The analyzer is not subject to quantization
+        assertEquals(instance.get(DecodeCache.Kind.analyze, nec1, "p", () -> "a"), "a");
+        assertEquals(instance.get(DecodeCache.Kind.analyze, jittered, "p", () -> "b"), "b");
+        assertEquals(instance.getHits(), 1L);
+        assertEquals(instance.getMisses(), 5L);
+        assertEquals(instance.size(), 5);
+
+        instance.clear();
+        assertEquals(instance.get(DecodeCache.Kind.decodeIrSignal, nec1, "p", () -> "again"), "again");
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        System.out.println("eviction");
+        DecodeCache instance = new DecodeCache(2, 100.0);
+        IrSignal nec1 = new IrSignal(NEC1, "", "", 38000.0, null);
+        IrSignal other = new IrSignal(OTHER, "", "", 38000.0, null);
+        IrSignal other40k = new IrSignal(OTHER, "", "", 40000.0, null);
+
+        instance.get(DecodeCache.Kind.decodeIrSignal, nec1, null, () -> "nec1");
+        instance.get(DecodeCache.Kind.decodeIrSignal, other, null, () -> "other");
+        instance.get(DecodeCache.Kind.decodeIrSignal, nec1, null, () -> "fresh"); // makes nec1 most recently used
+        instance.get(DecodeCache.Kind.decodeIrSignal, other40k, null, () -> "other40k"); // evicts other
+        assertEquals(instance.size(), 2);
+        assertEquals(instance.get(DecodeCache.Kind.decodeIrSignal, nec1, null, () -> "fresh"), "nec1");
+        assertEquals(instance.get(DecodeCache.Kind.decodeIrSignal, other, null, () -> "fresh"), "fresh");
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        System.out.println("disabled");
+        DecodeCache instance = new DecodeCache(0);
+        IrSignal nec1 = new IrSignal(NEC1, "", "", 38000.0, null);
+        instance.get(DecodeCache.Kind.decodeIrSignal, nec1, null, () -> "first");
+        assertEquals(instance.get(DecodeCache.Kind.decodeIrSignal, nec1, null, () -> "second"), "second");
+        assertEquals(instance.size(), 0);
+        assertEquals(instance.getMisses(), 2L);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.harchardware.HarcHardwareException;
+import org.harctoolbox.harchardware.IHarcHardware;
+import org.harctoolbox.harchardware.ir.IRawIrSender;
+import org.harctoolbox.harchardware.ir.Transmitter;
+import org.harctoolbox.ircore.InvalidArgumentException;
+import org.harctoolbox.ircore.IrSignal;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class MultiTransmitterNGTest {
+
+    private static IrSignal mkIrSignal(int i) throws InvalidArgumentException {
+        return new IrSignal(new int[]{9000, 4500, 560, 560 + i, 560, 1690, 560, 40000}, 4, 2, 38000.0, null);
+    }
+
+    /**
+     * Loopback hardware, which just records the signals sent, after the given delay.
+     */
+    private static final class LoopbackHardware implements IHarcHardware, IRawIrSender {
+
+        private final List<IrSignal> sent = Collections.synchronizedList(new ArrayList<>(8));
+        private final long delay;
+        private final boolean broken;
+        private boolean valid = false;
+
+        LoopbackHardware(long delay, boolean broken) {
+            this.delay = delay;
+            this.broken = broken;
+        }
+
+        @Override
+        public boolean sendIr(IrSignal irSignal, int count, Transmitter transmitter) throws HarcHardwareException, IOException {
+            if (!valid)
+                throw new IOException("Not open");
+            if (broken)
+                throw new HarcHardwareException("Broken");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            sent.add(irSignal);
+            return true;
+        }
+
+        @Override
+        public Transmitter getTransmitter() {
+            return null;
+        }
+
+        @Override
+        public String getVersion() {
+            return "Loopback";
+        }
+
+        @Override
+        public void setVerbose(boolean verbose) {
+        }
+
+        @Override
+        public void setDebug(int debug) {
+        }
+
+        @Override
+        public void setTimeout(int timeout) {
+        }
+
+        @Override
+        public boolean isValid() {
+            return valid;
+        }
+
+        @Override
+        public void open() {
+            valid = true;
+        }
+
+        @Override
+        public void close() {
+            valid = false;
+        }
+    }
+
+    private static Map<String, TransmissionQueue.Transmitter> mkTransmitters(LoopbackHardware... hardware) {
+        Map<String, TransmissionQueue.Transmitter> transmitters = new LinkedHashMap<>(hardware.length);
+        for (int i = 0; i < hardware.length; i++) {
+            LoopbackHardware h = hardware[i];
+            h.open();
+            transmitters.put("loopback" + i, (IrSignal irSignal, int count) -> h.sendIr(irSignal, count, null));
+        }
+        return transmitters;
+    }
+
+    public MultiTransmitterNGTest() {
+    }
+
+    /**
+     * Test of transmit method, of class MultiTransmitter.
+     * @throws java.lang.Exception
+     */
+    @Test(timeOut = 10000)
+    public void testTransmit() throws Exception {
+        System.out.println("transmit");
+        LoopbackHardware[] hardware = new LoopbackHardware[]{new LoopbackHardware(100L, false), new LoopbackHardware(100L, false), new LoopbackHardware(100L, false)};
+        try (MultiTransmitter instance = new MultiTransmitter(mkTransmitters(hardware), 2000L)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 3; i++)
+                assertTrue(instance.transmit(mkIrSignal(i), 1));
+            long time = System.nanoTime() - start;
+            assertTrue(time < 3 * 3 * 100000000L, "not sent in parallel"); // sequentially: 9 x 100 ms
+            for (LoopbackHardware h : hardware) {
+                assertEquals(h.sent.size(), 3);
+                assertEquals(h.sent.get(2).toString(), mkIrSignal(2).toString());
+            }
+            assertEquals(instance.getNoTransmitted(), 3);
+            assertEquals(instance.getLastResults().size(), 3);
+            assertEquals(instance.getNames().get(1), "loopback1");
+            assertTrue(instance.getMaxTime() >= instance.getMeanTime());
+            assertTrue(instance.getMeanTime() >= 100000000L);
+        }
+    }
+
+    /**
+     * Test of the failure isolation of the transmit method, of class MultiTransmitter.
+     * @throws java.lang.Exception
+     */
+    @Test(timeOut = 10000)
+    public void testFailure() throws Exception {
+        System.out.println("failure");
+        LoopbackHardware good = new LoopbackHardware(0L, false);
+        LoopbackHardware broken = new LoopbackHardware(0L, true);
+        LoopbackHardware slow = new LoopbackHardware(5000L, false);
+        try (MultiTransmitter instance = new MultiTransmitter(mkTransmitters(good, broken, slow), 200L)) {
+            assertFalse(instance.transmit(mkIrSignal(0), 1));
+            List<MultiTransmitter.Result> results = instance.getLastResults();
+            assertTrue(results.get(0).isSuccess());
+            assertFalse(results.get(1).isSuccess());
+            assertTrue(results.get(1).getException() instanceof HarcHardwareException);
+            assertFalse(results.get(2).isSuccess()); // timed out
+            assertEquals(good.sent.size(), 1);
+            assertEquals(slow.sent.size(), 0);
+        }
+
+        try (MultiTransmitter instance = new MultiTransmitter(mkTransmitters(broken), 200L)) {
+            instance.transmit(mkIrSignal(0), 1);
+            fail();
+        } catch (HarcHardwareException ex) {
+        }
+    }
+
+    /**
+     * Test of a MultiTransmitter driving a TransmissionQueue.
+     * @throws java.lang.Exception
+     */
+    @Test(timeOut = 10000)
+    public void testQueue() throws Exception {
+        System.out.println("queue");
+        LoopbackHardware first = new LoopbackHardware(0L, false);
+        LoopbackHardware second = new LoopbackHardware(0L, false);
+        List<TransmissionQueue.Item> items = new ArrayList<>(4);
+        for (int i = 0; i < 4; i++)
+            items.add(new TransmissionQueue.Item(new Command("cmd" + i, null, mkIrSignal(i)), 1, 0));
+        try (MultiTransmitter instance = new MultiTransmitter(mkTransmitters(first, second), 2000L)) {
+            TransmissionQueue queue = new TransmissionQueue(items, instance, null);
+            queue.start();
+            queue.join();
+            assertEquals(queue.getNoTransmitted(), 4);
+            assertEquals(first.sent.size(), 4);
+            assertEquals(second.sent.size(), 4);
+            assertEquals(second.sent.get(3).toString(), mkIrSignal(3).toString());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.harchardware.HarcHardwareException;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.irp.IrpException;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class TransmissionQueueNGTest {
+
+    private static List<TransmissionQueue.Item> mkItems(int number, int count, int delay) throws Exception {
+        List<TransmissionQueue.Item> items = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            Map<String, Long> parameters = new HashMap<>(2);
+            parameters.put("D", 12L);
+            parameters.put("F", (long) i);
+            items.add(new TransmissionQueue.Item(new Command("cmd" + i, null, "NEC1", parameters), count, delay));
+        }
+        return items;
+    }
+
+    private static class Recorder implements TransmissionQueue.Listener {
+
+        private final List<Integer> indexes = Collections.synchronizedList(new ArrayList<>(8));
+        private volatile Exception failure = null;
+        private volatile int finished = 0;
+
+        @Override
+        public void transmitted(int index, TransmissionQueue.Item item, boolean success, long latency) {
+            assertTrue(success);
+            assertTrue(latency >= 0L);
+            indexes.add(index);
+        }
+
+        @Override
+        public void failed(int index, TransmissionQueue.Item item, Exception ex) {
+            failure = ex;
+        }
+
+        @Override
+        public void finished(TransmissionQueue queue) {
+            finished++;
+        }
+    }
+
+    public TransmissionQueueNGTest() {
+    }
+
+    @Test(timeOut = 10000)
+    public void testTransmit() throws Exception {
+        System.out.println("transmit");
+        List<TransmissionQueue.Item> items = mkItems(5, 3, 1);
+        List<IrSignal> sent = Collections.synchronizedList(new ArrayList<>(5));
+        Recorder recorder = new Recorder();
+        TransmissionQueue instance = new TransmissionQueue(items, (IrSignal irSignal, int count) -> {
+            assertEquals(count, 3);
+            sent.add(irSignal);
+            return true;
+        }, recorder);
+        instance.start();
+        instance.join();
+        assertEquals(instance.getNoTransmitted(), 5);
+        assertEquals(recorder.indexes.size(), 5);
+        assertNull(recorder.failure);
+        assertEquals(recorder.finished, 1);
+        for (int i = 0; i < items.size(); i++)
+            assertEquals(sent.get(i).toString(), items.get(i).getCommand().toIrSignal().toString());
+        assertTrue(instance.getMaxLatency() >= instance.getMeanLatency());
+        assertFalse(instance.isCancelled());
+    }
+
+    @Test(timeOut = 10000)
+    public void testPauseCancel() throws Exception {
+        System.out.println("pauseCancel");
+        CountDownLatch firstSent = new CountDownLatch(1);
+        Recorder recorder = new Recorder();
+        TransmissionQueue instance = new TransmissionQueue(mkItems(10, 1, 0), (IrSignal irSignal, int count) -> {
+            firstSent.countDown();
+            return true;
+        }, recorder);
+        instance.pause();
+        instance.start();
+        assertFalse(firstSent.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(instance.getNoTransmitted(), 0);
+        assertTrue(instance.isRunning());
+        instance.resume();
+        assertTrue(firstSent.await(5, TimeUnit.SECONDS));
+        instance.cancel();
+        instance.join();
+        assertTrue(instance.isCancelled());
+        assertTrue(instance.getNoTransmitted() >= 1);
+        assertEquals(recorder.finished, 1);
+    }
+
+    @Test(timeOut = 10000)
+    public void testFailure() throws Exception {
+        System.out.println("failure");
+        Recorder recorder = new Recorder();
+        TransmissionQueue instance = new TransmissionQueue(mkItems(4, 1, 0), (IrSignal irSignal, int count) -> {
+            if (recorder.indexes.size() == 2)
+                throw new HarcHardwareException("broken");
+            return true;
+        }, recorder);
+        instance.start();
+        instance.join();
+        assertEquals(instance.getNoTransmitted(), 2);
+        assertTrue(recorder.failure instanceof HarcHardwareException);
+        assertEquals(recorder.finished, 1);
+    }
+
+    @Test(timeOut = 10000)
+    public void testRenderFailure() throws Exception {
+        System.out.println("renderFailure");
+        List<TransmissionQueue.Item> items = mkItems(3, 1, 0);
+        Map<String, Long> parameters = new HashMap<>(1);
+        parameters.put("D", 12L); // F missing
+        items.add(1, new TransmissionQueue.Item(new Command("broken", null, "NEC1", parameters), 1, 0));
+        Recorder recorder = new Recorder();
+        TransmissionQueue instance = new TransmissionQueue(items, (IrSignal irSignal, int count) -> true, recorder);
+        instance.start();
+        instance.join();
+        assertEquals(instance.getNoTransmitted(), 1);
+        assertTrue(recorder.failure instanceof IrpException);
+        assertEquals(recorder.finished, 1);
+    }
+}
@@ -45,4 +45,17 @@ public class CIdentifierFactoryNGTest {
         assertEquals(instance.mkCIdentifier("0", 73), "_0");
     }
 
+    /**
+     * Test of mkCIdentifier method, of class CIdentifierFactory, with many equal names.
+     */
+    @Test(timeOut = 10000)
+    public void testMkCIdentifierMany() {
+        System.out.println("mkCIdentifierMany");
+        CIdentifierFactory instance = new CIdentifierFactory();
+        assertEquals(instance.mkCIdentifier("key 1", 0), "key_1");
+        for (int i = 1; i < 100000; i++)
+            instance.mkCIdentifier("key", i);
+        assertEquals(instance.mkCIdentifier("key", 100000), "key_100000");
+        assertEquals(instance.mkCIdentifier("key_1", 100001), "key_1_1");
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.harctoolbox.irscrutinizer.exporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class ExportFormatIndexNGTest {
+
+    private static void writeFormats(File file, String... names) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<exportformats:exportformats xmlns:exportformats=\"http://www.harctoolbox.org/exportformats\">");
+            for (String name : names) {
+                out.println("<exportformats:exportformat name=\"" + name + "\" extension=\"txt\" multiSignal=\"true\">");
+                out.println("<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" version=\"1.0\">");
+                out.println("<xsl:output method=\"text\"/>");
+                out.println("<xsl:template match=\"/\">" + name + "</xsl:template>");
+                out.println("</xsl:stylesheet>");
+                out.println("</exportformats:exportformat>");
+            }
+            out.println("</exportformats:exportformats>");
+        }
+    }
+
+    private static boolean isLoaded(Map<String, IExporterFactory> map, String name) {
+        return ((DynamicRemoteSetExportFormat.Factory) map.get(name)).isLoaded();
+    }
+
+    public ExportFormatIndexNGTest() {
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        System.out.println("index");
+        File dir = Files.createTempDirectory("exportformats").toFile();
+        File formatsDir = new File(dir, "exportformats.d");
+        formatsDir.mkdir();
+        File first = new File(formatsDir, "first.xml");
+        File second = new File(formatsDir, "second.xml");
+        writeFormats(first, "One", "Two");
+        writeFormats(second, "Three");
+        File indexFile = new File(dir, ExportFormatManager.INDEX_FILENAME);
+
+        // No index: everything is parsed, and the index written.
+        ExportFormatIndex index = new ExportFormatIndex(indexFile);
+        Map<String, IExporterFactory> map = index.parseExportFormats(null, formatsDir);
+        index.save();
+        assertEquals(map.size(), 3);
+        assertTrue(isLoaded(map, "One"));
+        assertTrue(indexFile.exists());
+
+        // Index up to date: nothing is parsed until used.
+        index = new ExportFormatIndex(indexFile);
+        map = index.parseExportFormats(null, formatsDir);
+        assertEquals(map.size(), 3);
+        assertFalse(isLoaded(map, "One"));
+        assertFalse(isLoaded(map, "Three"));
+        assertEquals(map.get("Two").newExporter().getName(), "Two");
+        assertTrue(isLoaded(map, "Two"));
+        assertFalse(isLoaded(map, "Three"));
+
+        // Changed and removed files are noticed.
+        writeFormats(first, "One", "Two", "Four");
+        second.delete();
+        index = new ExportFormatIndex(indexFile);
+        map = index.parseExportFormats(null, formatsDir);
+        index.save();
+        assertEquals(map.size(), 3);
+        assertTrue(map.containsKey("Four"));
+        assertFalse(map.containsKey("Three"));
+        assertFalse(new String(Files.readAllBytes(indexFile.toPath()), StandardCharsets.UTF_8).contains("second.xml"));
+
+        first.delete();
+        indexFile.delete();
+        formatsDir.delete();
+        dir.delete();
+    }
+
+    /**
+     * Test of a file that is broken after having been indexed, and is loaded lazily.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testBrokenFile() throws Exception {
+        System.out.println("brokenFile");
+        File dir = Files.createTempDirectory("exportformats").toFile();
+        File formatsDir = new File(dir, "exportformats.d");
+        formatsDir.mkdir();
+        File first = new File(formatsDir, "first.xml");
+        File second = new File(formatsDir, "second.xml");
+        writeFormats(first, "One", "Two");
+        writeFormats(second, "Three");
+        File indexFile = new File(dir, ExportFormatManager.INDEX_FILENAME);
+        new ExportFormatManager(null).addDynamicFormats(null, formatsDir, indexFile);
+
+        ExportFormatManager manager = new ExportFormatManager(null);
+        manager.addDynamicFormats(null, formatsDir, indexFile);
+        Files.write(first.toPath(), "<exportformats".getBytes(StandardCharsets.UTF_8));
+        try {
+            manager.newExporter("One");
+            fail();
+        } catch (IOException ex) {
+        }
+        assertNull(manager.get("One"));
+        assertEquals(manager.newExporter("Three").getName(), "Three");
+        String index = new String(Files.readAllBytes(indexFile.toPath()), StandardCharsets.UTF_8);
+        assertFalse(index.contains("first.xml"));
+        assertTrue(index.contains("second.xml"));
+
+        first.delete();
+        second.delete();
+        indexFile.delete();
+        formatsDir.delete();
+        dir.delete();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer.exporter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.harchardware.ir.Broadlink;
+import org.harctoolbox.ircore.InvalidArgumentException;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import org.harctoolbox.irp.Protocol;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class ExtraFormatterNGTest {
+
+    private static final String NEC1_IRP = "{38.4k,564}<1,-1|1,-3>(16,-8,D:8,S:8,F:8,~F:8,1,^108m,(16,-4,1,^108m)*) [D:0..255,S:0..255=255-D,F:0..255]";
+
+    private static IrSignal mkIrSignal(int i) throws InvalidArgumentException {
+        return new IrSignal(new int[]{9000, 4500, 560, 560 + i, 560, 1690, 560, 40000}, 4, 2, 38000.0, null);
+    }
+
+    public ExtraFormatterNGTest() {
+    }
+
+    /**
+     * Test of toModulatedIrSequence method, of class ExtraFormatter.
+     * The sequence is shared between the formats of a signal only while a slice is being formatted.
+     * @throws org.harctoolbox.ircore.InvalidArgumentException
+     */
+    @Test
+    public void testToModulatedIrSequence() throws InvalidArgumentException {
+        System.out.println("toModulatedIrSequence");
+        IrSignal irSignal = mkIrSignal(0);
+        assertNotSame(ExtraFormatter.toModulatedIrSequence(irSignal, 3), ExtraFormatter.toModulatedIrSequence(irSignal, 3));
+        assertEquals(ExtraFormatter.toModulatedIrSequence(irSignal, 2).getLength(), irSignal.toModulatedIrSequence(true, 2, true).getLength());
+
+        List<ModulatedIrSequence> sequences = new ArrayList<>(4);
+        Command.CommandTextFormat recorder = new Command.CommandTextFormat() {
+            @Override
+            public String getName() {
+                return "recorder";
+            }
+
+            @Override
+            public String format(IrSignal irSignal, int count) {
+                sequences.add(ExtraFormatter.toModulatedIrSequence(irSignal, count));
+                return "";
+            }
+        };
+        List<IrSignal> slice = new ArrayList<>(2);
+        slice.add(irSignal);
+        slice.add(mkIrSignal(1));
+        ExtraFormatter.format(new Command.CommandTextFormat[] { recorder, recorder }, slice, 3);
+        assertEquals(sequences.size(), 4);
+        assertSame(sequences.get(0), sequences.get(1));
+        assertSame(sequences.get(2), sequences.get(3));
+        assertNotSame(sequences.get(1), sequences.get(2));
+        assertNotSame(ExtraFormatter.toModulatedIrSequence(irSignal, 3), sequences.get(0));
+    }
+
+    /**
+     * Test of format method, of class ExtraFormatter.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testFormat() throws Exception {
+        System.out.println("format");
+        List<Command> commands = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++)
+            commands.add(new Command("cmd" + i, null, mkIrSignal(i)));
+        Command.CommandTextFormat[] formats = new Command.CommandTextFormat[] {
+            new BroadlinkHexFormatter(), new ShortCcfFormatter(), new BroadlinkBase64Formatter()
+        };
+        try (ExtraFormatter instance = new ExtraFormatter(formats, 1)) {
+            List<String[]> result = instance.format(commands);
+            assertEquals(result.size(), commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                IrSignal irSignal = commands.get(i).toIrSignal();
+                assertEquals(result.get(i).length, formats.length);
+                assertEquals(result.get(i)[0], Broadlink.broadlinkHexString(irSignal.toModulatedIrSequence(true, 1, true), 1));
+                assertEquals(result.get(i)[1], formats[1].format(irSignal, 1));
+                assertEquals(result.get(i)[2], Broadlink.broadlinkBase64String(irSignal.toModulatedIrSequence(true, 1, true), 1));
+            }
+        }
+        try (ExtraFormatter instance = new ExtraFormatter(new Command.CommandTextFormat[0], 1)) {
+            List<String[]> result = instance.format(commands);
+            assertEquals(result.size(), commands.size());
+            assertEquals(result.get(0).length, 0);
+        }
+    }
+
+    /**
+     * Test of format method, of class ExtraFormatter, with short CCF, which decodes, on signals that it decodes.
+     * @throws java.lang.Exception
+     */
+    @Test(timeOut = 10000)
+    public void testFormatShortCcf() throws Exception {
+        System.out.println("formatShortCcf");
+        Protocol nec1 = new Protocol(NEC1_IRP);
+        List<Command> commands = new ArrayList<>(1024);
+        for (int i = 0; i < 1024; i++) {
+            Map<String, Long> parameters = new HashMap<>(2);
+            parameters.put("D", (long) (i / 256));
+            parameters.put("F", (long) (i % 256));
+            commands.add(new Command("cmd" + i, null, nec1.toIrSignal(parameters)));
+        }
+        Command.CommandTextFormat[] formats = new Command.CommandTextFormat[] { new ShortCcfFormatter() };
+        List<String> expected = new ArrayList<>(commands.size());
+        for (Command command : commands)
+            expected.add(formats[0].format(command.toIrSignal(), 1));
+
+        try (ExtraFormatter instance = new ExtraFormatter(formats, 1)) {
+            for (int round = 0; round < 4; round++) {
+                List<String[]> result = instance.format(commands);
+                assertEquals(result.size(), commands.size());
+                for (int i = 0; i < commands.size(); i++) {
+                    assertTrue(result.get(i)[0].startsWith("900A "));
+                    assertEquals(result.get(i)[0], expected.get(i));
+                }
+            }
+        }
+    }
+}
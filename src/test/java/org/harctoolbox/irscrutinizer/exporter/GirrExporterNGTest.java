@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer.exporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.girr.CommandSet;
+import org.harctoolbox.girr.Remote;
+import org.harctoolbox.girr.RemoteSet;
+import org.harctoolbox.ircore.IrSignal;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class GirrExporterNGTest {
+
+    private static final Command.CommandTextFormat lengthFormat = new Command.CommandTextFormat() {
+        @Override
+        public String getName() {
+            return "length";
+        }
+
+        @Override
+        public String format(IrSignal irSignal, int count) {
+            return "<" + irSignal.getIntroLength() + "&" + irSignal.getRepeatLength() + ">";
+        }
+    };
+
+    private static RemoteSet mkRemoteSet() throws Exception {
+        Map<String, Long> parameters = new HashMap<>(2);
+        parameters.put("D", 12L);
+        parameters.put("F", 34L);
+        Command power = new Command("power", "a comment", "NEC1", parameters);
+        IrSignal irSignal = new IrSignal(new int[]{9000, 4500, 560, 560, 560, 1690, 560, 40000}, 4, 2, 38000.0, null);
+        Command raw = new Command("raw & <one>", null, irSignal);
+        Map<String, Command> commands = new LinkedHashMap<>(2);
+        commands.put(power.getName(), power);
+        commands.put(raw.getName(), raw);
+        Map<String, String> commandSetNotes = new HashMap<>(1);
+        commandSetNotes.put("fr", "Command set notes");
+        Map<String, Long> commandSetParameters = new HashMap<>(1);
+        commandSetParameters.put("D", 12L);
+        CommandSet commandSet = new CommandSet("cset", commandSetNotes, commands, "NEC1", commandSetParameters);
+        Map<String, String> notes = new HashMap<>(2);
+        notes.put("en", "Remote notes");
+        notes.put("de", "Bemerkungen");
+        Remote remote = new Remote(new Remote.MetaData("rname", "Display", "Manu", "Model", "TV", "RC-1"), "remote comment", notes, commandSet, null);
+        Map<String, String> remoteSetNotes = new HashMap<>(2);
+        remoteSetNotes.put("en", "Remote set notes");
+        remoteSetNotes.put("sv", "Anteckningar");
+        return new RemoteSet("creator", "source.txt", null, null, null, null, null, remoteSetNotes, remote);
+    }
+
+    public GirrExporterNGTest() {
+    }
+
+    /**
+     * Test of export method, of class GirrExporter.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testExport() throws Exception {
+        System.out.println("export");
+        RemoteSet remoteSet = mkRemoteSet();
+        File file = File.createTempFile("export", ".girr");
+        file.deleteOnExit();
+        GirrExporter instance = new GirrExporter(false, true, true, true, lengthFormat);
+        instance.export(remoteSet, "Title", file, "UTF-8");
+        for (Command command : remoteSet.getCommands())
+            assertTrue(command.getOtherFormats().isEmpty());
+
+        RemoteSet result = new RemoteSet(file);
+        assertEquals(result.getCreatingUser(), "creator");
+        assertEquals(result.getSource(), "source.txt");
+        Remote remote = result.iterator().next();
+        assertEquals(remote.getName(), "rname");
+        assertEquals(remote.getManufacturer(), "Manu");
+        assertEquals(remote.getNotes(), "Remote notes");
+        assertEquals(remote.getNotes("de"), "Bemerkungen");
+        assertEquals(result.getNotes("sv"), "Anteckningar");
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(text.contains("<commandSet name=\"cset\">"));
+        assertTrue(text.contains("Command set notes"));
+        assertTrue(text.contains("<parameters protocol=\"NEC1\">"));
+        assertEquals(text.split("<parameter name=\"D\"", -1).length, 2); // written for the command set only
+        Iterator<Command> iterator = result.getCommands().iterator();
+        Command power = iterator.next();
+        assertEquals(power.getName(), "power");
+        assertEquals(power.getComment(), "a comment");
+        assertEquals(power.getProtocolName(), "NEC1");
+        assertEquals(power.getParameters().get("D"), (Long) 12L);
+        assertEquals(power.getParameters().get("F"), (Long) 34L);
+        assertEquals(power.getFormat("length"), "<68&4>");
+        Command raw = iterator.next();
+        assertEquals(raw.getName(), "raw & <one>");
+        assertEquals(raw.getMasterType(), Command.MasterType.raw);
+        assertEquals(raw.getEnding(), "+560 -40000");
+        assertEquals(raw.getFormat("length"), "<4&2>");
+        assertFalse(iterator.hasNext());
+    }
+
+    /**
+     * Test of exportPerRemote method, of class RemoteSetExporter.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testExportPerRemote() throws Exception {
+        System.out.println("exportPerRemote");
+        IrSignal irSignal = new IrSignal(new int[]{9000, 4500, 560, 560, 560, 1690, 560, 40000}, 4, 2, 38000.0, null);
+        Map<String, Remote> remotes = new LinkedHashMap<>(2);
+        for (String name : new String[]{"a b", "a_b"}) {
+            Map<String, Command> commands = new LinkedHashMap<>(1);
+            commands.put("raw", new Command("raw", null, irSignal));
+            Remote remote = new Remote(new Remote.MetaData(name), null, null, commands, null);
+            remotes.put(name, remote);
+        }
+        RemoteSet remoteSet = new RemoteSet("creator", "source.txt", remotes);
+        GirrExporter instance = new GirrExporter(false, true, true, true);
+
+        File dir = Files.createTempDirectory("exportPerRemote").toFile();
+        List<File> files = instance.exportPerRemote(remoteSet, "Title", dir, false, "UTF-8");
+        assertEquals(files.size(), 2);
+        assertNotEquals(files.get(0), files.get(1)); // sanitized before made unique
+        for (File file : files) {
+            assertTrue(file.isFile());
+            assertEquals(new RemoteSet(file).getRemotes().size(), 1);
+            file.delete();
+        }
+
+        List<File> zipFiles = instance.exportPerRemote(remoteSet, "Title", dir, true, "UTF-8");
+        assertEquals(zipFiles.size(), 1);
+        List<String> entries = new ArrayList<>(2);
+        try (ZipFile zipFile = new ZipFile(zipFiles.get(0))) {
+            for (ZipEntry entry : Collections.list(zipFile.entries()))
+                entries.add(entry.getName());
+        }
+        assertEquals(entries.size(), 2);
+        assertNotEquals(entries.get(0), entries.get(1));
+        zipFiles.get(0).delete();
+        dir.delete();
+    }
+
+    /**
+     * Test of exportPerRemote method, of class RemoteSetExporter, with a failing writer.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testExportPerRemoteFailure() throws Exception {
+        System.out.println("exportPerRemoteFailure");
+        IrSignal irSignal = new IrSignal(new int[]{9000, 4500, 560, 560, 560, 1690, 560, 40000}, 4, 2, 38000.0, null);
+        Map<String, Remote> remotes = new LinkedHashMap<>(4);
+        for (String name : new String[]{"a", "b", "c", "d"}) {
+            Map<String, Command> commands = new LinkedHashMap<>(1);
+            commands.put("raw", new Command("raw", null, irSignal));
+            remotes.put(name, new Remote(new Remote.MetaData(name), null, null, commands, null));
+        }
+        RemoteSet remoteSet = new RemoteSet("creator", "source.txt", remotes);
+        GirrExporter instance = new GirrExporter(false, true, true, true);
+        File dir = Files.createTempDirectory("exportPerRemoteFailure").toFile();
+        try {
+            instance.exportPerRemote(remoteSet, "Title", dir, false, "UTF-8", (RemoteSet rs, String title, File file, String charsetName) -> {
+                Files.write(file.toPath(), "<remotes".getBytes(StandardCharsets.UTF_8));
+                if (rs.iterator().next().getName().equals("b"))
+                    throw new IOException("failed");
+                instance.export(rs, title, file, charsetName);
+            }, true);
+            fail();
+        } catch (IOException ex) {
+            assertEquals(ex.getMessage(), "failed");
+        }
+        for (File file : dir.listFiles()) {
+            assertFalse(file.getName().endsWith(".tmp"));
+            assertNotEquals(file.getName(), "b.girr");
+            assertEquals(new RemoteSet(file).getRemotes().size(), 1); // complete
+            file.delete();
+        }
+        dir.delete();
+    }
+}
@@ -18,6 +18,8 @@
 package org.harctoolbox.irscrutinizer.exporter;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import static org.testng.Assert.*;
 import org.testng.annotations.AfterClass;
@@ -26,6 +28,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
 public class NameUniquefierNGTest {
     private static final String[] nonUniqueNames = {
         "foo",
@@ -81,4 +84,49 @@ public class NameUniquefierNGTest {
         List<String> result = NameUniquefier.mkUnique(names);
         assertEquals(result, expResult);
     }
+
+    /**
+     * Test of uniquefy method, of class NameUniquefier, with old names and explicit numbers.
+     */
+    @Test
+    public void testUniquefy() {
+        System.out.println("uniquefy");
+        NameUniquefier instance = new NameUniquefier(Arrays.asList("foo", "foo#2"), "#");
+        assertEquals(instance.uniquefy("foo"), "foo#1");
+        assertEquals(instance.uniquefy("foo"), "foo#3");
+        assertEquals(instance.uniquefy("foo#7"), "foo#7");
+        assertEquals(instance.uniquefy("foo#7"), "foo#8");
+        assertEquals(instance.uniquefy("foo"), "foo#4");
+        assertEquals(instance.uniquefy("foo#1"), "foo#5");
+        assertEquals(instance.uniquefy("foo"), "foo#6");
+        assertEquals(instance.uniquefy("foo"), "foo#9");
+    }
+
+    /**
+     * Makes many equal names unique, counting the names probed, which must be linear in the number of names.
+     */
+    @Test
+    public void testMkUniqueMany() {
+        System.out.println("mkUniqueMany");
+        final int count = 20000;
+        List<String> names = Collections.nCopies(count, "Learned IR Code");
+        CountingNameUniquefier instance = new CountingNameUniquefier();
+        List<String> result = instance.uniquefy(names);
+        assertEquals(result.size(), count);
+        assertEquals(result.get(0), "Learned IR Code");
+        assertEquals(result.get(count - 1), "Learned IR Code#" + (count - 1));
+        assertEquals(new HashSet<>(result).size(), count);
+        assertEquals(instance.probes, 2 * count - 1); // the name itself, and then its first free number
+    }
+
+    private static class CountingNameUniquefier extends NameUniquefier {
+
+        private int probes = 0;
+
+        @Override
+        public boolean isOk(String name) {
+            probes++;
+            return super.isOk(name);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer.importer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class ArchiveReaderNGTest {
+
+    private static final String LONG_NAME = "remotes/a/very/long/directory/name/that/does/not/fit/into/the/hundred/characters/of/the/name/field/c.conf";
+
+    private static String read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int b = inputStream.read(); b >= 0; b = inputStream.read())
+            bytes.write(b);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void tarHeader(OutputStream out, String name, char type, int size) throws IOException {
+        byte[] header = new byte[512];
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(nameBytes, 0, header, 0, Math.min(nameBytes.length, 100));
+        byte[] sizeBytes = String.format("%011o", size).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(sizeBytes, 0, header, 124, sizeBytes.length);
+        header[156] = (byte) type;
+        System.arraycopy("ustar".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 5);
+        out.write(header);
+    }
+
+    private static void tarEntry(OutputStream out, String name, char type, String content) throws IOException {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        tarHeader(out, name, type, data.length);
+        out.write(data);
+        out.write(new byte[(512 - data.length % 512) % 512]);
+    }
+
+    public ArchiveReaderNGTest() {
+    }
+
+    @Test
+    public void testZip() throws IOException {
+        System.out.println("zip");
+        File file = File.createTempFile("archive", ".zip");
+        file.deleteOnExit();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            out.putNextEntry(new ZipEntry("readme.txt"));
+            out.write("nothing".getBytes(StandardCharsets.UTF_8));
+            out.putNextEntry(new ZipEntry("dir/"));
+            out.putNextEntry(new ZipEntry("dir/b.conf"));
+            out.write("bbb".getBytes(StandardCharsets.UTF_8));
+            out.putNextEntry(new ZipEntry("c.CONF"));
+            out.write("ccc".getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue(ArchiveReader.isArchive(file.getName()));
+        try (ArchiveReader instance = ArchiveReader.open(file)) {
+            assertEquals(instance.nextMatch("conf"), "dir/b.conf");
+            assertEquals(read(instance.getInputStream()), "bbb");
+            assertEquals(instance.nextMatch("conf"), "c.CONF");
+            assertEquals(read(instance.getInputStream()), "ccc");
+            assertNull(instance.nextMatch("conf"));
+            assertEquals(instance.getCount(), 3);
+        }
+    }
+
+    @Test
+    public void testTarGz() throws IOException {
+        System.out.println("tarGz");
+        File file = File.createTempFile("archive", ".tar.gz");
+        file.deleteOnExit();
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+            tarEntry(out, "remotes/", '5', "");
+            tarEntry(out, "remotes/b.conf", '0', "bbb");
+            tarEntry(out, "././@LongLink", 'L', LONG_NAME + "\0");
+            tarEntry(out, "remotes/a/very/long", '0', new String(new char[1000]).replace('\0', 'c'));
+            tarEntry(out, "remotes/d.conf", '0', "");
+            out.write(new byte[1024]);
+        }
+        try (ArchiveReader instance = ArchiveReader.open(file)) {
+            assertEquals(instance.next(), "remotes/b.conf");
+            assertEquals(instance.next(), LONG_NAME);
+            assertEquals(read(instance.getInputStream()).length(), 1000);
+            assertEquals(instance.nextMatch("conf"), "remotes/d.conf");
+            assertEquals(read(instance.getInputStream()), "");
+            assertNull(instance.next());
+            assertEquals(instance.getCount(), 3);
+        }
+    }
+
+    @Test
+    public void testGz() throws IOException {
+        System.out.println("gz");
+        File file = File.createTempFile("archive", ".conf.gz");
+        file.deleteOnExit();
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+            out.write("single".getBytes(StandardCharsets.UTF_8));
+        }
+        try (ArchiveReader instance = ArchiveReader.open(file)) {
+            String name = instance.nextMatch("conf");
+            assertEquals(name, file.getName().substring(0, file.getName().length() - 3));
+            assertEquals(read(instance.getInputStream()), "single");
+            assertNull(instance.nextMatch("conf"));
+        }
+        assertFalse(ArchiveReader.isArchive("remote.conf"));
+    }
+}
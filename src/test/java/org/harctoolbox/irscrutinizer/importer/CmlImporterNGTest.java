@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer.importer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.harctoolbox.girr.Command;
+import org.harctoolbox.girr.CommandSet;
+import org.harctoolbox.girr.Remote;
+import org.harctoolbox.girr.RemoteSet;
+import org.harctoolbox.ircore.InvalidArgumentException;
+import org.harctoolbox.ircore.IrSignal;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class CmlImporterNGTest {
+
+    private static final int REMOTE_TOKEN_BYTE = 0xbb;
+    private static final int COMMAND_TOKEN_BYTE = 0xcc;
+    private static final int WAV = 26316; // 37999 Hz
+    private static final int FREQUENCY = 1000000000 / WAV;
+    private static final int[] TIMINGS = {9024, 4512, 564, 1692, 40000, 2256, 96000};
+    private static final int[] INTRO = {1, 2, 3, 3, 3, 4, 3, 5};
+    private static final int[] REPEAT = {1, 6, 3, 7};
+
+    /**
+     * Builds a CML file in memory.
+     */
+    private static final class CmlBuilder {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+
+        CmlBuilder bytes(int... bytes) {
+            for (int b : bytes)
+                out.write(b);
+            return this;
+        }
+
+        CmlBuilder token(int b) {
+            return bytes(b, b, b, b);
+        }
+
+        CmlBuilder zeros(int length) {
+            return bytes(new int[length]);
+        }
+
+        CmlBuilder string(String str) {
+            byte[] buf = Arrays.copyOf(str.getBytes(StandardCharsets.US_ASCII), 21);
+            out.write(buf, 0, buf.length);
+            return this;
+        }
+
+        CmlBuilder remote(String vendor, String kind, String model) {
+            return token(REMOTE_TOKEN_BYTE).zeros(12).string(vendor).string(kind).string(model);
+        }
+
+        CmlBuilder command(String name, int[] timings, int[] intro, int[] repeat) {
+            token(COMMAND_TOKEN_BYTE).zeros(9);
+            bytes(WAV & 0xff, WAV >> 8, timings.length, intro.length, 0, repeat.length, 0).zeros(7);
+            string(name);
+            for (int duration : timings) {
+                // inverse of the decoding in CmlImporter.parseCommand
+                int high = duration / 32768;
+                int rest = (high + 1) * 32768 - duration;
+                bytes(2 * (rest % 128), rest / 128, high);
+            }
+            bytes(intro);
+            return bytes(repeat);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    private static RemoteSet load(byte[] data) throws IOException, InvalidArgumentException {
+        CmlImporter instance = new CmlImporter();
+        instance.load(new ByteArrayInputStream(data), "test.cml", "US-ASCII");
+        return instance.getRemoteSet();
+    }
+
+    private static String expectedIrSignal() throws InvalidArgumentException {
+        int[] durations = new int[INTRO.length + REPEAT.length];
+        for (int i = 0; i < INTRO.length; i++)
+            durations[i] = TIMINGS[INTRO[i] - 1];
+        for (int i = 0; i < REPEAT.length; i++)
+            durations[INTRO.length + i] = TIMINGS[REPEAT[i] - 1];
+        return new IrSignal(durations, INTRO.length, REPEAT.length, FREQUENCY).toString();
+    }
+
+    public CmlImporterNGTest() {
+    }
+
+    /**
+     * Test of load method, with the tokens not aligned to the four byte stride of the token search.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testLoad() throws Exception {
+        System.out.println("load");
+        byte[] data = new CmlBuilder()
+                .bytes('C', 'M', 'L', 0, COMMAND_TOKEN_BYTE, COMMAND_TOKEN_BYTE) // six bytes: the remote token straddles the stride
+                .remote("Vendor", "TV", "M1")
+                .command("power", TIMINGS, INTRO, REPEAT)
+                .bytes(REMOTE_TOKEN_BYTE, REMOTE_TOKEN_BYTE, 0) // partial token in between
+                .command("mute", TIMINGS, INTRO, REPEAT)
+                .remote("Other", "VCR", "M2")
+                .command("play", TIMINGS, INTRO, REPEAT)
+                .toByteArray();
+        RemoteSet remoteSet = load(data);
+        assertEquals(remoteSet.size(), 2);
+        Remote remote = remoteSet.getRemote("Vendor_TV_M1");
+        assertEquals(remote.getManufacturer(), "Vendor");
+        assertEquals(remote.getModel(), "M1");
+        for (CommandSet commandSet : remote) {
+            assertEquals(commandSet.size(), 2);
+            for (Command command : commandSet)
+                assertEquals(command.toIrSignal().toString(), expectedIrSignal());
+        }
+        assertNotNull(remoteSet.getRemote("Other_VCR_M2"));
+    }
+
+    /**
+     * Test of load method, with a file ending shortly after the last remote token.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testTruncatedTail() throws Exception {
+        System.out.println("truncatedTail");
+        byte[] data = new CmlBuilder()
+                .remote("Vendor", "TV", "M1")
+                .command("power", TIMINGS, INTRO, REPEAT)
+                .token(REMOTE_TOKEN_BYTE)
+                .zeros(5)
+                .toByteArray();
+        RemoteSet remoteSet = load(data);
+        assertEquals(remoteSet.size(), 1);
+        assertNotNull(remoteSet.getRemote("Vendor_TV_M1"));
+
+        byte[] truncated = Arrays.copyOf(data, data.length - 9 - REPEAT.length - 2);
+        try {
+            load(truncated);
+            fail();
+        } catch (IOException ex) {
+        }
+    }
+
+    /**
+     * Test of load method, with a timing index outside of the timings table.
+     * @throws java.lang.Exception
+     */
+    @Test(expectedExceptions = InvalidArgumentException.class)
+    public void testInvalidTimingIndex() throws Exception {
+        System.out.println("invalidTimingIndex");
+        int[] intro = INTRO.clone();
+        intro[5] = TIMINGS.length + 1;
+        byte[] data = new CmlBuilder()
+                .remote("Vendor", "TV", "M1")
+                .command("power", TIMINGS, intro, REPEAT)
+                .toByteArray();
+        load(data);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer.importer;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class CsvTokenizerNGTest {
+
+    private static final String ALPHABET = "ab1 ,;:\t\"";
+
+    // The former CsvRawImporter.csvSplit, as reference.
+    private static String[] csvSplit(String line, String separator) {
+        StringBuilder str = new StringBuilder(line.trim());
+        ArrayList<String> chunks = new ArrayList<>(16);
+        Pattern pattern = Pattern.compile(separator);
+
+        while (str.length() > 0) {
+            if (str.length() >= separator.length() && separator.equals(str.substring(0, separator.length())))
+                str.delete(0, separator.length());
+            while (str.length() > 0 && Character.isWhitespace(str.charAt(0))) {
+                str.deleteCharAt(0);
+            }
+            String chunk;
+            if (str.length() > 0 && str.charAt(0) == '"') {
+                int n = str.indexOf("\"", 1);
+                chunk = str.substring(1, n);
+                str.delete(0, n+1);
+            } else {
+                Matcher matcher = pattern.matcher(str);
+                boolean success = matcher.find();
+                if (success) {
+                    chunk = str.substring(0, matcher.start());
+                    str.delete(0, matcher.end());
+                } else {
+                    chunk = str.toString();
+                    str.setLength(0);
+                }
+            }
+            chunks.add(chunk.trim());
+        }
+        return chunks.toArray(new String[0]);
+    }
+
+    private static String randomLine(Random random, boolean quotes) {
+        int length = random.nextInt(20);
+        StringBuilder str = new StringBuilder(length + 1);
+        boolean inQuote = false;
+        for (int i = 0; i < length; i++) {
+            char ch = ALPHABET.charAt(random.nextInt(quotes ? ALPHABET.length() : ALPHABET.length() - 1));
+            if (ch == '"')
+                inQuote = !inQuote;
+            str.append(ch);
+        }
+        if (inQuote)
+            str.append('"');
+        return str.toString();
+    }
+
+    public CsvTokenizerNGTest() {
+    }
+
+    @Test
+    public void testSplitLoose() {
+        System.out.println("splitLoose");
+        CsvTokenizer instance = new CsvTokenizer(",", false);
+        assertEquals(instance.split(" Power , 0000 006D 0000 0002 ,x"), new String[]{"Power", "0000 006D 0000 0002", "x"});
+        assertEquals(instance.split("\"Vol, up\",1"), new String[]{"Vol, up", "1"});
+        assertEquals(instance.split("\"unterminated, quote"), new String[]{"unterminated, quote"});
+        assertEquals(instance.split(""), new String[0]);
+    }
+
+    @Test
+    public void testSplitKeepingEmpty() {
+        System.out.println("splitKeepingEmpty");
+        CsvTokenizer instance = new CsvTokenizer(",", true);
+        assertEquals(instance.split("a,,b,,"), new String[]{"a", "", "b"});
+        assertEquals(instance.split("\"Vol, up\",1"), new String[]{"\"Vol, up\"", "1"});
+        assertEquals(instance.split(""), new String[]{""});
+        assertEquals(new CsvTokenizer("\\s+", true).split("  a \t b"), new String[]{"", "a", "b"});
+    }
+
+    @Test
+    public void testCompatibility() {
+        System.out.println("compatibility");
+        Random random = new Random(4711);
+        for (int separatorIndex = 0; separatorIndex < CsvImporter.separatorsArray().length; separatorIndex++) {
+            String separator = CsvImporter.getSeparator(separatorIndex);
+            CsvTokenizer loose = new CsvTokenizer(separator, false);
+            CsvTokenizer keepingEmpty = new CsvTokenizer(separator, true);
+            for (int i = 0; i < 10000; i++) {
+                String line = randomLine(random, true);
+                try {
+                    assertEquals(loose.split(line), csvSplit(line, separator), line);
+                } catch (StringIndexOutOfBoundsException ex) {
+                    // the reference fails on a quote without its closing quote
+                }
+                line = randomLine(random, false);
+                assertEquals(keepingEmpty.split(line), line.split(separator), line);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer.importer;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import org.harctoolbox.girr.Remote;
+import org.harctoolbox.girr.RemoteSet;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class GirrImporterNGTest {
+
+    private static final int NO_FILES = 50;
+
+    private static String mkGirr(String remoteName) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<remotes xmlns=\"http://www.harctoolbox.org/Girr\" girrVersion=\"1.2\">\n"
+                + "    <remote name=\"" + remoteName + "\">\n"
+                + "        <commandSet name=\"default\">\n"
+                + "            <command name=\"power\" master=\"raw\">\n"
+                + "                <raw frequency=\"38000\"><intro>+9000 -4500 +560 -40000</intro></raw>\n"
+                + "            </command>\n"
+                + "        </commandSet>\n"
+                + "    </remote>\n"
+                + "</remotes>\n";
+    }
+
+    public GirrImporterNGTest() {
+    }
+
+    /**
+     * Test of load method, of class GirrImporter, with a directory of more files than are parsed ahead.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testLoadDirectory() throws Exception {
+        System.out.println("loadDirectory");
+        Path dir = Files.createTempDirectory("girrDirectory");
+        for (int i = 0; i < NO_FILES; i++)
+            Files.write(dir.resolve(String.format("r%03d.girr", i)), mkGirr(String.format("remote%03d", i)).getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("r010a.girr"), "<remotes".getBytes(StandardCharsets.UTF_8)); // broken, skipped
+
+        GirrImporter instance = new GirrImporter(false, null, null);
+        instance.load(dir.toFile(), dir.toString(), "UTF-8");
+        RemoteSet remoteSet = instance.getRemoteSet();
+        assertEquals(remoteSet.size(), NO_FILES);
+        Iterator<Remote> remotes = remoteSet.iterator();
+        for (int i = 0; i < NO_FILES; i++)
+            assertEquals(remotes.next().getName(), String.format("remote%03d", i)); // in path order
+        assertEquals(instance.getCommands().size(), NO_FILES);
+
+        for (File file : dir.toFile().listFiles())
+            file.delete();
+        dir.toFile().delete();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer.importer;
+
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class Mode2ImporterNGTest {
+
+    private static final String MODE2 =
+              "space 16777215\n"
+            + "pulse 9024\n"
+            + "space 4512\n"
+            + "pulse 564\n"
+            + "space 1692\n"
+            + "space 10\n"
+            + "pulse 564\n"
+            + "space 500000\n"
+            + "pulse 9024\n"
+            + "space 2256\n"
+            + "pulse 564\r\n"
+            + "\n";
+
+    public Mode2ImporterNGTest() {
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        System.out.println("load");
+        Mode2Importer instance = new Mode2Importer();
+        instance.load(new StringReader(MODE2), "test");
+        List<ModulatedIrSequence> sequences = instance.getModulatedIrSequences();
+        assertEquals(sequences.size(), 2);
+        assertEquals(sequences.get(0).getLength(), 6);
+        assertEquals(sequences.get(0).get(3), 1702.0);
+        assertEquals(sequences.get(0).get(5), 500000.0);
+        assertEquals(sequences.get(1).getLength(), 4);
+        assertEquals(sequences.get(1).get(3), 300000.0); // added ending timeout
+        assertEquals(instance.getModulatedIrSequence().getLength(), 10);
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        System.out.println("streaming");
+        Mode2Importer instance = new Mode2Importer();
+        List<ModulatedIrSequence> received = new ArrayList<>(2);
+        instance.load(new StringReader(MODE2), "test", received::add);
+        assertEquals(received.size(), 2);
+        assertTrue(instance.getModulatedIrSequences().isEmpty());
+    }
+
+    @Test(expectedExceptions = ParseException.class)
+    public void testUnknownLine() throws Exception {
+        System.out.println("unknownLine");
+        new Mode2Importer().load(new StringReader("pulse 100\nfoo 100\n"), "test");
+    }
+
+    @Test(expectedExceptions = ParseException.class)
+    public void testUnparsable() throws Exception {
+        System.out.println("unparsable");
+        new Mode2Importer().load(new StringReader("pulse 1x0\n"), "test");
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2026 Bengt Martensson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.harctoolbox.irscrutinizer.importer;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class StreamingDomBuilderNGTest {
+
+    private static final String XML = "<?xml version=\"1.0\"?>\n"
+            + "<root a=\"1\" xmlns:x=\"urn:x\">\n"
+            + "  <images><image><bitmap>QUFBQUFB</bitmap></image></images>\n"
+            + "  <items><wrap><item id=\"i1\"><!-- comment --><code>0000 &amp; <![CDATA[<1>]]></code></item></wrap></items>\n"
+            + "  <x:item id=\"i2\"/>\n"
+            + "</root>\n";
+
+    private static StreamingDomBuilder newInstance(String xml, boolean namespaceAware) throws Exception {
+        return new StreamingDomBuilder(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null, namespaceAware,
+                (String name) -> name.equals("item") || name.equals("code"));
+    }
+
+    public StreamingDomBuilderNGTest() {
+    }
+
+    @Test
+    public void testReadDocument() throws Exception {
+        System.out.println("readDocument");
+        Document document = newInstance(XML, false).readDocument();
+        Element root = document.getDocumentElement();
+        assertEquals(root.getAttribute("a"), "1");
+        assertEquals(root.getElementsByTagName("images").getLength(), 1); // first level always kept
+        assertEquals(root.getElementsByTagName("image").getLength(), 0);
+        assertEquals(root.getElementsByTagName("wrap").getLength(), 0);
+        NodeList items = root.getElementsByTagName("item");
+        assertEquals(items.getLength(), 1);
+        assertEquals(((Element) items.item(0)).getAttribute("id"), "i1");
+        assertEquals(((Element) items.item(0).getParentNode()).getTagName(), "items");
+        assertEquals(root.getElementsByTagName("code").item(0).getTextContent(), "0000 & <1>");
+        assertFalse(root.getTextContent().contains("QUFB"));
+    }
+
+    @Test
+    public void testSubtrees() throws Exception {
+        System.out.println("subtrees");
+        StreamingDomBuilder instance = newInstance(XML, true);
+        Element root = instance.readRoot();
+        assertEquals(root.getChildNodes().getLength(), 0);
+        int count = 0;
+        while (instance.nextChild(root)) {
+            String name = instance.getName();
+            Element element = instance.readElement(root);
+            assertEquals(element.getTagName(), name);
+            if (name.equals("x:item")) {
+                assertEquals(element.getNamespaceURI(), "urn:x");
+                assertEquals(element.getLocalName(), "item");
+            }
+            count++;
+        }
+        assertEquals(count, 3);
+    }
+
+    @Test(expectedExceptions = StreamingDomBuilder.UnsupportedException.class)
+    public void testDtd() throws Exception {
+        System.out.println("dtd");
+        newInstance("<!DOCTYPE root []><root/>", false).readDocument();
+    }
+
+    @Test(expectedExceptions = StreamingDomBuilder.UnsupportedException.class)
+    public void testXInclude() throws Exception {
+        System.out.println("xInclude");
+        newInstance("<root xmlns:xi=\"http://www.w3.org/2001/XInclude\"><item><xi:include href=\"x.xml\"/></item></root>", true).readDocument();
+    }
+}